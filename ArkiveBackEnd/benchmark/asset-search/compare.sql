@@ -0,0 +1,46 @@
+-- So sánh trước / sau cho tìm kiếm filename trên collection benchmark (chạy sau seed-assets.sql):
+--   psql "$DB_URL" -f benchmark/asset-search/compare.sql
+-- "Trước": truy vấn LIKE cũ của AssetRepository.searchAssets khi không có index trigram (seq scan).
+-- "Sau": truy vấn xếp hạng của AssetRepository.searchIdsByRelevance dùng idx_asset_filename_trgm / idx_asset_tags_gin.
+
+\timing on
+
+-- ==================== TRƯỚC: không có index trigram ====================
+BEGIN;
+DROP INDEX arkive.idx_asset_filename_trgm;
+DROP INDEX arkive.idx_asset_tags_gin;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.id, a.filename
+FROM arkive.asset a
+WHERE a.collection_id = 'bench-collection'
+  AND lower(a.filename) LIKE lower('%' || 'sunset-4242' || '%')
+  AND a.is_deleted = false
+ORDER BY a.created_at DESC
+LIMIT 20;
+
+ROLLBACK; -- Khôi phục index
+
+-- ==================== SAU: GIN trigram + xếp hạng ====================
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.id
+FROM arkive.asset a
+WHERE a.collection_id = 'bench-collection' AND a.is_deleted = false
+  AND (lower(a.filename) LIKE '%' || lower('sunset-4242') || '%'
+       OR lower('sunset-4242') <% lower(a.filename)
+       OR a.tags @> CAST(ARRAY[lower('sunset-4242')] AS varchar[]))
+ORDER BY (CASE WHEN a.tags @> CAST(ARRAY[lower('sunset-4242')] AS varchar[]) THEN 1 ELSE 0 END)
+         + word_similarity(lower('sunset-4242'), lower(a.filename)) DESC, a.id
+LIMIT 20;
+
+-- Tìm theo tag chính xác
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.id
+FROM arkive.asset a
+WHERE a.collection_id = 'bench-collection' AND a.is_deleted = false
+  AND (lower(a.filename) LIKE '%' || lower('favorite') || '%'
+       OR lower('favorite') <% lower(a.filename)
+       OR a.tags @> CAST(ARRAY[lower('favorite')] AS varchar[]))
+ORDER BY (CASE WHEN a.tags @> CAST(ARRAY[lower('favorite')] AS varchar[]) THEN 1 ELSE 0 END)
+         + word_similarity(lower('favorite'), lower(a.filename)) DESC, a.id
+LIMIT 20;
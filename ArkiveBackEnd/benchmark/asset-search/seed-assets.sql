@@ -0,0 +1,42 @@
+-- Sinh bộ dữ liệu benchmark cho tìm kiếm asset: 1 user, 1 collection, 500.000 assets.
+-- Chạy trên database đã được ứng dụng khởi tạo schema (ddl-auto + schema-postgresql.sql):
+--   psql "$DB_URL" -v asset_count=500000 -f benchmark/asset-search/seed-assets.sql
+-- Xoá dữ liệu benchmark: DELETE FROM arkive.collections WHERE id = 'bench-collection'; (và user 'bench-user')
+
+\if :{?asset_count}
+\else
+    \set asset_count 500000
+\endif
+
+BEGIN;
+
+INSERT INTO arkive.users (id, created_at, updated_at, username, full_name, email, password, is_verified)
+VALUES ('bench-user', now(), now(), 'bench', 'Benchmark User', 'bench@example.com', 'x', true)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO arkive.collections (id, created_at, updated_at, name, description, owner_id)
+VALUES ('bench-collection', now(), now(), 'Benchmark', 'Dataset for search benchmarks', 'bench-user')
+ON CONFLICT DO NOTHING;
+
+-- Tên file giống thực tế: tiền tố máy ảnh / ứng dụng + chủ đề + số thứ tự, vài tag ngẫu nhiên
+INSERT INTO arkive.asset (id, created_at, updated_at, filename, storage_key, file_type, file_size,
+                          tags, collection_id, is_deleted)
+SELECT gen_random_uuid()::text,
+       now() - (g || ' seconds')::interval,
+       now() - (g || ' seconds')::interval,
+       (ARRAY['IMG_', 'DSC_', 'PXL_', 'Screenshot ', 'scan-', 'invoice-'])[1 + g % 6]
+           || (ARRAY['beach', 'mountain', 'birthday', 'office', 'receipt', 'sunset', 'wedding', 'family'])[1 + (g / 7) % 8]
+           || '-' || g
+           || (ARRAY['.jpg', '.png', '.heic', '.pdf', '.mp4'])[1 + g % 5],
+       'bench/' || gen_random_uuid()::text,
+       (ARRAY['image/jpeg', 'image/png', 'image/heic', 'application/pdf', 'video/mp4'])[1 + g % 5],
+       10000 + (g * 7919) % 50000000,
+       ARRAY[(ARRAY['travel', 'work', 'family', '2023', '2024', 'favorite'])[1 + g % 6],
+             (ARRAY['summer', 'winter', 'tax', 'kids'])[1 + (g / 3) % 4]]::varchar[],
+       'bench-collection',
+       g % 50 = 0
+FROM generate_series(1, :asset_count) AS g;
+
+COMMIT;
+
+ANALYZE arkive.asset;
@@ -1,15 +1,20 @@
 package com.example.arkivebackend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class S3Config {
@@ -26,23 +31,75 @@ public class S3Config {
     @Value("${app.s3.region}")
     private String region;
 
+    @Value("${app.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    @Value("${app.s3.async.max-concurrency:128}")
+    private int asyncMaxConcurrency;
+
+    @Value("${app.s3.async.max-pending-acquires:10000}")
+    private int asyncMaxPendingAcquires;
+
+    @Value("${app.s3.async.acquire-timeout:PT10S}")
+    private Duration asyncAcquireTimeout;
+
+    @Value("${app.s3.async.connection-timeout:PT5S}")
+    private Duration asyncConnectionTimeout;
+
+    @Value("${app.s3.async.read-timeout:PT30S}")
+    private Duration asyncReadTimeout;
+
+    @Value("${app.s3.async.connection-max-idle-time:PT60S}")
+    private Duration asyncConnectionMaxIdleTime;
+
+    /**
+     * Client đồng bộ cho các thao tác cần kết quả ngay trong transaction (multipart, liệt kê bucket trong job)
+     */
     @Bean
-    public S3Client s3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
+    public S3Client s3Client(MeterRegistry meterRegistry) {
         return S3Client.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .credentialsProvider(credentialsProvider())
                 .endpointOverride(URI.create(s3Endpoint))
+                .forcePathStyle(pathStyleAccess)
+                .overrideConfiguration(config -> config.addMetricPublisher(new S3MetricPublisher(meterRegistry, "sync")))
+                .build();
+    }
+
+    /**
+     * Client bất đồng bộ (Netty): delete / head / abort trả về CompletableFuture, nhiều request dùng chung
+     * một pool kết nối thay vì mỗi request chiếm một thread trong suốt round trip.
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient(MeterRegistry meterRegistry) {
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .endpointOverride(URI.create(s3Endpoint))
+                .forcePathStyle(pathStyleAccess)
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(asyncMaxConcurrency)
+                        .maxPendingConnectionAcquires(asyncMaxPendingAcquires)
+                        .connectionAcquisitionTimeout(asyncAcquireTimeout)
+                        .connectionTimeout(asyncConnectionTimeout)
+                        .readTimeout(asyncReadTimeout)
+                        .connectionMaxIdleTime(asyncConnectionMaxIdleTime)
+                        .tcpKeepAlive(true))
+                .overrideConfiguration(config -> config.addMetricPublisher(new S3MetricPublisher(meterRegistry, "async")))
                 .build();
     }
 
     @Bean
     public S3Presigner s3Presigner() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
         return S3Presigner.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .credentialsProvider(credentialsProvider())
                 .endpointOverride(URI.create(s3Endpoint))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build())
                 .build();
     }
+
+    private StaticCredentialsProvider credentialsProvider() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+    }
 }
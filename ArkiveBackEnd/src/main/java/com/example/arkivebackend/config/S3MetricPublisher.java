@@ -0,0 +1,95 @@
+package com.example.arkivebackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Đẩy metric của AWS SDK sang Micrometer (/actuator/metrics):
+ * arkive.s3.api (thời gian mỗi API call theo operation / outcome) và trạng thái pool kết nối HTTP
+ * (arkive.s3.pool.leased / pending / available / max, arkive.s3.pool.acquire) lấy từ lần gọi gần nhất.
+ */
+public class S3MetricPublisher implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+    private final String client;
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger max = new AtomicInteger();
+    private final Timer acquireTimer;
+
+    public S3MetricPublisher(MeterRegistry meterRegistry, String client) {
+        this.meterRegistry = meterRegistry;
+        this.client = client;
+        meterRegistry.gauge("arkive.s3.pool.leased", List.of(clientTag()), leased);
+        meterRegistry.gauge("arkive.s3.pool.pending", List.of(clientTag()), pending);
+        meterRegistry.gauge("arkive.s3.pool.available", List.of(clientTag()), available);
+        meterRegistry.gauge("arkive.s3.pool.max", List.of(clientTag()), max);
+        this.acquireTimer = Timer.builder("arkive.s3.pool.acquire")
+                .description("Thời gian chờ lấy kết nối từ pool")
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(MetricCollection metrics) {
+        Duration duration = first(metrics, CoreMetric.API_CALL_DURATION);
+        if (duration != null) {
+            String operation = first(metrics, CoreMetric.OPERATION_NAME);
+            Timer.builder("arkive.s3.api")
+                    .description("Thời gian một API call S3, gồm cả retry")
+                    .tag("client", client)
+                    .tag("operation", operation == null ? "unknown" : operation)
+                    .tag("outcome", Boolean.TRUE.equals(first(metrics, CoreMetric.API_CALL_SUCCESSFUL)) ? "success" : "error")
+                    .register(meterRegistry)
+                    .record(duration);
+        }
+        recordHttpClientMetrics(metrics);
+    }
+
+    // Metric pool nằm ở collection con "HttpClient" của từng attempt
+    private void recordHttpClientMetrics(MetricCollection metrics) {
+        Integer leasedValue = first(metrics, HttpMetric.LEASED_CONCURRENCY);
+        if (leasedValue != null) {
+            leased.set(leasedValue);
+            setIfPresent(pending, first(metrics, HttpMetric.PENDING_CONCURRENCY_ACQUIRES));
+            setIfPresent(available, first(metrics, HttpMetric.AVAILABLE_CONCURRENCY));
+            setIfPresent(max, first(metrics, HttpMetric.MAX_CONCURRENCY));
+            Duration acquire = first(metrics, HttpMetric.CONCURRENCY_ACQUIRE_DURATION);
+            if (acquire != null) {
+                acquireTimer.record(acquire);
+            }
+        }
+        metrics.children().forEach(this::recordHttpClientMetrics);
+    }
+
+    @Override
+    public void close() {
+        // Meter thuộc MeterRegistry của Spring, không có gì để giải phóng
+    }
+
+    private Tag clientTag() {
+        return Tag.of("client", client);
+    }
+
+    private static void setIfPresent(AtomicInteger gauge, Integer value) {
+        if (value != null) {
+            gauge.set(value);
+        }
+    }
+
+    private static <T> T first(MetricCollection metrics, SdkMetric<T> metric) {
+        List<T> values = metrics.metricValues(metric);
+        return values.isEmpty() ? null : values.get(0);
+    }
+}
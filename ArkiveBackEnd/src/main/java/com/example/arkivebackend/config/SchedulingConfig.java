@@ -0,0 +1,13 @@
+package com.example.arkivebackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration để enable các job chạy định kỳ (đối soát thống kê collection, ...).
+ * Số thread của scheduler đặt ở spring.task.scheduling.pool.size, thêm job mới thì tăng theo.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
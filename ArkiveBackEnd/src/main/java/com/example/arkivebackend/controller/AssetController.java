@@ -2,22 +2,49 @@ package com.example.arkivebackend.controller;
 
 import com.example.arkivebackend.dto.ApiResponse;
 import com.example.arkivebackend.dto.request.AssetUpdateRequest;
+import com.example.arkivebackend.dto.request.AssetUploadBatchRequest;
+import com.example.arkivebackend.dto.request.AssetUploadCompleteBatchRequest;
 import com.example.arkivebackend.dto.request.AssetUploadCompleteRequest;
 import com.example.arkivebackend.dto.request.AssetUploadRequest;
+import com.example.arkivebackend.dto.request.BulkAssetRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadCompleteRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadCreateRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadPartsRequest;
 import com.example.arkivebackend.dto.response.AssetResponse;
+import com.example.arkivebackend.dto.response.BatchPresignedUrlResponse;
+import com.example.arkivebackend.dto.response.BulkAssetResponse;
+import com.example.arkivebackend.dto.response.CursorPageResponse;
+import com.example.arkivebackend.dto.response.PresignedPartUrlResponse;
 import com.example.arkivebackend.dto.response.PresignedUrlResponse;
+import com.example.arkivebackend.dto.response.ScrubStripResponse;
+import com.example.arkivebackend.dto.response.SimilarAssetResponse;
+import com.example.arkivebackend.dto.response.TagFacetResponse;
+import com.example.arkivebackend.dto.response.UploadSessionResponse;
+import com.example.arkivebackend.service.AssetBulkService;
+import com.example.arkivebackend.service.AssetRenderService;
 import com.example.arkivebackend.service.AssetService;
+import com.example.arkivebackend.service.SimilarAssetService;
+import com.example.arkivebackend.service.UploadSessionService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.Set;
+
 
 @RestController
 @RequestMapping("/api/v1/assets")
@@ -25,6 +52,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class AssetController {
     AssetService assetService;
+    AssetBulkService assetBulkService;
+    AssetRenderService assetRenderService;
+    SimilarAssetService similarAssetService;
+    UploadSessionService uploadSessionService;
 
     /**
      * BƯỚC 1: Frontend gọi để lấy URL.
@@ -38,6 +69,91 @@ public class AssetController {
                 .build();
     }
 
+    /**
+     * BƯỚC 1 (nhiều file): lấy URL upload file gốc + thumbnail cho cả lô trong một request.
+     */
+    @PostMapping("/upload-request/batch")
+    public ApiResponse<List<BatchPresignedUrlResponse>> requestUploadUrls(@RequestBody @Valid AssetUploadBatchRequest request) {
+        var presignedUrls = assetService.requestUploadUrls(request);
+        return ApiResponse.<List<BatchPresignedUrlResponse>>builder()
+                .success(true)
+                .data(presignedUrls)
+                .build();
+    }
+
+    /**
+     * BƯỚC 1 (file lớn): tạo upload session (multipart upload), trả về sessionId + kích thước part.
+     */
+    @PostMapping("/multipart")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ApiResponse<UploadSessionResponse> createUploadSession(@RequestBody @Valid MultipartUploadCreateRequest request) {
+        var session = uploadSessionService.createSession(request);
+        return ApiResponse.<UploadSessionResponse>builder()
+                .success(true)
+                .data(session)
+                .build();
+    }
+
+    /**
+     * Các upload session còn dở của user hiện tại (tab mới tìm lại file để resume).
+     */
+    @GetMapping("/multipart")
+    public ApiResponse<List<UploadSessionResponse>> getActiveUploadSessions() {
+        var sessions = uploadSessionService.getActiveSessions();
+        return ApiResponse.<List<UploadSessionResponse>>builder()
+                .success(true)
+                .data(sessions)
+                .build();
+    }
+
+    /**
+     * Resume: các part S3 đã nhận (ListParts) và các part còn thiếu, client chỉ upload lại phần thiếu.
+     */
+    @GetMapping("/multipart/{sessionId}")
+    public ApiResponse<UploadSessionResponse> resumeUploadSession(@PathVariable String sessionId) {
+        var session = uploadSessionService.resumeSession(sessionId);
+        return ApiResponse.<UploadSessionResponse>builder()
+                .success(true)
+                .data(session)
+                .build();
+    }
+
+    /**
+     * BƯỚC 2 (file lớn): lấy URL PUT cho các part, client upload song song và giữ ETag của từng part.
+     */
+    @PostMapping("/multipart/{sessionId}/parts")
+    public ApiResponse<List<PresignedPartUrlResponse>> requestPartUploadUrls(@PathVariable String sessionId,
+                                                                            @RequestBody @Valid MultipartUploadPartsRequest request) {
+        var partUrls = uploadSessionService.requestPartUploadUrls(sessionId, request);
+        return ApiResponse.<List<PresignedPartUrlResponse>>builder()
+                .success(true)
+                .data(partUrls)
+                .build();
+    }
+
+    /**
+     * Ghép các part thành object; sau đó gọi /upload-complete với storageKey như upload thường.
+     */
+    @PostMapping("/multipart/{sessionId}/complete")
+    public ApiResponse<Void> completeUploadSession(@PathVariable String sessionId,
+                                                   @RequestBody(required = false) @Valid MultipartUploadCompleteRequest request) {
+        uploadSessionService.completeSession(sessionId, request);
+        return ApiResponse.<Void>builder()
+                .success(true)
+                .build();
+    }
+
+    /**
+     * Huỷ upload session (người dùng bấm huỷ), S3 xoá các part đã upload.
+     */
+    @DeleteMapping("/multipart/{sessionId}")
+    public ApiResponse<Void> abortUploadSession(@PathVariable String sessionId) {
+        uploadSessionService.abortSession(sessionId);
+        return ApiResponse.<Void>builder()
+                .success(true)
+                .build();
+    }
+
     // BƯỚC 2: Frontend tự upload lên URL
 
     /**
@@ -53,12 +169,24 @@ public class AssetController {
                 .build();
     }
 
+    /**
+     * BƯỚC 3 (nhiều file): đăng ký cả lô file đã upload xong trong một request.
+     */
+    @PostMapping("/upload-complete/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ApiResponse<List<AssetResponse>> completeUploadBatch(@RequestBody @Valid AssetUploadCompleteBatchRequest request) {
+        var assets = assetService.completeUploadBatch(request);
+        return ApiResponse.<List<AssetResponse>>builder()
+                .success(true)
+                .data(assets)
+                .build();
+    }
+
     /**
      * Endpoint để lấy thông tin Asset theo ID.
-     * Chỉ owner của asset mới được phép gọi.
+     * Chỉ owner của asset mới được phép gọi (asset của người khác trả về 404).
      */
     @GetMapping("/{assetId}")
-    @PreAuthorize("@assetSecurity.isOwner(#assetId, authentication.name)")
     public ApiResponse<AssetResponse> getAssetById(@PathVariable String assetId) {
         var asset = assetService.getAssetById(assetId);
         return ApiResponse.<AssetResponse>builder()
@@ -85,7 +213,6 @@ public class AssetController {
      * Owner của asset mới được phép xóa.
      */
     @DeleteMapping("/{assetId}")
-    @PreAuthorize("@assetService.isOwner(#assetId, authentication.name)")
     public ApiResponse<Void> deleteAsset(@PathVariable String assetId) {
         assetService.softDeleteAsset(assetId);
         return ApiResponse.<Void>builder()
@@ -94,7 +221,6 @@ public class AssetController {
     }
 
     @DeleteMapping("/{assetId}/hard")
-    @PreAuthorize("@assetSecurity.isOwner(#assetId, authentication.name)")
     public ApiResponse<Void> hardDeleteAsset(@PathVariable String assetId) {
         assetService.hardDeleteAsset(assetId);
         return ApiResponse.<Void>builder()
@@ -106,7 +232,6 @@ public class AssetController {
      * Endpoint để cập nhật thông tin Asset (filename, tags, thumbnail).
      */
     @PatchMapping("/{assetId}")
-    @PreAuthorize("@assetSecurity.isOwner(#assetId, authentication.name)")
     public ApiResponse<AssetResponse> updateAsset(
             @PathVariable String assetId,
             @RequestBody @Valid AssetUpdateRequest request) {
@@ -119,10 +244,9 @@ public class AssetController {
 
     /**
      * Endpoint để lấy presigned URL để download asset.
-     * Chỉ owner của asset mới được phép gọi.
+     * Chỉ owner của asset mới được phép gọi (asset của người khác trả về 404).
      */
     @GetMapping("/{assetId}/download")
-    @PreAuthorize("@assetSecurity.isOwner(#assetId, authentication.name)")
     public ApiResponse<PresignedUrlResponse> getDownloadUrl(@PathVariable String assetId) {
         var downloadUrl = assetService.getDownloadUrl(assetId);
         return ApiResponse.<PresignedUrlResponse>builder()
@@ -133,10 +257,9 @@ public class AssetController {
 
     /**
      * Endpoint để lấy presigned URL để xem trước asset.
-     * Chỉ owner của asset mới được phép gọi.
+     * Chỉ owner của asset mới được phép gọi (asset của người khác trả về 404).
      */
     @GetMapping("/{assetId}/preview")
-    @PreAuthorize("@assetSecurity.isOwner(#assetId, authentication.name)")
     public ApiResponse<PresignedUrlResponse> getPreviewUrl(@PathVariable String assetId) {
         var previewUrl = assetService.getPreviewUrl(assetId);
         return ApiResponse.<PresignedUrlResponse>builder()
@@ -145,6 +268,60 @@ public class AssetController {
                 .build();
     }
 
+    /**
+     * Endpoint lấy dải khung hình của video để xem nhanh khi rê chuột trên lưới (không tải file video).
+     * Chỉ owner của asset mới được phép gọi (asset của người khác trả về 404).
+     */
+    @GetMapping("/{assetId}/scrub-strip")
+    public ApiResponse<ScrubStripResponse> getScrubStrip(@PathVariable String assetId) {
+        return ApiResponse.<ScrubStripResponse>builder()
+                .success(true)
+                .data(assetService.getScrubStrip(assetId))
+                .build();
+    }
+
+    /**
+     * Endpoint trả về ảnh đã resize / crop / đổi định dạng, ví dụ GET /api/v1/assets/{id}/render?w=640&h=480&fit=cover&format=png
+     * Chỉ owner của asset mới được phép gọi (asset của người khác trả về 404).
+     * Nội dung gửi thẳng từ file trong cache (FileChannel.transferTo), If-None-Match khớp ETag thì trả 304.
+     */
+    @GetMapping("/{assetId}/render")
+    public void render(@PathVariable String assetId,
+                       @RequestParam(name = "w", required = false) Integer width,
+                       @RequestParam(name = "h", required = false) Integer height,
+                       @RequestParam(required = false) String fit,
+                       @RequestParam(required = false) String format,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        try (AssetRenderService.RenderedImage image = assetRenderService.render(assetId, width, height, fit, format)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=86400");
+            if (new ServletWebRequest(request, response).checkNotModified(image.eTag())) {
+                return;
+            }
+            response.setContentType(image.contentType());
+            response.setContentLengthLong(image.size());
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < image.size()) {
+                position += image.content().transferTo(position, image.size() - position, out);
+            }
+        }
+    }
+
+    /**
+     * Endpoint tìm ảnh gần giống (chụp liên tiếp, bản đã chỉnh sửa) trong toàn bộ thư viện của user, gần nhất trước.
+     * Cách gọi: GET /api/v1/assets/{id}/similar?maxDistance=8&limit=20 (maxDistance: số bit khác nhau tối đa của perceptual hash)
+     */
+    @GetMapping("/{assetId}/similar")
+    public ApiResponse<List<SimilarAssetResponse>> findSimilar(@PathVariable String assetId,
+                                                               @RequestParam(required = false) Integer maxDistance,
+                                                               @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.<List<SimilarAssetResponse>>builder()
+                .success(true)
+                .data(similarAssetService.findSimilar(assetId, maxDistance, limit))
+                .build();
+    }
+
     /**
      * Endpoint để lấy danh sách assets có phân trang và tìm kiếm
      * * Cách gọi: GET /api/v1/assets?collectionId=...&keyword=...&page=...&size=...
@@ -157,10 +334,12 @@ public class AssetController {
             @RequestParam(required = false, defaultValue = "0") int page,     // Không bắt buộc, mặc định là trang 0
             @RequestParam(required = false, defaultValue = "20") int size,     // Không bắt buộc, mặc định là 20
             @RequestParam(required = false, defaultValue = "false") String sortBy,
-            @RequestParam(required = false, defaultValue = "false") String sortOrder
+            @RequestParam(required = false, defaultValue = "false") String sortOrder,
+            @RequestParam(required = false) Set<String> tags, // Lọc theo tag: tags=a,b hoặc tags=a&tags=b
+            @RequestParam(required = false, defaultValue = "any") String tagMatch // "any" | "all"
     ) {
         // 1. Gọi phương thức Service mà bạn vừa viết
-        Page<AssetResponse> assetPage = assetService.getAssetsPaginated(collectionId, keyword, sortBy, sortOrder, page, size);
+        Page<AssetResponse> assetPage = assetService.getAssetsPaginated(collectionId, keyword, tags, tagMatch, sortBy, sortOrder, page, size);
 
         // 2. Trả về đối tượng Page cho client
         return ApiResponse.<Page<AssetResponse>>builder()
@@ -170,12 +349,74 @@ public class AssetController {
     }
 
     /**
-     * Endpoint lấy asset trong đã xóa
+     * Endpoint facet tag: số assets theo từng tag trong collection (một câu aggregate)
+     * * Cách gọi: GET /api/v1/assets/tags?collectionId=...
+     */
+    @GetMapping("/tags")
+    @PreAuthorize("@assetSecurity.isCollectionOwner(#collectionId, authentication.name)")
+    public ApiResponse<List<TagFacetResponse>> getTagFacets(@RequestParam String collectionId) {
+        var facets = assetService.getTagFacets(collectionId);
+        return ApiResponse.<List<TagFacetResponse>>builder()
+                .success(true)
+                .data(facets)
+                .build();
+    }
+
+    /**
+     * Endpoint tìm kiếm theo độ liên quan (pg_trgm) trên filename và tags
+     * * Cách gọi: GET /api/v1/assets/search?collectionId=...&q=...&page=...&size=...
+     */
+    @GetMapping("/search")
+    @PreAuthorize("@assetSecurity.isCollectionOwner(#collectionId, authentication.name)")
+    public ApiResponse<Page<AssetResponse>> searchAssets(
+            @RequestParam String collectionId,
+            @RequestParam String q,
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "20") int size
+    ) {
+        var assetPage = assetService.searchAssetsByRelevance(collectionId, q, page, size);
+        return ApiResponse.<Page<AssetResponse>>builder()
+                .success(true)
+                .data(assetPage)
+                .build();
+    }
+
+    /**
+     * Endpoint phân trang theo cursor (keyset) - dùng cho collection lớn, trang sâu không chậm dần.
+     * * Cách gọi: GET /api/v1/assets?collectionId=...&cursor=&size=...  (cursor rỗng = trang đầu)
+     * * Trang tiếp theo: truyền nextCursor của response trước vào tham số cursor.
+     */
+    @GetMapping(value = "", params = "cursor")
+    @PreAuthorize("@assetSecurity.isCollectionOwner(#collectionId, authentication.name)")
+    public ApiResponse<CursorPageResponse<AssetResponse>> getAssetsByCursor(
+            @RequestParam String collectionId,
+            @RequestParam String cursor,
+            @RequestParam(required = false, defaultValue = "") String keyword,
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @RequestParam(required = false, defaultValue = "false") String sortBy,
+            @RequestParam(required = false, defaultValue = "false") String sortOrder,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal, // Chỉ COUNT(*) khi cần
+            @RequestParam(required = false) Set<String> tags,
+            @RequestParam(required = false, defaultValue = "any") String tagMatch
+    ) {
+        var assetPage = assetService.getAssetsByCursor(collectionId, keyword, tags, tagMatch, sortBy, sortOrder, cursor, size, includeTotal);
+        return ApiResponse.<CursorPageResponse<AssetResponse>>builder()
+                .success(true)
+                .data(assetPage)
+                .build();
+    }
+
+    /**
+     * Endpoint lấy asset trong thùng rác (đã xóa mềm), có phân trang
+     * * Cách gọi: GET /api/v1/assets/deleted?page=...&size=...
      */
     @GetMapping("/deleted")
-    public ApiResponse<List<AssetResponse>> deletedAssets() {
-        var assets = assetService.getDeletedAssets();
-        return ApiResponse.<List<AssetResponse>>builder()
+    public ApiResponse<Page<AssetResponse>> deletedAssets(
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "20") int size
+    ) {
+        var assets = assetService.getDeletedAssets(page, size);
+        return ApiResponse.<Page<AssetResponse>>builder()
                 .success(true)
                 .data(assets)
                 .build();
@@ -185,11 +426,52 @@ public class AssetController {
      * Endpoint khôi phục asset đã xóa
      */
     @PostMapping("/{assetId}/restore")
-    @PreAuthorize("@assetSecurity.isOwner(#assetId, authentication.name)")
     public ApiResponse<Void> restoreAsset(@PathVariable String assetId) {
         assetService.restoreAsset(assetId);
         return ApiResponse.<Void>builder()
                 .success(true)
                 .build();
     }
+
+    // ==================== Thao tác hàng loạt ====================
+    // Body: { "assetIds": [...], ... } - trả về kết quả theo từng id (SUCCESS / SKIPPED / NOT_FOUND / FAILED)
+
+    /**
+     * Xóa nhiều assets: xóa mềm, hoặc xóa vĩnh viễn khi "permanent": true
+     */
+    @PostMapping("/bulk/delete")
+    public ApiResponse<BulkAssetResponse> bulkDelete(@RequestBody @Valid BulkAssetRequest request) {
+        return bulkResponse(assetBulkService.delete(request));
+    }
+
+    /**
+     * Khôi phục nhiều assets từ thùng rác
+     */
+    @PostMapping("/bulk/restore")
+    public ApiResponse<BulkAssetResponse> bulkRestore(@RequestBody @Valid BulkAssetRequest request) {
+        return bulkResponse(assetBulkService.restore(request));
+    }
+
+    /**
+     * Thêm / bỏ tag cho nhiều assets ("addTags", "removeTags")
+     */
+    @PostMapping("/bulk/tag")
+    public ApiResponse<BulkAssetResponse> bulkTag(@RequestBody @Valid BulkAssetRequest request) {
+        return bulkResponse(assetBulkService.tag(request));
+    }
+
+    /**
+     * Chuyển nhiều assets sang collection khác ("targetCollectionId")
+     */
+    @PostMapping("/bulk/move")
+    public ApiResponse<BulkAssetResponse> bulkMove(@RequestBody @Valid BulkAssetRequest request) {
+        return bulkResponse(assetBulkService.move(request));
+    }
+
+    private ApiResponse<BulkAssetResponse> bulkResponse(BulkAssetResponse result) {
+        return ApiResponse.<BulkAssetResponse>builder()
+                .success(true)
+                .data(result)
+                .build();
+    }
 }
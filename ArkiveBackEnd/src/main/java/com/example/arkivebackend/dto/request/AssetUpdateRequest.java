@@ -15,6 +15,8 @@ public class AssetUpdateRequest {
 
     private String filename;
     private String thumbnailUrl;
-    private Set<String> tags;
+    private Set<String> tags;       // Ghi đè toàn bộ tag (nếu có)
+    private Set<String> addTags;    // Thêm tag, giữ các tag hiện có
+    private Set<String> removeTags; // Bỏ các tag này
 }
 
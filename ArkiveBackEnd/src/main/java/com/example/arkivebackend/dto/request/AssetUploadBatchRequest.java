@@ -0,0 +1,49 @@
+package com.example.arkivebackend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Xin presigned URL cho nhiều file trong một request (file gốc + thumbnail)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetUploadBatchRequest {
+
+    @NotEmpty(message = "FILES_REQUIRED")
+    @Size(max = 1000, message = "TOO_MANY_FILES")
+    private List<@Valid Item> files;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotBlank(message = "FILE_NAME_REQUIRED")
+        @Size(max = 255, message = "FILE_NAME_TOO_LONG")
+        private String fileName;    // Ví dụ: "logo.png"
+
+        @NotBlank(message = "CONTENT_TYPE_REQUIRED")
+        private String contentType; // Ví dụ: "image/png"
+
+        @NotNull(message = "FILE_SIZE_REQUIRED")
+        @Positive(message = "FILE_SIZE_MUST_BE_POSITIVE")
+        private Long size;          // Kích thước (bytes), được ký vào URL
+
+        @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "CONTENT_HASH_INVALID")
+        private String contentHash; // SHA-256 (hex) của file: đã có object cùng nội dung thì bỏ qua upload
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.arkivebackend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Đăng ký nhiều file đã upload xong vào cùng một collection (kéo thả nhiều file)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetUploadCompleteBatchRequest {
+
+    @NotBlank(message = "COLLECTION_ID_REQUIRED")
+    private String collectionId; // Collection để gán vào (dùng chung cho cả lô)
+
+    @NotEmpty(message = "ITEMS_REQUIRED")
+    @Size(max = 1000, message = "TOO_MANY_ITEMS")
+    private List<@Valid Item> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotBlank(message = "STORAGE_KEY_REQUIRED")
+        private String storageKey;  // Tên file trên R2
+
+        @NotBlank(message = "FILE_NAME_REQUIRED")
+        private String fileName;    // Tên file gốc
+
+        @NotBlank(message = "CONTENT_TYPE_REQUIRED")
+        private String contentType; // Loại file
+
+        @NotNull(message = "FILE_SIZE_REQUIRED")
+        @Positive(message = "FILE_SIZE_MUST_BE_POSITIVE")
+        private Long fileSize;      // Kích thước (bytes) client khai báo, chỉ để tham khảo: asset lưu kích thước thật từ HeadObject
+
+        @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "CONTENT_HASH_INVALID")
+        private String contentHash; // Hash đã gửi lúc xin URL upload, server đối chiếu với checksum S3
+
+        private String thumbnailUrl; // URL của thumbnail (nếu có)
+        private String thumbnailStorageKey; // Storage key của thumbnail (nếu có), dùng để ký URL
+        private Set<String> tags;    // Tập hợp các tag liên quan đến asset
+    }
+}
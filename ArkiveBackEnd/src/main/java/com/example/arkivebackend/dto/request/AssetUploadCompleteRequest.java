@@ -2,6 +2,7 @@ package com.example.arkivebackend.dto.request;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
@@ -20,9 +21,13 @@ public class AssetUploadCompleteRequest {
 
     @NotNull(message = "FILE_SIZE_REQUIRED")
     @Positive(message = "FILE_SIZE_MUST_BE_POSITIVE")
-    private Long fileSize;      // Kích thước (bytes)
+    private Long fileSize;      // Kích thước (bytes) client khai báo, chỉ để tham khảo: asset lưu kích thước thật từ HeadObject
+
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "CONTENT_HASH_INVALID")
+    private String contentHash; // Hash đã gửi lúc xin URL upload, server đối chiếu với checksum S3
 
     private String thumbnailUrl; // URL của thumbnail (nếu có)
+    private String thumbnailStorageKey; // Storage key của thumbnail (nếu có), dùng để ký URL
     private Set<String> tags;      // Tập hợp các tag liên quan đến asset
 
     @NotBlank(message = "COLLECTION_ID_REQUIRED")
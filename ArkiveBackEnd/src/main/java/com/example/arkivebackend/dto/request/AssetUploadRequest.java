@@ -1,6 +1,7 @@
 package com.example.arkivebackend.dto.request;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -12,4 +13,7 @@ public class AssetUploadRequest {
 
     @NotBlank(message = "CONTENT_TYPE_REQUIRED")
     private String contentType; // Ví dụ: "image/png"
+
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "CONTENT_HASH_INVALID")
+    private String contentHash; // SHA-256 (hex) của file: đã có object cùng nội dung thì bỏ qua upload
 }
@@ -0,0 +1,27 @@
+package com.example.arkivebackend.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAssetRequest {
+
+    @NotEmpty(message = "ASSET_IDS_REQUIRED")
+    @Size(max = 5000, message = "TOO_MANY_ASSET_IDS")
+    private List<String> assetIds;
+
+    private boolean permanent;         // delete: true = xóa vĩnh viễn (cả object trên storage)
+    private Set<String> addTags;       // tag: thêm các tag này
+    private Set<String> removeTags;    // tag: bỏ các tag này
+    private String targetCollectionId; // move: collection đích
+}
@@ -0,0 +1,41 @@
+package com.example.arkivebackend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ghép các part đã upload thành object hoàn chỉnh.
+ * Bỏ trống parts (ví dụ sau khi resume ở tab khác) thì server lấy danh sách part từ S3.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadCompleteRequest {
+    @Size(max = 10000, message = "TOO_MANY_PARTS")
+    private List<@Valid Part> parts;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Part {
+        @NotNull(message = "PART_NUMBER_REQUIRED")
+        @Min(1)
+        @Max(10000)
+        private Integer partNumber;
+
+        @NotBlank(message = "ETAG_REQUIRED")
+        private String etag;        // Header ETag S3 trả về khi PUT part
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.arkivebackend.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bắt đầu multipart upload cho file lớn (> 5 GB hoặc cần upload song song)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadCreateRequest {
+    @NotBlank(message = "FILE_NAME_REQUIRED")
+    @Size(max = 255, message = "FILE_NAME_TOO_LONG")
+    private String fileName;    // Ví dụ: "video.mp4"
+
+    @NotBlank(message = "CONTENT_TYPE_REQUIRED")
+    private String contentType; // Ví dụ: "video/mp4"
+
+    @NotNull(message = "FILE_SIZE_REQUIRED")
+    @Positive(message = "FILE_SIZE_MUST_BE_POSITIVE")
+    @Max(value = 5L * 1024 * 1024 * 1024 * 1024, message = "FILE_TOO_LARGE") // Giới hạn object của S3: 5 TB
+    private Long fileSize;      // Dùng để tính kích thước part
+}
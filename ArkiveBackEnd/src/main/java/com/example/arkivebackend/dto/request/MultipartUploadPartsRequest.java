@@ -0,0 +1,26 @@
+package com.example.arkivebackend.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Xin presigned URL cho một nhóm part của upload session (client xin dần theo tiến độ)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadPartsRequest {
+    @NotEmpty(message = "PART_NUMBERS_REQUIRED")
+    @Size(max = 1000, message = "TOO_MANY_PARTS")
+    private List<@NotNull @Min(1) @Max(10000) Integer> partNumbers; // S3: part 1..10000
+}
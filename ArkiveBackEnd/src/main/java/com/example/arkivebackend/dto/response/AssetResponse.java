@@ -23,4 +23,11 @@ public class AssetResponse {
     String collectionId;
     LocalDateTime createdAt;
     LocalDateTime updatedAt;
+    // Metadata ảnh / video, null khi chưa đọc hoặc file không có
+    LocalDateTime takenAt;
+    Integer width;
+    Integer height;
+    Integer orientation;
+    String cameraMake;
+    String cameraModel;
 }
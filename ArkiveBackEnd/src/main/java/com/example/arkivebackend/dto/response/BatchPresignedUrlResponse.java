@@ -0,0 +1,16 @@
+package com.example.arkivebackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPresignedUrlResponse {
+    private String fileName;                // Tên file gốc trong request
+    private PresignedUrlResponse file;      // URL upload file gốc
+    private PresignedUrlResponse thumbnail; // URL upload thumbnail (JPEG)
+}
@@ -0,0 +1,27 @@
+package com.example.arkivebackend.dto.response;
+
+import com.example.arkivebackend.enums.BulkItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAssetResponse {
+    int requested;
+    int succeeded;
+    List<Item> results; // Theo đúng thứ tự assetIds của request (đã bỏ trùng)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        String assetId;
+        BulkItemStatus status;
+    }
+}
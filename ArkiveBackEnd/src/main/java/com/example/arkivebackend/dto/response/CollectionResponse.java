@@ -16,6 +16,8 @@ public class CollectionResponse {
     String description;
     String ownerId;
     Integer assetCount;
+    Long totalBytes;
+    LocalDateTime lastAssetAt;
     LocalDateTime createdAt;
     LocalDateTime updatedAt;
 }
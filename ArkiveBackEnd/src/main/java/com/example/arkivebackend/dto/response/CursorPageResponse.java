@@ -0,0 +1,26 @@
+package com.example.arkivebackend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả phân trang theo cursor (keyset).
+ * totalElements chỉ có khi client yêu cầu (includeTotal=true) vì COUNT(*) tốn kém trên collection lớn.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // Truyền lại vào tham số cursor để lấy trang tiếp theo
+    private Long totalElements;
+}
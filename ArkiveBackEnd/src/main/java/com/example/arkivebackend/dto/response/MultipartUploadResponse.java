@@ -0,0 +1,17 @@
+package com.example.arkivebackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadResponse {
+    private String uploadId;   // Do S3 cấp, lưu trong UploadSession
+    private String storageKey; // Key của object sau khi ghép
+    private long partSize;     // Kích thước mỗi part (part cuối có thể nhỏ hơn)
+    private int partCount;     // Số part client cần upload
+}
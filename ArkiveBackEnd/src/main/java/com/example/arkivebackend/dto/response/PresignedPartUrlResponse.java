@@ -0,0 +1,13 @@
+package com.example.arkivebackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedPartUrlResponse {
+    private int partNumber;
+    private String url;        // URL PUT cho đúng part này
+}
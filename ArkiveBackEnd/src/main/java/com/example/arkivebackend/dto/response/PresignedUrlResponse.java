@@ -10,4 +10,14 @@ import lombok.NoArgsConstructor;
 public class PresignedUrlResponse {
     private String url;        // URL để upload file lên
     private String storageKey; // Tên file duy nhất trên R2
+    private boolean alreadyUploaded; // true: object cùng nội dung đã có (url = null), gọi thẳng upload-complete
+
+    public PresignedUrlResponse(String url, String storageKey) {
+        this(url, storageKey, false);
+    }
+
+    // Instant upload: trả về key của object đã có thay vì URL upload
+    public static PresignedUrlResponse alreadyUploaded(String storageKey) {
+        return new PresignedUrlResponse(null, storageKey, true);
+    }
 }
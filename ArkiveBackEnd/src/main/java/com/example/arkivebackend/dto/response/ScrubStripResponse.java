@@ -0,0 +1,15 @@
+package com.example.arkivebackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScrubStripResponse {
+    private String url;         // JPEG các khung ghép ngang, mỗi khung rộng (chiều rộng ảnh / frameCount)
+    private Integer frameCount; // Khung thứ i ứng với đoạn giữa (i + 0.5) / frameCount thời lượng video
+}
@@ -0,0 +1,15 @@
+package com.example.arkivebackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarAssetResponse {
+    private AssetResponse asset;
+    private Integer distance; // Số bit khác nhau giữa hai perceptual hash (0 = gần như trùng)
+}
@@ -0,0 +1,26 @@
+package com.example.arkivebackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String sessionId;
+    private String storageKey;          // Dùng cho upload-complete sau khi ghép xong
+    private String fileName;
+    private String contentType;
+    private long fileSize;
+    private long partSize;              // Kích thước mỗi part (part cuối có thể nhỏ hơn)
+    private int partCount;
+    private LocalDateTime expiresAt;    // Quá hạn thì upload bị huỷ
+    private List<UploadedPartResponse> uploadedParts; // Chỉ có khi resume (ListParts)
+    private List<Integer> missingPartNumbers;         // Chỉ có khi resume: các part cần upload lại
+}
@@ -0,0 +1,16 @@
+package com.example.arkivebackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadedPartResponse {
+    private int partNumber;
+    private String etag;  // ETag S3 đã lưu cho part
+    private long size;    // bytes
+}
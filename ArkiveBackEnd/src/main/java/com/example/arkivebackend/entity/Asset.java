@@ -1,10 +1,14 @@
 package com.example.arkivebackend.entity;
 
+import com.example.arkivebackend.enums.ThumbnailStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Data
@@ -14,22 +18,84 @@ import java.util.Set;
 @AllArgsConstructor
 @SuperBuilder
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(indexes = {
+        // Index phục vụ phân trang keyset: seek theo (collection_id, cột sắp xếp, id)
+        @Index(name = "idx_asset_collection_created", columnList = "collection_id, created_at, id"),
+        @Index(name = "idx_asset_collection_updated", columnList = "collection_id, updated_at, id"),
+        @Index(name = "idx_asset_collection_filename", columnList = "collection_id, filename, id"),
+        @Index(name = "idx_asset_collection_size", columnList = "collection_id, file_size, id"),
+        @Index(name = "idx_asset_collection_taken", columnList = "collection_id, taken_at, id"),
+        @Index(name = "idx_asset_collection_width", columnList = "collection_id, width, id"),
+        @Index(name = "idx_asset_collection_height", columnList = "collection_id, height, id"),
+        @Index(name = "idx_asset_collection_camera", columnList = "collection_id, camera_model, id"),
+        // Không unique: các asset cùng nội dung dùng chung object (StoredBlob)
+        @Index(name = "idx_asset_storage_key", columnList = "storage_key")
+})
 public class Asset extends  BaseEntity {
     @Column(nullable = false)
     String filename;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     String storageKey;
 
     @Column(nullable = false)
     String fileType; // MIME type like "image/png", "video/mp4"
 
     @Column(nullable = false)
-    Long fileSize; // in bytes
+    Long fileSize; // in bytes, lấy từ HeadObject lúc upload-complete chứ không tin client
+
+    String etag; // ETag của object trên storage lúc upload-complete
 
     @Column(nullable = true)
     String thumbnailUrl;
 
+    // Storage key của thumbnail trong thumbnail bucket; response trả về URL đã ký từ key này
+    // (asset cũ chỉ có thumbnailUrl thì giữ nguyên thumbnailUrl)
+    @Column(nullable = true)
+    String thumbnailKey;
+
+    // Bản xem trước cỡ lớn trong thumbnail bucket (server tạo cùng thumbnail), null nếu chưa có
+    String previewKey;
+
+    // Video: dải scrubFrameCount khung hình ghép ngang (VideoThumbnailService), hiển thị khi rê chuột trên lưới
+    String scrubStripKey;
+
+    Integer scrubFrameCount;
+
+    // PENDING: ThumbnailService sẽ tạo thumbnailKey / previewKey (video: thumbnailKey / scrubStripKey) từ file gốc
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    ThumbnailStatus thumbnailStatus;
+
+    // --- Metadata đọc từ phần đầu file (MediaMetadataService), null nếu chưa đọc hoặc file không có
+
+    // Thời điểm chụp theo giờ địa phương của máy ảnh (EXIF DateTimeOriginal / MP4 mvhd), không có thì lấy createdAt
+    LocalDateTime takenAt;
+
+    // Kích thước hiển thị (px): đã đổi chỗ width / height khi orientation xoay 90 độ
+    Integer width;
+
+    Integer height;
+
+    // EXIF orientation 1..8 (1 = không xoay)
+    Integer orientation;
+
+    String cameraMake;
+
+    String cameraModel;
+
+    // null: MediaMetadataJob chưa đọc metadata
+    LocalDateTime metadataExtractedAt;
+
+    // dHash 64 bit của thumbnail (ImageUtil.differenceHash), null nếu không có thumbnail hoặc không giải mã được
+    Long perceptualHash;
+
+    // null: PerceptualHashJob chưa tính hash
+    LocalDateTime perceptualHashedAt;
+
+    // Lưu dạng mảng PostgreSQL (varchar[]), đã chuẩn hoá chữ thường (TagUtil),
+    // có GIN index idx_asset_tags_gin cho lọc @> / && và facet
+    @JdbcTypeCode(SqlTypes.ARRAY)
     @Column(nullable = true)
     Set<String> tags;
 
@@ -40,4 +106,7 @@ public class Asset extends  BaseEntity {
 
     @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
     Boolean isDeleted = false;
+
+    // Thời điểm vào thùng rác (null nếu chưa xoá mềm), TrashPurgeJob xoá vĩnh viễn sau app.trash.retention
+    LocalDateTime deletedAt;
 }
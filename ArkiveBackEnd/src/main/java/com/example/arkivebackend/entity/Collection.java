@@ -3,7 +3,9 @@ package com.example.arkivebackend.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,6 +21,9 @@ import java.util.List;
                         name = "uq_collection_name_owner", // Tên của ràng buộc
                         columnNames = {"name", "owner_id"} // Cặp cột phải là duy nhất
                 )
+        },
+        indexes = {
+                @Index(name = "idx_collection_owner", columnList = "owner_id") // Lọc collection / thùng rác theo owner
         }
 )
 public class Collection extends  BaseEntity {
@@ -29,6 +34,22 @@ public class Collection extends  BaseEntity {
     @Column(length = 1000)
     private String description;
 
+    // --- Thống kê phi chuẩn hoá (chỉ tính asset chưa bị xoá mềm).
+    // Cập nhật nguyên tử bằng câu UPDATE trong CollectionRepository, được CollectionStatsRepairJob đối soát định kỳ.
+    // Không dùng assets.size() để tránh tải toàn bộ asset của collection.
+
+    @Column(nullable = false)
+    @ColumnDefault("0") // Cột mới thêm bởi ddl-auto: các dòng cũ nhận 0 rồi được job đối soát
+    @Builder.Default
+    private Integer assetCount = 0;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long totalBytes = 0L; // in bytes
+
+    private LocalDateTime lastAssetAt; // createdAt của asset mới nhất, null nếu collection rỗng
+
     // --- Relationships
 
     @ManyToOne(fetch = FetchType.LAZY) // Nhiều bộ sưu tập có thể thuộc về một người dùng
@@ -0,0 +1,47 @@
+package com.example.arkivebackend.entity;
+
+import com.example.arkivebackend.enums.StorageBucket;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox các object cần xoá khỏi storage. Được ghi trong cùng transaction với thao tác xoá asset,
+ * ObjectDeletionWorker xoá dần bằng DeleteObjects, lỗi thì thử lại với backoff.
+ * DB và bucket không lệch nhau kể cả khi S3 chậm / lỗi hay transaction bị rollback.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "pending_object_deletions", indexes = {
+        @Index(name = "idx_pending_deletion_next_attempt", columnList = "next_attempt_at")
+})
+public class PendingObjectDeletion extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    StorageBucket bucket;
+
+    @Column(nullable = false, length = 1024)
+    String storageKey;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    Integer attempts = 0;
+
+    // Worker chỉ lấy các dòng đã tới hạn
+    @Column(nullable = false)
+    LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    String lastError;
+}
@@ -0,0 +1,44 @@
+package com.example.arkivebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Object trong bucket asset được định danh theo nội dung (SHA-256) trong phạm vi một user.
+ * Nhiều asset cùng nội dung dùng chung một storageKey; object chỉ bị xoá khi refCount về 0.
+ * Asset upload không kèm hash (upload cũ, multipart) không có StoredBlob và giữ object riêng.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "stored_blobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stored_blob_owner_hash", columnNames = {"owner_id", "content_hash"})
+})
+public class StoredBlob extends BaseEntity {
+
+    @Column(nullable = false, length = 64)
+    String contentHash; // SHA-256 dạng hex chữ thường
+
+    @Column(nullable = false, unique = true)
+    String storageKey;
+
+    @Column(nullable = false)
+    Long fileSize; // in bytes
+
+    String etag;
+
+    String contentType;
+
+    @Column(nullable = false)
+    Integer refCount; // Số asset (kể cả trong thùng rác) đang trỏ tới object
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    User owner;
+}
@@ -0,0 +1,65 @@
+package com.example.arkivebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Multipart upload đang dở của một user. Cho phép tab mới tiếp tục upload:
+ * chỉ upload lại những part S3 chưa có (ListParts) thay vì bắt đầu lại từ đầu.
+ * Bị xoá khi complete / abort, hoặc bởi MultipartUploadCleanupJob khi quá expiresAt.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "upload_sessions", indexes = {
+        @Index(name = "idx_upload_session_owner", columnList = "owner_id, expires_at"),
+        @Index(name = "idx_upload_session_expires", columnList = "expires_at")
+})
+public class UploadSession extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 1024)
+    String uploadId; // Do S3 cấp khi CreateMultipartUpload
+
+    @Column(nullable = false)
+    String storageKey;
+
+    @Column(nullable = false)
+    String fileName;
+
+    @Column(nullable = false)
+    String contentType;
+
+    @Column(nullable = false)
+    Long fileSize; // in bytes
+
+    @Column(nullable = false)
+    Long partSize; // Mọi part trừ part cuối đúng bằng kích thước này
+
+    @Column(nullable = false)
+    Integer partCount;
+
+    // partNumber -> ETag của các part S3 đã xác nhận (đồng bộ từ ListParts mỗi lần resume)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Builder.Default
+    Map<Integer, String> completedParts = new HashMap<>();
+
+    // Gia hạn mỗi khi client xin URL part / resume, quá hạn thì job huỷ upload
+    @Column(nullable = false)
+    LocalDateTime expiresAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    User owner;
+}
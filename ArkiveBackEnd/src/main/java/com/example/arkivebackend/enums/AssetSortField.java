@@ -6,17 +6,26 @@ import lombok.Getter;
 public enum AssetSortField {
     // Định nghĩa các trường được phép.
     // Tên Enum (viết hoa) và giá trị thực tế (tên thuộc tính trong Entity)
-    FILENAME("filename"),
-    FILE_SIZE("fileSize"),
-    CREATED_AT("createdAt"),
-    UPDATED_AT("updatedAt");
+    FILENAME("filename", false),
+    FILE_SIZE("fileSize", false),
+    CREATED_AT("createdAt", false),
+    UPDATED_AT("updatedAt", false),
+    // Metadata ảnh / video (MediaMetadataService): null khi chưa đọc hoặc file không có
+    TAKEN_AT("takenAt", true),
+    WIDTH("width", true),
+    HEIGHT("height", true),
+    CAMERA_MODEL("cameraModel", true);
 
     // Tên thuộc tính trong Entity (ví dụ: "filename")
     private final String fieldName;
 
+    // Cột có thể null: null được xếp như giá trị lớn nhất (cuối khi ASC, đầu khi DESC, giống PostgreSQL)
+    private final boolean nullable;
+
     // Constructor
-    AssetSortField(String fieldName) {
+    AssetSortField(String fieldName, boolean nullable) {
         this.fieldName = fieldName;
+        this.nullable = nullable;
     }
 
     /**
@@ -0,0 +1,10 @@
+package com.example.arkivebackend.enums;
+
+/**
+ * Kết quả của từng asset trong thao tác hàng loạt
+ */
+public enum BulkItemStatus {
+    SUCCESS,   // Đã áp dụng thay đổi
+    SKIPPED,   // Không cần thay đổi (vd: đã nằm trong thùng rác, đã ở collection đích)
+    NOT_FOUND  // Không tồn tại hoặc không thuộc user hiện tại
+}
@@ -14,6 +14,9 @@ public enum ErrorCode {
     COLLECTION_NOT_FOUND(1004, "Collection not found", HttpStatus.NOT_FOUND),
     ASSET_NOT_FOUND(1005, "Asset not found", HttpStatus.NOT_FOUND),
     ASSET_ALREADY_DELETED(1010, "Asset has already been deleted", HttpStatus.BAD_REQUEST),
+    MULTIPART_UPLOAD_NOT_FOUND(1011, "Multipart upload not found, it may have been completed, aborted or expired", HttpStatus.NOT_FOUND),
+    UPLOADED_OBJECT_NOT_FOUND(1012, "Uploaded file was not found in storage, please upload it again", HttpStatus.BAD_REQUEST),
+    SCRUB_STRIP_NOT_FOUND(1013, "This asset has no scrub strip (not a video, or not generated yet)", HttpStatus.NOT_FOUND),
     SHARED_LINK_NOT_FOUND(1006, "Shared link not found", HttpStatus.NOT_FOUND),
     SHARED_LINK_ALREADY_EXISTS(1007, "Shared link already exists for this collection", HttpStatus.BAD_REQUEST),
     SHARED_LINK_PASSWORD_REQUIRED(1008, "Password is required to access this shared link", HttpStatus.UNAUTHORIZED),
@@ -24,6 +27,13 @@ public enum ErrorCode {
     EMAIL_INVALID(1102, "Invalid email format", HttpStatus.BAD_REQUEST),
     USERNAME_INVALID(1103, "Username must be between 3 and 20 characters", HttpStatus.BAD_REQUEST),
     DOB_INVALID(1104, "Invalid date of birth", HttpStatus.BAD_REQUEST),
+    INVALID_CURSOR(1105, "Pagination cursor is invalid or does not match the requested sort", HttpStatus.BAD_REQUEST),
+    INVALID_BULK_REQUEST(1106, "Bulk request is missing the fields required by this operation", HttpStatus.BAD_REQUEST),
+    INVALID_MULTIPART_PARTS(1107, "Uploaded parts are missing, duplicated or do not match their ETags", HttpStatus.BAD_REQUEST),
+    CONTENT_HASH_MISMATCH(1108, "Uploaded object is missing or does not match its content hash, please upload it again", HttpStatus.BAD_REQUEST),
+    INVALID_RENDER_REQUEST(1109, "Render size is invalid: w and/or h must be between 1 and the maximum render dimension", HttpStatus.BAD_REQUEST),
+    RENDER_NOT_SUPPORTED(1110, "This asset cannot be rendered as an image", HttpStatus.BAD_REQUEST),
+    STORAGE_KEY_ALREADY_USED(1111, "Uploaded object is already registered or queued for deletion, please upload it again", HttpStatus.BAD_REQUEST),
     
     // --- Authentication (12xx) ---
     UNAUTHENTICATED(1201, "Authentication failed, please login", HttpStatus.UNAUTHORIZED),
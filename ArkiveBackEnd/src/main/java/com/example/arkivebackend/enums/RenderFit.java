@@ -0,0 +1,16 @@
+package com.example.arkivebackend.enums;
+
+/**
+ * Cách đưa ảnh vào khung w x h của GET /assets/{id}/render
+ */
+public enum RenderFit {
+    CONTAIN, // Nằm trọn trong khung, giữ tỉ lệ
+    COVER;   // Phủ kín khung, cắt phần thừa ở giữa (cần cả w và h)
+
+    /**
+     * Đọc giá trị từ API ("contain" / "cover", không phân biệt hoa thường), mặc định là CONTAIN.
+     */
+    public static RenderFit fromString(String text) {
+        return "cover".equalsIgnoreCase(text) ? COVER : CONTAIN;
+    }
+}
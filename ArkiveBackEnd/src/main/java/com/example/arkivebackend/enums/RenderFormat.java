@@ -0,0 +1,25 @@
+package com.example.arkivebackend.enums;
+
+import lombok.Getter;
+
+/**
+ * Định dạng ảnh trả về của GET /assets/{id}/render (các định dạng ImageIO ghi được)
+ */
+@Getter
+public enum RenderFormat {
+    JPEG("image/jpeg"),
+    PNG("image/png"); // Giữ kênh alpha
+
+    private final String contentType;
+
+    RenderFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * Đọc giá trị từ API ("jpeg" / "png", không phân biệt hoa thường), mặc định là JPEG.
+     */
+    public static RenderFormat fromString(String text) {
+        return "png".equalsIgnoreCase(text) ? PNG : JPEG;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.arkivebackend.enums;
+
+/**
+ * Các bucket ứng dụng ghi vào (tên thật lấy từ app.s3.bucket-name / app.s3.thumbnail-bucket-name)
+ */
+public enum StorageBucket {
+    ASSETS,
+    THUMBNAILS
+}
@@ -0,0 +1,16 @@
+package com.example.arkivebackend.enums;
+
+/**
+ * Cách khớp khi lọc assets theo nhiều tag.
+ */
+public enum TagMatchMode {
+    ANY, // Asset có ít nhất một trong các tag (toán tử && của PostgreSQL)
+    ALL; // Asset có đủ tất cả các tag (toán tử @> của PostgreSQL)
+
+    /**
+     * Đọc giá trị từ API ("any" / "all", không phân biệt hoa thường), mặc định là ANY.
+     */
+    public static TagMatchMode fromString(String text) {
+        return "all".equalsIgnoreCase(text) ? ALL : ANY;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.arkivebackend.enums;
+
+/**
+ * Trạng thái thumbnail của asset (ThumbnailService)
+ */
+public enum ThumbnailStatus {
+    PENDING,     // Chờ server tạo thumbnail (upload không kèm thumbnail)
+    READY,       // Đã có thumbnail (client gửi lên hoặc server đã tạo)
+    FAILED,      // Không giải mã được file gốc, không thử lại
+    UNSUPPORTED  // Định dạng server không tạo được thumbnail
+}
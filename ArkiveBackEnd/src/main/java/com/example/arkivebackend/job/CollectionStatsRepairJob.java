@@ -0,0 +1,51 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.repository.CollectionRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Đối soát assetCount / totalBytes / lastAssetAt của collection với bảng asset.
+ * Bộ đếm được cập nhật tăng/giảm trong AssetService; job này sửa mọi sai lệch
+ * (dữ liệu cũ trước khi có cột, thao tác ghi thẳng vào DB, ...).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CollectionStatsRepairJob {
+
+    CollectionRepository collectionRepository;
+
+    @NonFinal
+    @Value("${app.collection-stats.repair-batch-size:500}")
+    int batchSize;
+
+    // Chạy một lần sau khi khởi động (backfill cột mới) rồi lặp lại định kỳ
+    @Scheduled(initialDelayString = "${app.collection-stats.repair-initial-delay:PT1M}",
+            fixedDelayString = "${app.collection-stats.repair-interval:PT6H}")
+    public void repairAll() {
+        long started = System.currentTimeMillis();
+        int collections = 0;
+        String afterId = "";
+        List<String> ids;
+        do {
+            ids = collectionRepository.findIdsAfter(afterId, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            collections += collectionRepository.recomputeAssetStats(ids);
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == batchSize);
+        log.info("Repaired asset stats for {} collections in {} ms", collections, System.currentTimeMillis() - started);
+    }
+}
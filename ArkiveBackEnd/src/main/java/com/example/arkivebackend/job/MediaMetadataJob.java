@@ -0,0 +1,47 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.service.MediaMetadataService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Đọc metadata cho asset mới upload và asset cũ chưa có metadata (backfill), từng lô app.media-metadata.batch-size asset.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MediaMetadataJob {
+
+    MediaMetadataService mediaMetadataService;
+
+    @NonFinal
+    @Value("${app.media-metadata.batch-size:200}")
+    int batchSize;
+
+    @Scheduled(initialDelayString = "${app.media-metadata.initial-delay:PT30S}",
+            fixedDelayString = "${app.media-metadata.interval:PT10S}")
+    public void extractPending() {
+        long started = System.currentTimeMillis();
+        int extracted = 0;
+        int chunk;
+        try {
+            do {
+                chunk = mediaMetadataService.extractPendingChunk(batchSize);
+                extracted += chunk;
+            } while (chunk == batchSize);
+        } catch (RuntimeException e) {
+            // Lỗi storage / mạng: các asset còn lại được thử lại ở lượt sau
+            log.warn("Media metadata extraction stopped after {} assets: {}", extracted, e.getMessage());
+        }
+        if (extracted > 0) {
+            log.info("Extracted media metadata for {} assets in {} ms", extracted, System.currentTimeMillis() - started);
+        }
+    }
+}
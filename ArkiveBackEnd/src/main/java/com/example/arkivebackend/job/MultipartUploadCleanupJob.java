@@ -0,0 +1,87 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.entity.UploadSession;
+import com.example.arkivebackend.repository.UploadSessionRepository;
+import com.example.arkivebackend.service.StorageService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Huỷ các multipart upload bị bỏ dở (client đóng tab, mất mạng, không gọi abort).
+ * Part chưa ghép vẫn bị tính dung lượng lưu trữ nhưng không hiện trong bucket,
+ * nên phải dọn định kỳ thay vì chờ lifecycle rule (R2 / MinIO không phải lúc nào cũng cấu hình).
+ * <p>
+ * Bước 1 huỷ các UploadSession quá hạn; bước 2 quét S3 tìm upload không còn session
+ * (session đã bị xoá, upload tạo trước khi có UploadSession) nhưng bỏ qua session còn hạn.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MultipartUploadCleanupJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    StorageService storageService;
+    UploadSessionRepository uploadSessionRepository;
+
+    @NonFinal
+    @Value("${app.s3.multipart.max-age:P1D}")
+    Duration maxAge;
+
+    @Scheduled(initialDelayString = "${app.s3.multipart.cleanup-initial-delay:PT5M}",
+            fixedDelayString = "${app.s3.multipart.cleanup-interval:PT1H}")
+    public void abortExpiredUploads() {
+        long started = System.currentTimeMillis();
+        int expiredSessions = abortExpiredSessions();
+        int orphans = storageService.abortMultipartUploadsInitiatedBefore(Instant.now().minus(maxAge),
+                uploadSessionRepository.findActiveUploadIds(LocalDateTime.now()));
+        log.info("Aborted {} expired upload sessions and {} orphan multipart uploads in {} ms",
+                expiredSessions, orphans, System.currentTimeMillis() - started);
+    }
+
+    private int abortExpiredSessions() {
+        int aborted = 0;
+        List<UploadSession> expired;
+        do {
+            expired = uploadSessionRepository.findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime.now(), Limit.of(BATCH_SIZE));
+            // Gửi mọi lệnh huỷ của lô cùng lúc, sau đó mới chờ kết quả
+            Map<UploadSession, CompletableFuture<Void>> aborts = new LinkedHashMap<>();
+            expired.forEach(session -> aborts.put(session,
+                    storageService.abortMultipartUpload(session.getStorageKey(), session.getUploadId())));
+            List<UploadSession> done = new ArrayList<>();
+            aborts.forEach((session, abort) -> {
+                try {
+                    abort.join();
+                    done.add(session);
+                } catch (CompletionException e) {
+                    // Giữ lại session, lần chạy sau thử lại
+                    log.warn("Failed to abort upload session {}: {}", session.getId(), e.getCause().getMessage());
+                }
+            });
+            uploadSessionRepository.deleteAllInBatch(done);
+            aborted += done.size();
+            if (done.size() < expired.size()) {
+                break; // Tránh lặp vô hạn trên các session lỗi
+            }
+        } while (expired.size() == BATCH_SIZE);
+        return aborted;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.service.ObjectDeletionService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Xả outbox PendingObjectDeletion: mỗi lô 1000 key là một transaction ngắn,
+ * chạy tới khi không còn dòng tới hạn.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ObjectDeletionWorker {
+
+    ObjectDeletionService objectDeletionService;
+
+    @Scheduled(initialDelayString = "${app.object-deletion.initial-delay:PT30S}",
+            fixedDelayString = "${app.object-deletion.interval:PT10S}")
+    public void drain() {
+        long started = System.currentTimeMillis();
+        int processed = 0;
+        int batch;
+        do {
+            batch = objectDeletionService.processDueBatch();
+            processed += batch;
+        } while (batch > 0 && processed < 100_000); // Tránh giữ thread scheduler quá lâu khi S3 lỗi liên tục
+        if (processed > 0) {
+            log.info("Processed {} queued object deletions in {} ms", processed, System.currentTimeMillis() - started);
+        }
+    }
+}
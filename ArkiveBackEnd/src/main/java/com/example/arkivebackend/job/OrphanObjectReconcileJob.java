@@ -0,0 +1,141 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.StorageService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Xoá object không thuộc asset nào (client lấy presigned URL, upload xong nhưng không gọi upload-complete).
+ * <p>
+ * Duyệt bucket theo từng trang ListObjectsV2, mỗi trang tra DB một câu IN (idx_asset_storage_key),
+ * object rác cũ hơn grace-period được gom lại xoá bằng DeleteObjects 1000 key một lần.
+ * Bộ nhớ chỉ giữ một trang + một lô xoá, không phụ thuộc kích thước bucket.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OrphanObjectReconcileJob {
+
+    private static final int DELETE_BATCH_SIZE = 1000; // Giới hạn của S3 DeleteObjects
+
+    AssetRepository assetRepository;
+    StorageService storageService;
+
+    // Object mới hơn khoảng này có thể đang chờ upload-complete: không đụng tới
+    @NonFinal
+    @Value("${app.storage-reconciler.grace-period:P2D}")
+    Duration gracePeriod;
+
+    // true: chỉ log số object / dung lượng sẽ xoá
+    @NonFinal
+    @Value("${app.storage-reconciler.dry-run:false}")
+    boolean dryRun;
+
+    @Scheduled(initialDelayString = "${app.storage-reconciler.initial-delay:PT30M}",
+            fixedDelayString = "${app.storage-reconciler.interval:P1D}")
+    public void reconcileAll() {
+        // Asset cũ chưa có thumbnail_key phải được backfill trước, nếu không thumbnail của chúng bị coi là rác
+        int backfilled = assetRepository.backfillThumbnailKeys();
+        if (backfilled > 0) {
+            log.info("Backfilled thumbnail_key for {} assets", backfilled);
+        }
+
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        for (StorageBucket bucket : StorageBucket.values()) {
+            try {
+                reconcile(bucket, cutoff);
+            } catch (RuntimeException e) {
+                // Bucket lỗi không chặn bucket còn lại, lần chạy sau thử lại từ đầu
+                log.error("Orphan reconciliation of {} bucket failed", bucket, e);
+            }
+        }
+    }
+
+    Pass reconcile(StorageBucket bucket, Instant cutoff) {
+        long started = System.currentTimeMillis();
+        Pass pass = new Pass(bucket, cutoff, bucket == StorageBucket.ASSETS
+                ? assetRepository::findExistingStorageKeys
+                : assetRepository::findExistingThumbnailKeys);
+        storageService.forEachObjectPage(bucket, pass);
+        pass.flush();
+        log.info("Reconciled {} bucket{}: scanned {} objects, {} orphans ({} bytes), deleted {}, failed {} in {} ms",
+                bucket, dryRun ? " (dry run)" : "", pass.scanned, pass.orphans, pass.orphanBytes, pass.deleted,
+                pass.failed, System.currentTimeMillis() - started);
+        return pass;
+    }
+
+    /**
+     * Trạng thái của một lượt duyệt bucket
+     */
+    final class Pass implements Consumer<List<StorageService.StoredObject>> {
+        final StorageBucket bucket;
+        final Instant cutoff;
+        final Function<Collection<String>, Set<String>> referencedKeys;
+        final List<String> pendingDeletes = new ArrayList<>(DELETE_BATCH_SIZE);
+        long scanned;
+        long orphans;
+        long orphanBytes;
+        long deleted;
+        long failed;
+
+        Pass(StorageBucket bucket, Instant cutoff, Function<Collection<String>, Set<String>> referencedKeys) {
+            this.bucket = bucket;
+            this.cutoff = cutoff;
+            this.referencedKeys = referencedKeys;
+        }
+
+        @Override
+        public void accept(List<StorageService.StoredObject> page) {
+            scanned += page.size();
+            List<StorageService.StoredObject> candidates = page.stream()
+                    .filter(object -> object.lastModified() != null && object.lastModified().isBefore(cutoff))
+                    .toList();
+            if (candidates.isEmpty()) {
+                return;
+            }
+
+            Set<String> referenced = referencedKeys.apply(candidates.stream().map(StorageService.StoredObject::key).toList());
+            for (StorageService.StoredObject object : candidates) {
+                if (referenced.contains(object.key())) {
+                    continue;
+                }
+                orphans++;
+                orphanBytes += object.size();
+                pendingDeletes.add(object.key());
+                if (pendingDeletes.size() == DELETE_BATCH_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            if (pendingDeletes.isEmpty()) {
+                return;
+            }
+            if (!dryRun) {
+                int failedKeys = storageService.deleteObjects(bucket, pendingDeletes).join().size();
+                failed += failedKeys;
+                deleted += pendingDeletes.size() - failedKeys;
+            }
+            pendingDeletes.clear();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.service.PerceptualHashService;
+import com.example.arkivebackend.service.SimilarAssetService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tính perceptual hash cho asset đã có thumbnail (asset mới và backfill asset cũ) rồi nạp vào index tìm ảnh gần giống.
+ * Index được dựng lại từ DB khi khởi động và định kỳ (bỏ asset đã xoá).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PerceptualHashJob {
+
+    PerceptualHashService perceptualHashService;
+    SimilarAssetService similarAssetService;
+
+    @NonFinal
+    @Value("${app.similarity.hash-batch-size:200}")
+    int batchSize;
+
+    @Scheduled(initialDelayString = "${app.similarity.hash-initial-delay:PT1M}",
+            fixedDelayString = "${app.similarity.hash-interval:PT30S}")
+    public void hashPending() {
+        int hashed = 0;
+        int chunk;
+        try {
+            do {
+                chunk = perceptualHashService.hashPendingChunk(batchSize);
+                hashed += chunk;
+            } while (chunk == batchSize);
+        } catch (RuntimeException e) {
+            // Lỗi storage / mạng: các asset còn lại được thử lại ở lượt sau
+            log.warn("Perceptual hashing stopped after {} assets: {}", hashed, e.getMessage());
+        }
+        if (hashed > 0) {
+            log.info("Computed perceptual hashes for {} assets", hashed);
+        }
+        similarAssetService.refresh(); // Cả hash do instance khác tính
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.similarity.rebuild-interval:PT6H}",
+            fixedDelayString = "${app.similarity.rebuild-interval:PT6H}")
+    public void rebuildIndex() {
+        similarAssetService.rebuild();
+    }
+}
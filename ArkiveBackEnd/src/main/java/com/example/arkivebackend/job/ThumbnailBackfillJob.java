@@ -0,0 +1,34 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.service.ThumbnailService;
+import com.example.arkivebackend.service.VideoThumbnailService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nạp asset còn PENDING vào hàng đợi tạo thumbnail: asset bị từ chối khi hàng đợi đầy, lỗi storage cần thử lại,
+ * asset cũ chưa có thumbnail, và việc dang dở khi instance restart. Video nạp vào hàng đợi ffmpeg riêng.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ThumbnailBackfillJob {
+
+    ThumbnailService thumbnailService;
+    VideoThumbnailService videoThumbnailService;
+
+    @Scheduled(initialDelayString = "${app.thumbnail.sweep-initial-delay:PT1M}",
+            fixedDelayString = "${app.thumbnail.sweep-interval:PT30S}")
+    public void submitPending() {
+        int submitted = thumbnailService.submitPending();
+        int videos = videoThumbnailService.submitPending();
+        if (submitted + videos > 0) {
+            log.debug("Queued {} pending images and {} pending videos for thumbnail generation", submitted, videos);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.service.TrashPurgeService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Xoá vĩnh viễn asset nằm trong thùng rác lâu hơn app.trash.retention.
+ * Mỗi lô là một transaction ngắn để không giữ khoá lâu trên bảng asset.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TrashPurgeJob {
+
+    TrashPurgeService trashPurgeService;
+
+    @NonFinal
+    @Value("${app.trash.retention:P30D}")
+    Duration retention;
+
+    @NonFinal
+    @Value("${app.trash.purge-batch-size:500}")
+    int batchSize;
+
+    @Scheduled(initialDelayString = "${app.trash.purge-initial-delay:PT10M}",
+            fixedDelayString = "${app.trash.purge-interval:PT1H}")
+    public void purgeExpired() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention); // Cố định cutoff cho cả lượt chạy
+        int purged = 0;
+        int chunk;
+        do {
+            chunk = trashPurgeService.purgeExpiredChunk(cutoff, batchSize);
+            purged += chunk;
+        } while (chunk == batchSize);
+        if (purged > 0) {
+            log.info("Purged {} trashed assets older than {} in {} ms", purged, cutoff, System.currentTimeMillis() - started);
+        }
+    }
+}
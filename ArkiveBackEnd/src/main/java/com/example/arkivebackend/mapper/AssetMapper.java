@@ -0,0 +1,20 @@
+package com.example.arkivebackend.mapper;
+
+import com.example.arkivebackend.dto.response.AssetResponse;
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface AssetMapper {
+
+    // Dùng cho các endpoint danh sách (đọc từ projection, không hydrate entity)
+    @Mapping(target = "assetId", ignore = true)
+    AssetResponse toAssetResponse(AssetSummary summary);
+
+    // Dùng khi đã có sẵn entity (sau khi tạo / cập nhật)
+    @Mapping(target = "assetId", ignore = true)
+    @Mapping(target = "collectionId", source = "collection.id") // Proxy trả về id mà không cần khởi tạo
+    AssetResponse toAssetResponse(Asset asset);
+}
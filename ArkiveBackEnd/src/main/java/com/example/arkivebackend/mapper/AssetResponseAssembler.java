@@ -0,0 +1,79 @@
+package com.example.arkivebackend.mapper;
+
+import com.example.arkivebackend.dto.response.AssetResponse;
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import com.example.arkivebackend.service.StorageService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dựng AssetResponse kèm thumbnailUrl đã ký sẵn (thumbnail bucket là private).
+ * Cả trang được ký trong một bước (StorageService.generatePresignedThumbnailUrls, có cache),
+ * frontend hiển thị gallery mà không phải gọi /preview cho từng asset.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AssetResponseAssembler {
+
+    AssetMapper assetMapper;
+    StorageService storageService;
+
+    public List<AssetResponse> toResponses(List<? extends AssetSummary> summaries) {
+        List<String> thumbnailKeys = summaries.stream()
+                .map(AssetSummary::getThumbnailKey)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, String> signedUrls = thumbnailKeys.isEmpty()
+                ? Map.of()
+                : storageService.generatePresignedThumbnailUrls(thumbnailKeys);
+
+        return summaries.stream()
+                .map(summary -> withThumbnail(assetMapper.toAssetResponse(summary), summary.getThumbnailKey(), signedUrls))
+                .toList();
+    }
+
+    public Page<AssetResponse> toResponses(Page<? extends AssetSummary> page) {
+        return new PageImpl<>(toResponses(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    public AssetResponse toResponse(AssetSummary summary) {
+        return toResponses(List.of(summary)).get(0);
+    }
+
+    public AssetResponse toResponse(Asset asset) {
+        return toEntityResponses(List.of(asset)).get(0);
+    }
+
+    // Entity vừa lưu (upload-complete, cập nhật): cũng ký cả lô một lần
+    public List<AssetResponse> toEntityResponses(List<Asset> assets) {
+        List<String> thumbnailKeys = assets.stream()
+                .map(Asset::getThumbnailKey)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, String> signedUrls = thumbnailKeys.isEmpty()
+                ? Map.of()
+                : storageService.generatePresignedThumbnailUrls(thumbnailKeys);
+
+        return assets.stream()
+                .map(asset -> withThumbnail(assetMapper.toAssetResponse(asset), asset.getThumbnailKey(), signedUrls))
+                .toList();
+    }
+
+    // Asset cũ không có thumbnailKey: giữ nguyên thumbnailUrl client đã lưu
+    private AssetResponse withThumbnail(AssetResponse response, String thumbnailKey, Map<String, String> signedUrls) {
+        if (thumbnailKey != null && signedUrls.containsKey(thumbnailKey)) {
+            response.setThumbnailUrl(signedUrls.get(thumbnailKey));
+        }
+        return response;
+    }
+}
@@ -1,17 +1,42 @@
 package com.example.arkivebackend.repository;
 
 import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.ThumbnailStatus;
+import com.example.arkivebackend.repository.projection.AssetHashRef;
+import com.example.arkivebackend.repository.projection.AssetRef;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import com.example.arkivebackend.repository.projection.TagFacet;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface AssetRepository extends JpaRepository<Asset, String> {
+public interface AssetRepository extends JpaRepository<Asset, String>, AssetSearchRepository {
+
+    // Danh sách cột dùng chung cho projection AssetSummary (alias phải trùng tên getter)
+    String SUMMARY_SELECT = "SELECT a.id AS id, a.filename AS filename, a.fileType AS fileType, a.fileSize AS fileSize, "
+            + "a.thumbnailUrl AS thumbnailUrl, a.thumbnailKey AS thumbnailKey, a.tags AS tags, a.collection.id AS collectionId, "
+            + "a.createdAt AS createdAt, a.updatedAt AS updatedAt, a.takenAt AS takenAt, a.width AS width, a.height AS height, "
+            + "a.orientation AS orientation, a.cameraMake AS cameraMake, a.cameraModel AS cameraModel FROM Asset a ";
+
+    String HASH_REF_SELECT = "SELECT a.id AS id, a.collection.owner.id AS ownerId, a.perceptualHash AS perceptualHash, "
+            + "a.perceptualHashedAt AS perceptualHashedAt FROM Asset a ";
 
     // Find assets by collectionId and sort by createdAt descending
     List<Asset> findByCollectionIdOrderByCreatedAtDesc(String collectionId);
@@ -29,12 +54,70 @@ public interface AssetRepository extends JpaRepository<Asset, String> {
     List<Asset> findByCollectionIdOrderByFileSizeDesc(String collectionId);
 
     // BEST PRACTICE: Pageination nên được sử dụng thay vì lấy tất cả bản ghi cùng một lúc
-    @Query("SELECT a FROM Asset a WHERE a.collection.id = :collectionId AND lower(a.filename) LIKE lower(concat('%', :keyword, '%')) AND a.isDeleted = false")
-    Page<Asset> searchAssets(
-            @Param("collectionId") String collectionId,
-            @Param("keyword") String keyword,
-            Pageable pageable // Spring sẽ tự động thêm Sắp xếp (Sort) và Phân trang (Pagination)
-    );
+    // Tìm kiếm / phân trang có bộ lọc (từ khoá, tag) nằm ở AssetSearchRepository (searchSummaries, findSummariesAfter)
+
+    /**
+     * Đếm số assets theo từng tag trong collection (facet), bằng một câu aggregate duy nhất.
+     * unnest(tags) tách mảng thành từng dòng rồi GROUP BY, tag phổ biến nhất trước.
+     */
+    @Query(value = "SELECT t.tag AS tag, count(*) AS count "
+            + "FROM arkive.asset a CROSS JOIN LATERAL unnest(a.tags) AS t(tag) "
+            + "WHERE a.collection_id = :collectionId AND a.is_deleted = false "
+            + "GROUP BY t.tag ORDER BY count(*) DESC, t.tag",
+            nativeQuery = true)
+    List<TagFacet> countTagsByCollectionId(@Param("collectionId") String collectionId);
+
+    /**
+     * Lấy projection của tất cả assets trong collection, mới nhất trước
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.collection.id = :collectionId ORDER BY a.createdAt DESC")
+    List<AssetSummary> findSummariesByCollectionId(@Param("collectionId") String collectionId);
+
+    /**
+     * Như findSummariesByCollectionId nhưng bỏ asset trong thùng rác (shared link công khai)
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.collection.id = :collectionId AND a.isDeleted = false ORDER BY a.createdAt DESC")
+    List<AssetSummary> findActiveSummariesByCollectionId(@Param("collectionId") String collectionId);
+
+    /**
+     * Tìm kiếm theo độ liên quan (PostgreSQL pg_trgm), chỉ trả về id theo thứ tự xếp hạng.
+     * Khớp khi filename chứa từ khoá, gần giống từ khoá (word similarity) hoặc có tag trùng từ khoá.
+     * Được phục vụ bởi idx_asset_filename_trgm và idx_asset_tags_gin (xem schema-postgresql.sql).
+     * pattern = LikeUtil.containsPattern(query): % và _ trong từ khoá được so khớp như ký tự thường.
+     */
+    @Query(value = "SELECT a.id FROM arkive.asset a "
+            + "WHERE a.collection_id = :collectionId AND a.is_deleted = false "
+            + "AND (lower(a.filename) LIKE :pattern ESCAPE '\\' "
+            + "OR lower(:query) <% lower(a.filename) "
+            + "OR a.tags @> CAST(ARRAY[lower(:query)] AS varchar[])) "
+            + "ORDER BY (CASE WHEN a.tags @> CAST(ARRAY[lower(:query)] AS varchar[]) THEN 1 ELSE 0 END) "
+            + "+ word_similarity(lower(:query), lower(a.filename)) DESC, a.id",
+            countQuery = "SELECT count(*) FROM arkive.asset a "
+                    + "WHERE a.collection_id = :collectionId AND a.is_deleted = false "
+                    + "AND (lower(a.filename) LIKE :pattern ESCAPE '\\' "
+                    + "OR lower(:query) <% lower(a.filename) "
+                    + "OR a.tags @> CAST(ARRAY[lower(:query)] AS varchar[]))",
+            nativeQuery = true)
+    Page<String> searchIdsByRelevance(@Param("collectionId") String collectionId,
+                                      @Param("query") String query,
+                                      @Param("pattern") String pattern,
+                                      Pageable pageable);
+
+    /**
+     * Lấy projection của các assets theo danh sách id (thứ tự không đảm bảo)
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.id IN :ids")
+    List<AssetSummary> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * Lấy các assets đã xóa mềm (thùng rác) của một user, có phân trang.
+     * Join collection để lọc theo owner_id và lọc is_deleted ngay trong SQL
+     * Sắp theo deletedAt (partial index idx_asset_trash_collection_deleted_at: mỗi collection của user
+     * là một đoạn index đã sắp sẵn theo deleted_at).
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE a.collection.owner.id = :ownerId AND a.isDeleted = true",
+            countQuery = "SELECT count(a) FROM Asset a WHERE a.collection.owner.id = :ownerId AND a.isDeleted = true")
+    Page<AssetSummary> findDeletedSummariesByOwnerId(@Param("ownerId") String ownerId, Pageable pageable);
 
     /**
      * Tìm tất cả assets theo collection ID
@@ -67,8 +150,224 @@ public interface AssetRepository extends JpaRepository<Asset, String> {
     boolean existsByCollectionIdAndCollectionOwnerUsername(String collectionId, String username);
 
     /**
-     * Kiểm tra xem user có phải owner của asset không.
+     * Lấy asset kèm kiểm tra quyền sở hữu trong cùng một câu SQL.
+     * c.owner.id là khóa ngoại owner_id nên không cần join bảng users; collection vẫn là proxy lazy.
+     * Không thuộc user -> Optional rỗng (không tiết lộ asset có tồn tại hay không).
+     */
+    @Query("SELECT a FROM Asset a JOIN a.collection c WHERE a.id = :assetId AND c.owner.id = :ownerId")
+    Optional<Asset> findByIdAndOwnerId(@Param("assetId") String assetId, @Param("ownerId") String ownerId);
+
+    /**
+     * Như findByIdAndOwnerId nhưng chỉ đọc projection (endpoint chi tiết asset)
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.id = :assetId AND a.collection.owner.id = :ownerId")
+    Optional<AssetSummary> findSummaryByIdAndOwnerId(@Param("assetId") String assetId, @Param("ownerId") String ownerId);
+
+    // --- Thao tác hàng loạt (AssetBulkService): mỗi lô id là một câu SELECT + một câu UPDATE/DELETE
+
+    /**
+     * Lọc lô id theo quyền sở hữu trong một câu SQL, id không thuộc user sẽ không có trong kết quả
+     */
+    @Query("SELECT a.id AS id, a.collection.id AS collectionId, a.storageKey AS storageKey, a.thumbnailKey AS thumbnailKey, "
+            + "a.previewKey AS previewKey, a.scrubStripKey AS scrubStripKey, a.fileSize AS fileSize, a.isDeleted AS isDeleted, "
+            + "a.createdAt AS createdAt, a.tags AS tags "
+            + "FROM Asset a WHERE a.id IN :assetIds AND a.collection.owner.id = :ownerId")
+    List<AssetRef> findRefsByIdInAndOwnerId(@Param("assetIds") Collection<String> assetIds, @Param("ownerId") String ownerId);
+
+    /**
+     * Xóa mềm / khôi phục cả lô. deletedAt là thời điểm xoá (thùng rác sắp xếp theo deletedAt), null khi khôi phục.
+     * Bulk UPDATE bỏ qua @UpdateTimestamp nên phải tự set updatedAt.
+     */
+    @Modifying
+    @Query("UPDATE Asset a SET a.isDeleted = :deleted, a.deletedAt = :deletedAt, a.updatedAt = :updatedAt "
+            + "WHERE a.id IN :assetIds")
+    int updateDeletedByIdIn(@Param("assetIds") Collection<String> assetIds,
+                            @Param("deleted") boolean deleted,
+                            @Param("deletedAt") LocalDateTime deletedAt,
+                            @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Chuyển cả lô sang collection khác
+     */
+    @Modifying
+    @Query("UPDATE Asset a SET a.collection = :collection, a.updatedAt = :updatedAt WHERE a.id IN :assetIds")
+    int moveByIdIn(@Param("assetIds") Collection<String> assetIds,
+                   @Param("collection") com.example.arkivebackend.entity.Collection collection,
+                   @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Thêm / bỏ tag cho cả lô trong một câu UPDATE (PostgreSQL): gộp mảng, bỏ trùng, loại removeTags.
+     * Tag truyền vào phải đã chuẩn hoá (TagUtil).
+     */
+    @Modifying
+    @Query(value = "UPDATE arkive.asset SET tags = ARRAY("
+            + "SELECT DISTINCT u.tag FROM unnest(coalesce(tags, CAST(ARRAY[] AS varchar[])) || CAST(:addTags AS varchar[])) AS u(tag) "
+            + "WHERE NOT (u.tag = ANY (CAST(:removeTags AS varchar[]))) ORDER BY u.tag), "
+            + "updated_at = :updatedAt "
+            + "WHERE id IN (:assetIds)",
+            nativeQuery = true)
+    int updateTagsByIdIn(@Param("assetIds") Collection<String> assetIds,
+                         @Param("addTags") String[] addTags,
+                         @Param("removeTags") String[] removeTags,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Xóa vĩnh viễn cả lô bằng một câu DELETE (không load entity)
+     */
+    @Modifying
+    @Query("DELETE FROM Asset a WHERE a.id IN :assetIds")
+    int deleteAllByIdIn(@Param("assetIds") Collection<String> assetIds);
+
+    // ==================== Dọn thùng rác (TrashPurgeJob) ====================
+
+    /**
+     * Nhận một lô asset nằm trong thùng rác quá hạn và khoá chúng tới hết transaction.
+     * lock.timeout = -2 (SKIP LOCKED): bỏ qua dòng đang bị khoá (người dùng đang khôi phục, instance khác đang dọn)
+     * thay vì chờ; được phục vụ bởi partial index idx_asset_trash_deleted_at.
      */
-    boolean existsByIdAndCollectionOwnerUsername(String assetId, String username);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT a.id AS id, a.collection.id AS collectionId, a.storageKey AS storageKey, a.thumbnailKey AS thumbnailKey, "
+            + "a.previewKey AS previewKey, a.scrubStripKey AS scrubStripKey, a.fileSize AS fileSize, a.isDeleted AS isDeleted, "
+            + "a.createdAt AS createdAt, a.tags AS tags "
+            + "FROM Asset a WHERE a.isDeleted = true AND a.deletedAt < :cutoff ORDER BY a.deletedAt")
+    List<AssetRef> claimExpiredTrash(@Param("cutoff") LocalDateTime cutoff, Limit limit);
 
+    // ==================== Đối soát bucket (OrphanObjectReconcileJob) ====================
+
+    /**
+     * Các storageKey trong lô còn được asset tham chiếu (kể cả asset trong thùng rác), dùng idx_asset_storage_key
+     */
+    @Query("SELECT a.storageKey FROM Asset a WHERE a.storageKey IN :keys")
+    Set<String> findExistingStorageKeys(@Param("keys") Collection<String> keys);
+
+    /**
+     * Như findExistingStorageKeys cho thumbnail bucket: thumbnail, bản preview và dải scrub của video
+     * (idx_asset_thumbnail_key, idx_asset_preview_key, idx_asset_scrub_strip_key)
+     */
+    @Query("SELECT a.thumbnailKey FROM Asset a WHERE a.thumbnailKey IN :keys "
+            + "UNION SELECT a.previewKey FROM Asset a WHERE a.previewKey IN :keys "
+            + "UNION SELECT a.scrubStripKey FROM Asset a WHERE a.scrubStripKey IN :keys")
+    Set<String> findExistingThumbnailKeys(@Param("keys") Collection<String> keys);
+
+    /**
+     * Asset tạo trước khi có thumbnail_key chỉ lưu thumbnailUrl = {public-url}/{key}: tách key ra từ URL
+     * để đối soát không coi thumbnail của chúng là rác
+     */
+    @Modifying
+    @Query(value = "UPDATE arkive.asset SET thumbnail_key = regexp_replace(thumbnail_url, '^.*/', '') "
+            + "WHERE thumbnail_key IS NULL AND thumbnail_url IS NOT NULL",
+            nativeQuery = true)
+    @Transactional
+    int backfillThumbnailKeys();
+
+    // ==================== Thumbnail phía server (ThumbnailService) ====================
+
+    /**
+     * Ảnh chờ tạo thumbnail, upload cũ trước (idx_asset_thumbnail_pending). Video có hàng đợi riêng
+     * (findPendingVideoThumbnailIds) để video chờ ffmpeg không chiếm chỗ của ảnh
+     */
+    @Query("SELECT a.id FROM Asset a WHERE a.thumbnailStatus = com.example.arkivebackend.enums.ThumbnailStatus.PENDING "
+            + "AND a.fileType NOT LIKE 'video/%' ORDER BY a.createdAt")
+    List<String> findPendingThumbnailIds(Limit limit);
+
+    /**
+     * Video chờ tạo poster / dải scrub, upload cũ trước (idx_asset_thumbnail_pending)
+     */
+    @Query("SELECT a.id FROM Asset a WHERE a.thumbnailStatus = com.example.arkivebackend.enums.ThumbnailStatus.PENDING "
+            + "AND a.fileType LIKE 'video/%' ORDER BY a.createdAt")
+    List<String> findPendingVideoThumbnailIds(Limit limit);
+
+    /**
+     * Ghi kết quả tạo thumbnail. Chỉ áp dụng khi asset còn PENDING: trả về 0 nếu asset đã bị xoá
+     * hoặc đã có thumbnail khác, khi đó caller dọn các object vừa tạo.
+     * Không đổi updatedAt: thumbnail do job nền tạo, không phải thay đổi của người dùng.
+     */
+    @Modifying
+    @Query("UPDATE Asset a SET a.thumbnailKey = :thumbnailKey, a.previewKey = :previewKey, a.thumbnailStatus = :status "
+            + "WHERE a.id = :assetId AND a.thumbnailStatus = com.example.arkivebackend.enums.ThumbnailStatus.PENDING")
+    @Transactional
+    int completePendingThumbnail(@Param("assetId") String assetId,
+                                 @Param("thumbnailKey") String thumbnailKey,
+                                 @Param("previewKey") String previewKey,
+                                 @Param("status") ThumbnailStatus status);
+
+    /**
+     * Như completePendingThumbnail cho video: poster làm thumbnail, dải scrub thay cho preview
+     * (xem trước video vẫn phát file gốc)
+     */
+    @Modifying
+    @Query("UPDATE Asset a SET a.thumbnailKey = :thumbnailKey, a.scrubStripKey = :scrubStripKey, "
+            + "a.scrubFrameCount = :scrubFrameCount, a.thumbnailStatus = :status "
+            + "WHERE a.id = :assetId AND a.thumbnailStatus = com.example.arkivebackend.enums.ThumbnailStatus.PENDING")
+    @Transactional
+    int completePendingVideoThumbnail(@Param("assetId") String assetId,
+                                      @Param("thumbnailKey") String thumbnailKey,
+                                      @Param("scrubStripKey") String scrubStripKey,
+                                      @Param("scrubFrameCount") Integer scrubFrameCount,
+                                      @Param("status") ThumbnailStatus status);
+
+    /**
+     * Asset chưa đọc metadata, upload cũ trước (idx_asset_metadata_pending)
+     */
+    @Query("SELECT a FROM Asset a WHERE a.metadataExtractedAt IS NULL ORDER BY a.createdAt")
+    List<Asset> findMetadataPending(Limit limit);
+
+    /**
+     * Ghi metadata đọc từ phần đầu file. Không có thời điểm chụp thì lấy thời điểm upload để sắp xếp theo takenAt
+     * vẫn đủ asset. Không đổi updatedAt (không phải thay đổi của người dùng).
+     */
+    @Modifying
+    @Query("UPDATE Asset a SET a.takenAt = COALESCE(:takenAt, a.createdAt), a.width = :width, a.height = :height, "
+            + "a.orientation = :orientation, a.cameraMake = :cameraMake, a.cameraModel = :cameraModel, "
+            + "a.metadataExtractedAt = :extractedAt WHERE a.id = :assetId")
+    @Transactional
+    int updateMediaMetadata(@Param("assetId") String assetId,
+                            @Param("takenAt") LocalDateTime takenAt,
+                            @Param("width") Integer width,
+                            @Param("height") Integer height,
+                            @Param("orientation") Integer orientation,
+                            @Param("cameraMake") String cameraMake,
+                            @Param("cameraModel") String cameraModel,
+                            @Param("extractedAt") LocalDateTime extractedAt);
+
+    /**
+     * Asset chưa tính perceptual hash và đã có thumbnail (hoặc chắc chắn không có), upload cũ trước
+     * (idx_asset_perceptual_hash_pending)
+     */
+    @Query("SELECT a FROM Asset a WHERE a.perceptualHashedAt IS NULL "
+            + "AND a.thumbnailStatus <> com.example.arkivebackend.enums.ThumbnailStatus.PENDING ORDER BY a.createdAt")
+    List<Asset> findPerceptualHashPending(Limit limit);
+
+    /**
+     * Ghi perceptual hash (null nếu không tính được). Không đổi updatedAt.
+     */
+    @Modifying
+    @Query("UPDATE Asset a SET a.perceptualHash = :hash, a.perceptualHashedAt = :hashedAt WHERE a.id = :assetId")
+    @Transactional
+    int updatePerceptualHash(@Param("assetId") String assetId,
+                             @Param("hash") Long hash,
+                             @Param("hashedAt") LocalDateTime hashedAt);
+
+    /**
+     * Mọi hash, đọc dần theo lô fetchSize (caller phải mở transaction và đóng stream).
+     * Gồm cả asset trong thùng rác: khôi phục không đổi perceptualHashedAt nên refresh không nạp lại được,
+     * kết quả tìm kiếm đã được lọc lại ở DB. Chỉ chọn 4 cột nên bộ nhớ không phụ thuộc số asset.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(HASH_REF_SELECT + "WHERE a.perceptualHash IS NOT NULL")
+    Stream<AssetHashRef> streamPerceptualHashes();
+
+    /**
+     * Hash tính sau vị trí (hashedAt, id), theo thứ tự tính (idx_asset_perceptual_hashed)
+     */
+    @Query(HASH_REF_SELECT + "WHERE a.perceptualHash IS NOT NULL AND (a.perceptualHashedAt > :hashedAt "
+            + "OR (a.perceptualHashedAt = :hashedAt AND a.id > :id)) ORDER BY a.perceptualHashedAt, a.id")
+    List<AssetHashRef> findPerceptualHashesAfter(@Param("hashedAt") LocalDateTime hashedAt, @Param("id") String id, Limit limit);
+
+    /**
+     * Như findSummariesByIdIn nhưng bỏ asset trong thùng rác
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.id IN :ids AND a.isDeleted = false")
+    List<AssetSummary> findActiveSummariesByIdIn(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,46 @@
+package com.example.arkivebackend.repository;
+
+import com.example.arkivebackend.enums.AssetSortField;
+import com.example.arkivebackend.enums.TagMatchMode;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fragment repository cho tìm kiếm / phân trang assets với bộ lọc động
+ * (từ khoá, tag any/all). Dựng JPQL một lần cho cả SELECT, COUNT và keyset.
+ */
+public interface AssetSearchRepository {
+
+    /**
+     * Bộ lọc tìm kiếm asset (chỉ assets chưa xóa trong một collection).
+     * tags rỗng hoặc null = không lọc theo tag.
+     */
+    record Filter(String collectionId, String keyword, Set<String> tags, TagMatchMode tagMatch) {
+        public boolean hasTags() {
+            return tags != null && !tags.isEmpty();
+        }
+    }
+
+    /**
+     * Phân trang OFFSET: 1 câu SELECT + 1 câu COUNT, trả về projection.
+     */
+    Page<AssetSummary> searchSummaries(Filter filter, Pageable pageable);
+
+    /**
+     * Phân trang keyset: lấy tối đa {@code limit} assets đứng sau vị trí (afterValue, afterId).
+     * Thay vì OFFSET, câu truy vấn "seek" thẳng tới bản ghi cuối trang trước nên trang sâu
+     * có chi phí như trang đầu. Truyền afterId = null để lấy trang đầu tiên.
+     */
+    List<AssetSummary> findSummariesAfter(Filter filter, AssetSortField sortField, Sort.Direction direction,
+                                          Object afterValue, String afterId, int limit);
+
+    /**
+     * Đếm số assets khớp bộ lọc.
+     */
+    long countSummaries(Filter filter);
+}
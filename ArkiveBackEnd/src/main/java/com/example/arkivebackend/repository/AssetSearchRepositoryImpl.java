@@ -0,0 +1,139 @@
+package com.example.arkivebackend.repository;
+
+import com.example.arkivebackend.enums.AssetSortField;
+import com.example.arkivebackend.enums.TagMatchMode;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import com.example.arkivebackend.repository.projection.AssetSummaryRow;
+import com.example.arkivebackend.util.LikeUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AssetSearchRepositoryImpl implements AssetSearchRepository {
+
+    private static final String SUMMARY_ROW_SELECT = "SELECT new com.example.arkivebackend.repository.projection.AssetSummaryRow("
+            + "a.id, a.filename, a.fileType, a.fileSize, a.thumbnailUrl, a.thumbnailKey, a.tags, a.collection.id, a.createdAt, a.updatedAt, "
+            + "a.takenAt, a.width, a.height, a.orientation, a.cameraMake, a.cameraModel) "
+            + "FROM Asset a ";
+
+    EntityManager entityManager;
+
+    @Override
+    public Page<AssetSummary> searchSummaries(Filter filter, Pageable pageable) {
+        StringBuilder jpql = new StringBuilder(SUMMARY_ROW_SELECT).append(where(filter));
+        if (pageable.getSort().isSorted()) {
+            jpql.append("ORDER BY ");
+            pageable.getSort().forEach(order -> {
+                AssetSortField sortField = AssetSortField.fromString(order.getProperty()); // Chỉ nhận trường trong whitelist
+                jpql.append("a.").append(sortField.getFieldName()).append(' ')
+                        .append(orderBy(sortField, order.isAscending())).append(", ");
+            });
+            jpql.setLength(jpql.length() - 2);
+        }
+
+        TypedQuery<AssetSummaryRow> query = bind(entityManager.createQuery(jpql.toString(), AssetSummaryRow.class), filter)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        List<AssetSummary> content = List.copyOf(query.getResultList());
+
+        // Bỏ qua COUNT khi trang đầu đã chứa hết kết quả (giống Spring Data)
+        long total = pageable.getOffset() == 0 && content.size() < pageable.getPageSize()
+                ? content.size()
+                : countSummaries(filter);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public List<AssetSummary> findSummariesAfter(Filter filter, AssetSortField sortField, Sort.Direction direction,
+                                                 Object afterValue, String afterId, int limit) {
+        // Tên cột lấy từ enum (whitelist), không bao giờ lấy trực tiếp từ input của client
+        String column = "a." + sortField.getFieldName();
+        String order = direction.isAscending() ? "ASC" : "DESC";
+
+        boolean ascending = direction.isAscending();
+        boolean seekValue = afterId != null && afterValue != null;
+
+        StringBuilder jpql = new StringBuilder(SUMMARY_ROW_SELECT).append(where(filter));
+        if (afterId != null) {
+            jpql.append("AND ").append(seek(column, sortField.isNullable(), ascending, afterValue == null)).append(' ');
+        }
+        jpql.append("ORDER BY ").append(column).append(' ').append(orderBy(sortField, ascending))
+                .append(", a.id ").append(order);
+
+        TypedQuery<AssetSummaryRow> query = bind(entityManager.createQuery(jpql.toString(), AssetSummaryRow.class), filter)
+                .setMaxResults(limit);
+        if (seekValue) {
+            query.setParameter("afterValue", afterValue);
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return List.copyOf(query.getResultList());
+    }
+
+    /**
+     * Điều kiện "đứng sau (afterValue, afterId)". So sánh theo bộ (cột sắp xếp, id) để Postgres seek trên index
+     * (collection_id, cột, id). Cột nullable: null là giá trị lớn nhất (NULLS LAST khi ASC, NULLS FIRST khi DESC,
+     * trùng thứ tự của index B-tree) nên cần thêm nhánh cho các dòng null.
+     */
+    private static String seek(String column, boolean nullable, boolean ascending, boolean afterNull) {
+        String tuple = "(" + column + ", a.id) " + (ascending ? ">" : "<") + " (:afterValue, :afterId)";
+        if (!nullable) {
+            return tuple;
+        }
+        if (ascending) {
+            return afterNull
+                    ? "(" + column + " IS NULL AND a.id > :afterId)"
+                    : "(" + tuple + " OR " + column + " IS NULL)";
+        }
+        return afterNull
+                ? "(" + column + " IS NOT NULL OR a.id < :afterId)"
+                : tuple;
+    }
+
+    private static String orderBy(AssetSortField sortField, boolean ascending) {
+        if (!sortField.isNullable()) {
+            return ascending ? "ASC" : "DESC";
+        }
+        // Ghi rõ vị trí null: H2 (test) mặc định khác PostgreSQL
+        return ascending ? "ASC NULLS LAST" : "DESC NULLS FIRST";
+    }
+
+    @Override
+    public long countSummaries(Filter filter) {
+        String jpql = "SELECT count(a) FROM Asset a " + where(filter);
+        return bind(entityManager.createQuery(jpql, Long.class), filter).getSingleResult();
+    }
+
+    private String where(Filter filter) {
+        StringBuilder where = new StringBuilder("WHERE a.collection.id = :collectionId ")
+                .append("AND lower(a.filename) LIKE :keyword ESCAPE '\\' ")
+                .append("AND a.isDeleted = false ");
+        if (filter.hasTags()) {
+            // Hibernate render thành a.tags && ? (ANY) hoặc a.tags @> ? (ALL) trên PostgreSQL -> dùng idx_asset_tags_gin
+            where.append(filter.tagMatch() == TagMatchMode.ALL
+                    ? "AND array_includes(a.tags, :tags) "
+                    : "AND array_intersects(a.tags, :tags) ");
+        }
+        return where.toString();
+    }
+
+    private <T> TypedQuery<T> bind(TypedQuery<T> query, Filter filter) {
+        query.setParameter("collectionId", filter.collectionId());
+        query.setParameter("keyword", LikeUtil.containsPattern(filter.keyword()));
+        if (filter.hasTags()) {
+            query.setParameter("tags", filter.tags().toArray(String[]::new));
+        }
+        return query;
+    }
+}
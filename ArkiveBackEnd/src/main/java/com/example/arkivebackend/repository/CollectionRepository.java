@@ -1,8 +1,14 @@
 package com.example.arkivebackend.repository;
 
 import com.example.arkivebackend.entity.Collection;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +16,53 @@ public interface CollectionRepository extends JpaRepository<Collection, String>
     Optional<Collection> findByName(String name);
     Optional<Collection> findByNameAndOwnerId(String name, String ownerId);
     List<Collection> findAllByOwnerId(String ownerId);
+    boolean existsByIdAndOwnerId(String id, String ownerId);
+
+    /**
+     * Cộng thêm asset vào thống kê collection (upload xong, khôi phục từ thùng rác).
+     * Một câu UPDATE nguyên tử, không đọc-sửa-ghi nên không mất cập nhật khi upload song song.
+     */
+    @Modifying
+    @Query("UPDATE Collection c SET c.assetCount = c.assetCount + :count, "
+            + "c.totalBytes = c.totalBytes + :bytes, "
+            + "c.lastAssetAt = CASE WHEN c.lastAssetAt IS NULL OR c.lastAssetAt < :lastAssetAt "
+            + "THEN :lastAssetAt ELSE c.lastAssetAt END "
+            + "WHERE c.id = :collectionId")
+    int incrementAssetStats(@Param("collectionId") String collectionId,
+                            @Param("count") int count,
+                            @Param("bytes") long bytes,
+                            @Param("lastAssetAt") LocalDateTime lastAssetAt);
+
+    /**
+     * Trừ asset khỏi thống kê collection (xoá mềm, xoá vĩnh viễn asset chưa nằm trong thùng rác).
+     * lastAssetAt được tính lại bằng max(created_at) trên idx_asset_collection_created.
+     * flushAutomatically: thay đổi isDeleted đang chờ phải được ghi trước khi chạy subquery.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Collection c SET c.assetCount = c.assetCount - :count, "
+            + "c.totalBytes = c.totalBytes - :bytes, "
+            + "c.lastAssetAt = (SELECT max(a.createdAt) FROM Asset a WHERE a.collection = c AND a.isDeleted = false) "
+            + "WHERE c.id = :collectionId")
+    int decrementAssetStats(@Param("collectionId") String collectionId,
+                            @Param("count") int count,
+                            @Param("bytes") long bytes);
+
+    /**
+     * Lấy id collection theo thứ tự, dùng để chia lô cho job đối soát (keyset trên id)
+     */
+    @Query("SELECT c.id FROM Collection c WHERE c.id > :afterId ORDER BY c.id")
+    List<String> findIdsAfter(@Param("afterId") String afterId, Limit limit);
+
+    /**
+     * Tính lại thống kê của một lô collection từ bảng asset (job đối soát).
+     * Các subquery tương quan đều lọc theo collection_id nên đi qua index của asset.
+     */
+    @Transactional // Mỗi lô một transaction ngắn, không giữ lock trên toàn bộ bảng
+    @Modifying
+    @Query("UPDATE Collection c SET "
+            + "c.assetCount = (SELECT count(a) FROM Asset a WHERE a.collection = c AND a.isDeleted = false), "
+            + "c.totalBytes = (SELECT coalesce(sum(a.fileSize), 0) FROM Asset a WHERE a.collection = c AND a.isDeleted = false), "
+            + "c.lastAssetAt = (SELECT max(a.createdAt) FROM Asset a WHERE a.collection = c AND a.isDeleted = false) "
+            + "WHERE c.id IN :collectionIds")
+    int recomputeAssetStats(@Param("collectionIds") List<String> collectionIds);
 }
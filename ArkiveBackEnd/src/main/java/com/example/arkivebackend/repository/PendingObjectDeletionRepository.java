@@ -0,0 +1,35 @@
+package com.example.arkivebackend.repository;
+
+import com.example.arkivebackend.entity.PendingObjectDeletion;
+import com.example.arkivebackend.enums.StorageBucket;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface PendingObjectDeletionRepository extends JpaRepository<PendingObjectDeletion, String> {
+
+    /**
+     * Nhận một lô dòng đã tới hạn và khoá chúng tới hết transaction.
+     * lock.timeout = -2 (SKIP LOCKED): nhiều instance chạy worker cùng lúc sẽ nhận các lô khác nhau.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM PendingObjectDeletion d WHERE d.nextAttemptAt <= :now ORDER BY d.nextAttemptAt")
+    List<PendingObjectDeletion> claimDue(@Param("now") LocalDateTime now, Limit limit);
+
+    // Các key trong danh sách đang chờ bị xoá (không được tái sử dụng làm blob mới)
+    @Query("SELECT d.storageKey FROM PendingObjectDeletion d WHERE d.bucket = :bucket AND d.storageKey IN :storageKeys")
+    Set<String> findQueuedKeys(@Param("bucket") StorageBucket bucket, @Param("storageKeys") Collection<String> storageKeys);
+}
@@ -0,0 +1,60 @@
+package com.example.arkivebackend.repository;
+
+import com.example.arkivebackend.entity.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Instant upload: blob đã có của user theo hash (không khoá, chỉ để trả key cho client)
+    List<StoredBlob> findByOwnerIdAndContentHashIn(String ownerId, Collection<String> contentHashes);
+
+    /**
+     * Khoá các blob của user theo hash trước khi tăng refCount, tránh đua với release() đang đưa blob về 0.
+     * Khoá theo thứ tự id để hai transaction không deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.owner.id = :ownerId AND b.contentHash IN :contentHashes ORDER BY b.id")
+    List<StoredBlob> lockByOwnerIdAndContentHashIn(@Param("ownerId") String ownerId,
+                                                   @Param("contentHashes") Collection<String> contentHashes);
+
+    /**
+     * Tạo blob refCount 0 nếu chưa có. Hai upload cùng nội dung hoàn tất đồng thời: câu INSERT sau chờ transaction
+     * trước commit rồi bỏ qua, thay vì vi phạm uk_stored_blob_owner_hash. Không chỉ định constraint (H2 chỉ hỗ trợ
+     * dạng này), nên key đã thuộc blob khác cũng bị bỏ qua: caller khoá và đọc lại để biết blob nào đã có.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO arkive.stored_blobs (id, content_hash, storage_key, file_size, etag, content_type, "
+            + "ref_count, owner_id, created_at, updated_at) "
+            + "VALUES (:id, :contentHash, :storageKey, :fileSize, :etag, :contentType, 0, :ownerId, :now, :now) "
+            + "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id,
+                       @Param("ownerId") String ownerId,
+                       @Param("contentHash") String contentHash,
+                       @Param("storageKey") String storageKey,
+                       @Param("fileSize") long fileSize,
+                       @Param("etag") String etag,
+                       @Param("contentType") String contentType,
+                       @Param("now") LocalDateTime now);
+
+    // Các key trong danh sách đã là object của một blob
+    @Query("SELECT b.storageKey FROM StoredBlob b WHERE b.storageKey IN :storageKeys")
+    Set<String> findExistingStorageKeys(@Param("storageKeys") Collection<String> storageKeys);
+
+    // Khoá các blob theo storageKey trước khi giảm refCount (xoá asset vĩnh viễn)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.storageKey IN :storageKeys ORDER BY b.id")
+    List<StoredBlob> lockByStorageKeyIn(@Param("storageKeys") Collection<String> storageKeys);
+}
@@ -0,0 +1,29 @@
+package com.example.arkivebackend.repository;
+
+import com.example.arkivebackend.entity.UploadSession;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // Session của người khác coi như không tồn tại
+    Optional<UploadSession> findByIdAndOwnerId(String id, String ownerId);
+
+    // Các upload còn dở của user, mới nhất trước (tab mới tìm lại file để resume)
+    List<UploadSession> findByOwnerIdAndExpiresAtAfterOrderByCreatedAtDesc(String ownerId, LocalDateTime now);
+
+    List<UploadSession> findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime now, Limit limit);
+
+    // uploadId còn hiệu lực: job quét S3 không được huỷ các upload này dù đã khởi tạo từ lâu
+    @Query("SELECT s.uploadId FROM UploadSession s WHERE s.expiresAt >= :now")
+    Set<String> findActiveUploadIds(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,13 @@
+package com.example.arkivebackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection nạp perceptual hash vào index tìm ảnh gần giống (SimilarAssetService)
+ */
+public interface AssetHashRef {
+    String getId();
+    String getOwnerId();
+    Long getPerceptualHash();
+    LocalDateTime getPerceptualHashedAt();
+}
@@ -0,0 +1,21 @@
+package com.example.arkivebackend.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Projection tối thiểu cho thao tác hàng loạt: đủ để kiểm tra quyền, xác định thay đổi
+ * và cập nhật thống kê collection mà không hydrate entity Asset.
+ */
+public interface AssetRef {
+    String getId();
+    String getCollectionId();
+    String getStorageKey();
+    String getThumbnailKey();
+    String getPreviewKey();
+    String getScrubStripKey();
+    Long getFileSize();
+    Boolean getIsDeleted();
+    LocalDateTime getCreatedAt();
+    Set<String> getTags();
+}
@@ -0,0 +1,28 @@
+package com.example.arkivebackend.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Interface projection cho danh sách asset.
+ * Chỉ chọn các cột cần cho AssetResponse, không hydrate entity Asset
+ * và không đụng tới persistence context (không lazy-load collection/owner).
+ */
+public interface AssetSummary {
+    String getId();
+    String getFilename();
+    String getFileType();
+    Long getFileSize();
+    String getThumbnailUrl();
+    String getThumbnailKey();
+    Set<String> getTags();
+    String getCollectionId();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    LocalDateTime getTakenAt();
+    Integer getWidth();
+    Integer getHeight();
+    Integer getOrientation();
+    String getCameraMake();
+    String getCameraModel();
+}
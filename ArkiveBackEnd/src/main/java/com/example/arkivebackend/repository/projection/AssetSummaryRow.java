@@ -0,0 +1,30 @@
+package com.example.arkivebackend.repository.projection;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Bản cài đặt AssetSummary dùng cho constructor expression (SELECT new ...)
+ * trong các câu JPQL dựng động, nơi Spring Data không tự tạo proxy projection.
+ */
+@Value
+public class AssetSummaryRow implements AssetSummary {
+    String id;
+    String filename;
+    String fileType;
+    Long fileSize;
+    String thumbnailUrl;
+    String thumbnailKey;
+    Set<String> tags;
+    String collectionId;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    LocalDateTime takenAt;
+    Integer width;
+    Integer height;
+    Integer orientation;
+    String cameraMake;
+    String cameraModel;
+}
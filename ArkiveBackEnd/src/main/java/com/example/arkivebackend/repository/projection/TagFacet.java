@@ -0,0 +1,9 @@
+package com.example.arkivebackend.repository.projection;
+
+/**
+ * Projection cho facet tag: tag -> số assets mang tag đó.
+ */
+public interface TagFacet {
+    String getTag();
+    Long getCount();
+}
@@ -18,10 +18,6 @@ public class AssetSecurity {
         return assetRepository.existsByCollectionIdAndCollectionOwnerUsername(collectionId, username);
     }
 
-    /**
-     * Kiểm tra xem user có phải owner của asset không.
-     */
-    public boolean isOwner(String assetId, String username) {
-        return assetRepository.existsByIdAndCollectionOwnerUsername(assetId, username);
-    }
+    // Quyền trên từng asset được kiểm tra ngay trong câu truy vấn của AssetService
+    // (AssetRepository.findByIdAndOwnerId), không cần thêm một query ở đây.
 }
@@ -0,0 +1,31 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.dto.request.BulkAssetRequest;
+import com.example.arkivebackend.dto.response.BulkAssetResponse;
+
+/**
+ * Thao tác hàng loạt trên assets của user hiện tại.
+ * Quyền sở hữu được kiểm tra cho cả lô id trong một câu SQL, thay đổi áp dụng bằng UPDATE/DELETE ... WHERE id IN (...).
+ */
+public interface AssetBulkService {
+
+    /**
+     * Xóa mềm (hoặc xóa vĩnh viễn khi permanent = true)
+     */
+    BulkAssetResponse delete(BulkAssetRequest request);
+
+    /**
+     * Khôi phục assets trong thùng rác
+     */
+    BulkAssetResponse restore(BulkAssetRequest request);
+
+    /**
+     * Thêm / bỏ tag (addTags, removeTags)
+     */
+    BulkAssetResponse tag(BulkAssetRequest request);
+
+    /**
+     * Chuyển assets sang collection khác (targetCollectionId)
+     */
+    BulkAssetResponse move(BulkAssetRequest request);
+}
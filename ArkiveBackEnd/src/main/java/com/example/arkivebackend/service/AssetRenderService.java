@@ -0,0 +1,26 @@
+package com.example.arkivebackend.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Render ảnh của asset theo kích thước / định dạng yêu cầu (GET /assets/{id}/render), có cache trên đĩa.
+ */
+public interface AssetRenderService {
+
+    /**
+     * Kết quả render: content là file trong cache đã mở sẵn, caller phải close (try-with-resources).
+     * eTag không đổi theo thời gian vì nội dung chỉ phụ thuộc file gốc và tham số render.
+     */
+    record RenderedImage(FileChannel content, long size, String contentType, String eTag) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            content.close();
+        }
+    }
+
+    // Chỉ owner được render (asset của người khác trả về 404); w hoặc h có thể bỏ trống, fit = contain | cover,
+    // format = jpeg | png
+    RenderedImage render(String assetId, Integer width, Integer height, String fit, String format);
+}
@@ -1,27 +1,63 @@
 package com.example.arkivebackend.service;
 
 import com.example.arkivebackend.dto.request.AssetUpdateRequest;
+import com.example.arkivebackend.dto.request.AssetUploadBatchRequest;
+import com.example.arkivebackend.dto.request.AssetUploadCompleteBatchRequest;
 import com.example.arkivebackend.dto.request.AssetUploadCompleteRequest;
 import com.example.arkivebackend.dto.request.AssetUploadRequest;
 import com.example.arkivebackend.dto.response.AssetResponse;
+import com.example.arkivebackend.dto.response.BatchPresignedUrlResponse;
+import com.example.arkivebackend.dto.response.CursorPageResponse;
 import com.example.arkivebackend.dto.response.PresignedUrlResponse;
+import com.example.arkivebackend.dto.response.ScrubStripResponse;
+import com.example.arkivebackend.dto.response.TagFacetResponse;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Set;
 
 public interface AssetService {
 
     PresignedUrlResponse requestUploadUrl(AssetUploadRequest request);
     AssetResponse completeUpload(AssetUploadCompleteRequest request);
+
+    /**
+     * Đăng ký nhiều file đã upload trong một transaction (INSERT theo JDBC batch)
+     */
+    List<AssetResponse> completeUploadBatch(AssetUploadCompleteBatchRequest request);
     PresignedUrlResponse requestThumbnailUploadUrl(AssetUploadRequest request);
+
+    /**
+     * Presigned URL (file gốc + thumbnail) cho nhiều file trong một request
+     */
+    List<BatchPresignedUrlResponse> requestUploadUrls(AssetUploadBatchRequest request);
     List<AssetResponse> getAssetsByCollectionId(String collectionId);
     void hardDeleteAsset(String assetId);
     void softDeleteAsset(String assetId);
 
-    // Phân trang và lọc asset
-    Page<AssetResponse> getAssetsPaginated(String collectionId, String keyword,
+    // Phân trang và lọc asset (tags rỗng = không lọc theo tag, tagMatch = "any" | "all")
+    Page<AssetResponse> getAssetsPaginated(String collectionId, String keyword, Set<String> tags, String tagMatch,
                                            String sortBy, String sortOrder, int page, int size);
 
+    /**
+     * Tìm kiếm theo độ liên quan (trigram) trên filename và tags, kết quả liên quan nhất trước
+     */
+    Page<AssetResponse> searchAssetsByRelevance(String collectionId, String query, int page, int size);
+
+    /**
+     * Phân trang theo cursor (keyset): seek trên (cột sắp xếp, id) thay vì OFFSET.
+     * Chỉ đếm tổng số khi includeTotal = true.
+     */
+    CursorPageResponse<AssetResponse> getAssetsByCursor(String collectionId, String keyword,
+                                                       Set<String> tags, String tagMatch,
+                                                       String sortBy, String sortOrder, String cursor,
+                                                       int size, boolean includeTotal);
+
+    /**
+     * Đếm số assets theo từng tag trong collection (facet)
+     */
+    List<TagFacetResponse> getTagFacets(String collectionId);
+
     /**
      * Lấy chi tiết một asset
      */
@@ -43,9 +79,14 @@ public interface AssetService {
     PresignedUrlResponse getPreviewUrl(String assetId);
 
     /**
-     * Lấy tất cả assets đã xóa
+     * Lấy URL của dải khung hình (scrub strip) của video, kèm số khung để client cắt theo vị trí chuột
+     */
+    ScrubStripResponse getScrubStrip(String assetId);
+
+    /**
+     * Lấy assets đã xóa (thùng rác) của user hiện tại, có phân trang
      */
-    List<AssetResponse> getDeletedAssets();
+    Page<AssetResponse> getDeletedAssets(int page, int size);
 
     /**
      * Khôi phục asset đã xóa
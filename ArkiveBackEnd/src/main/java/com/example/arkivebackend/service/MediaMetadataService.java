@@ -0,0 +1,11 @@
+package com.example.arkivebackend.service;
+
+/**
+ * Đọc metadata ảnh / video (thời điểm chụp, kích thước, orientation, máy ảnh) từ phần đầu file gốc bằng ranged GET
+ * và lưu vào các cột của Asset để sắp xếp / lọc mà không phải tải cả file.
+ */
+public interface MediaMetadataService {
+
+    // Đọc metadata cho tối đa batchSize asset chưa đọc, trả về số asset đã xử lý
+    int extractPendingChunk(int batchSize);
+}
@@ -0,0 +1,23 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.enums.StorageBucket;
+
+import java.util.Collection;
+
+/**
+ * Xoá object khỏi storage qua outbox (PendingObjectDeletion) thay vì gọi S3 trong request.
+ */
+public interface ObjectDeletionService {
+
+    /**
+     * Ghi các key cần xoá vào outbox trong transaction hiện tại (bỏ qua key null / rỗng).
+     * Transaction rollback thì object được giữ nguyên.
+     */
+    void enqueue(StorageBucket bucket, Collection<String> storageKeys);
+
+    /**
+     * Xoá một lô đã tới hạn bằng DeleteObjects, key lỗi được hẹn lần thử sau (backoff luỹ thừa).
+     * Trả về số dòng đã xử lý (0 = hết việc).
+     */
+    int processDueBatch();
+}
@@ -0,0 +1,10 @@
+package com.example.arkivebackend.service;
+
+/**
+ * Tính perceptual hash (dHash) cho asset từ thumbnail của nó, phục vụ tìm ảnh gần giống (SimilarAssetService).
+ */
+public interface PerceptualHashService {
+
+    // Tính hash cho tối đa batchSize asset chưa có, trả về số asset đã xử lý
+    int hashPendingChunk(int batchSize);
+}
@@ -0,0 +1,21 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.dto.response.SimilarAssetResponse;
+
+import java.util.List;
+
+/**
+ * Tìm ảnh gần giống (ảnh chụp liên tiếp, bản đã chỉnh sửa, bản nén lại) bằng index perceptual hash trong bộ nhớ,
+ * mỗi user một BK-tree.
+ */
+public interface SimilarAssetService {
+
+    // Asset của user hiện tại có hash cách hash của assetId không quá maxDistance bit, gần nhất trước
+    List<SimilarAssetResponse> findSimilar(String assetId, Integer maxDistance, int limit);
+
+    // Dựng lại toàn bộ index từ DB (khởi động và định kỳ, bỏ các asset đã xoá)
+    void rebuild();
+
+    // Nạp vào index các hash mới tính từ lần nạp trước, trả về số hash đã nạp
+    int refresh();
+}
@@ -1,17 +1,89 @@
 package com.example.arkivebackend.service;
 
+import com.example.arkivebackend.dto.request.AssetUploadBatchRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadCompleteRequest;
+import com.example.arkivebackend.dto.response.BatchPresignedUrlResponse;
+import com.example.arkivebackend.dto.response.MultipartUploadResponse;
+import com.example.arkivebackend.dto.response.PresignedPartUrlResponse;
+import com.example.arkivebackend.dto.response.UploadedPartResponse;
+import com.example.arkivebackend.enums.StorageBucket;
 import com.example.arkivebackend.dto.response.PresignedUrlResponse;
 
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 public interface StorageService {
 
-    // Tạo URL có chữ ký trước để tải lên tệp tin
-    PresignedUrlResponse generatePresignedUploadUrl(String fileName, String contentType);
+    // Một object khi liệt kê bucket
+    record StoredObject(String key, Instant lastModified, long size) {
+    }
+
+    // Metadata thật của object trong bucket asset, checksumSha256 (base64) null nếu upload không kèm checksum
+    record ObjectMetadata(long size, String eTag, String contentType, String checksumSha256) {
+    }
+
+    // Tạo URL có chữ ký trước để tải lên tệp tin. Có contentHash (SHA-256 hex) thì ký luôn header
+    // x-amz-checksum-sha256: S3 từ chối nội dung không khớp hash
+    PresignedUrlResponse generatePresignedUploadUrl(String fileName, String contentType, String contentHash);
 
     // Tạo URL tải thumbnail có chữ ký trước
     PresignedUrlResponse generatePresignedThumbnailUrl(String fileName,String contentType);
 
-    // Xóa tệp tin khỏi kho lưu trữ dựa trên khoá lưu trữ
-    void deleteAsset(String storageKey);
+    // Tạo URL upload (file gốc + thumbnail) cho nhiều file, ký song song khi lô lớn
+    List<BatchPresignedUrlResponse> generatePresignedUploadUrls(List<AssetUploadBatchRequest.Item> files);
+
+    // Bắt đầu multipart upload cho file lớn, kích thước part tính theo fileSize (tối đa 10000 part)
+    MultipartUploadResponse createMultipartUpload(String fileName, String contentType, long fileSize);
+
+    // Ký URL PUT cho từng part, client upload song song nhiều part cùng lúc
+    List<PresignedPartUrlResponse> generatePresignedPartUrls(String storageKey, String uploadId, List<Integer> partNumbers);
+
+    // Ghép các part (partNumber + ETag) thành object hoàn chỉnh
+    void completeMultipartUpload(String storageKey, String uploadId, List<MultipartUploadCompleteRequest.Part> parts);
+
+    // Các part S3 đã nhận (ListParts, tự phân trang), sắp theo partNumber
+    List<UploadedPartResponse> listUploadedParts(String storageKey, String uploadId);
+
+    // Huỷ multipart upload, S3 xoá các part đã upload (gọi lại nhiều lần vẫn an toàn)
+    CompletableFuture<Void> abortMultipartUpload(String storageKey, String uploadId);
+
+    // Huỷ mọi multipart upload bắt đầu trước cutoff (client bỏ dở) trừ các uploadId trong keepUploadIds,
+    // trả về số upload đã huỷ
+    int abortMultipartUploadsInitiatedBefore(Instant cutoff, Set<String> keepUploadIds);
+
+    // Xóa nhiều object trong bucket chỉ định (DeleteObjects, tối đa 1000 key mỗi request), trả về các key xóa thất bại.
+    // Luồng xoá asset đi qua ObjectDeletionService (outbox), không gọi trực tiếp trong request
+    CompletableFuture<Set<String>> deleteObjects(StorageBucket bucket, Collection<String> keys);
+
+    // Duyệt toàn bộ bucket theo từng trang ListObjectsV2 (tối đa 1000 object), không giữ cả bucket trong bộ nhớ
+    void forEachObjectPage(StorageBucket bucket, Consumer<List<StoredObject>> pageConsumer);
+
+    // HeadObject (kèm checksum) trên bucket asset, hoàn thành với null nếu object không tồn tại
+    CompletableFuture<ObjectMetadata> headObject(String storageKey);
+
+    // HeadObject cho nhiều object, tối đa app.s3.async.head-concurrency request cùng lúc: storageKey -> metadata,
+    // object không tồn tại không có trong map
+    CompletableFuture<Map<String, ObjectMetadata>> headObjects(Collection<String> storageKeys);
+
+    // Đọc tối đa length byte đầu của object trong bucket chỉ định (ranged GET), hoàn thành với null nếu object không tồn tại
+    CompletableFuture<byte[]> readObjectHead(StorageBucket bucket, String storageKey, int length);
+
+    // readObjectHead cho nhiều object, cùng giới hạn đồng thời với headObjects: storageKey -> các byte đầu,
+    // object không tồn tại không có trong map
+    CompletableFuture<Map<String, byte[]>> readObjectHeads(StorageBucket bucket, Collection<String> storageKeys, int length);
+
+    // Đọc object trong bucket asset dạng stream (GetObject), caller phải đóng stream.
+    // Object không tồn tại: AppException(UPLOADED_OBJECT_NOT_FOUND)
+    InputStream openObject(String storageKey);
+
+    // Ghi object nhỏ (đã có sẵn trong bộ nhớ) vào bucket chỉ định, ghi đè nếu key đã tồn tại
+    void putObject(StorageBucket bucket, String storageKey, byte[] content, String contentType);
 
     // Tạo URL có chữ ký trước để tải xuống tệp tin
     String generatePresignedGetUrl(String storageKey);
@@ -22,4 +94,7 @@ public interface StorageService {
     // Tạo PresignedUrlResponse để preview asset
     PresignedUrlResponse generatePresignedPreviewUrl(String storageKey);
 
+    // Ký URL GET cho nhiều thumbnail cùng lúc (có cache, song song khi lô lớn): storageKey -> URL
+    Map<String, String> generatePresignedThumbnailUrls(Collection<String> thumbnailKeys);
+
 }
@@ -0,0 +1,39 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.entity.StoredBlob;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Khử trùng lặp theo nội dung: asset upload kèm content hash dùng chung object (StoredBlob) có đếm tham chiếu.
+ */
+public interface StoredBlobService {
+
+    // Một asset mới trỏ tới object đã upload kèm content hash (SHA-256 hex chữ thường)
+    record BlobUpload(String contentHash, String storageKey) {
+    }
+
+    // Instant upload: contentHash -> storageKey của các blob user đã có
+    Map<String, String> findExistingKeys(String ownerId, Collection<String> contentHashes);
+
+    /**
+     * Gắn các asset mới vào blob trong transaction hiện tại. Blob đã có được tăng refCount (object vừa upload trùng
+     * nội dung bị bỏ lại cho OrphanObjectReconcileJob), blob mới chỉ được tạo khi checksum S3 (HeadObject) khớp hash.
+     * Trả về contentHash -> blob, asset dùng storageKey / fileSize của blob.
+     */
+    Map<String, StoredBlob> acquire(String ownerId, Collection<BlobUpload> uploads);
+
+    /**
+     * Kiểm tra object upload không kèm hash trước khi tạo asset riêng cho nó: key không được lặp trong lô, chưa thuộc
+     * asset / blob nào và chưa chờ xoá. Nếu không, hai asset trỏ chung một object không đếm tham chiếu và xoá một
+     * asset sẽ xoá object của asset kia.
+     */
+    void checkUnmanagedKeys(Collection<String> storageKeys);
+
+    /**
+     * Bỏ tham chiếu của các asset bị xoá vĩnh viễn (mỗi phần tử là storageKey của một asset, có thể lặp lại).
+     * Object chỉ vào outbox xoá khi refCount về 0; key không thuộc blob nào (upload không kèm hash) vào outbox ngay.
+     */
+    void release(Collection<String> storageKeys);
+}
@@ -0,0 +1,22 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.enums.ThumbnailStatus;
+
+import java.util.Collection;
+
+/**
+ * Tạo thumbnail phía server cho asset upload không kèm thumbnail (client mobile): đọc file gốc từ S3,
+ * ghi bản thumbnail (lưới) và preview (xem ảnh) vào thumbnail bucket, cập nhật asset.
+ */
+public interface ThumbnailService {
+
+    // Trạng thái ban đầu của asset vừa upload: READY nếu client đã gửi thumbnail, PENDING nếu server tạo được
+    ThumbnailStatus initialStatus(String contentType, boolean hasClientThumbnail);
+
+    // Đưa asset PENDING vào hàng đợi sau khi transaction hiện tại commit. Hàng đợi đầy thì không chờ:
+    // asset vẫn PENDING, ThumbnailBackfillJob nạp lại khi có chỗ
+    void submitAfterCommit(Collection<String> assetIds);
+
+    // Nạp asset PENDING trong DB vào chỗ trống của hàng đợi, trả về số asset đã nạp
+    int submitPending();
+}
@@ -0,0 +1,16 @@
+package com.example.arkivebackend.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Xoá vĩnh viễn asset nằm trong thùng rác quá thời hạn lưu giữ.
+ */
+public interface TrashPurgeService {
+
+    /**
+     * Xoá tối đa {@code limit} asset vào thùng rác trước {@code cutoff} trong một transaction:
+     * xoá bản ghi bằng một câu DELETE, file gốc + thumbnail được đưa vào outbox xoá object.
+     * Trả về số asset đã xoá (nhỏ hơn limit = hết việc).
+     */
+    int purgeExpiredChunk(LocalDateTime cutoff, int limit);
+}
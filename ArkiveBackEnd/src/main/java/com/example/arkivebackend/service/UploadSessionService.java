@@ -0,0 +1,37 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.dto.request.MultipartUploadCompleteRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadCreateRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadPartsRequest;
+import com.example.arkivebackend.dto.response.PresignedPartUrlResponse;
+import com.example.arkivebackend.dto.response.UploadSessionResponse;
+
+import java.util.List;
+
+/**
+ * Upload file lớn theo multipart, trạng thái lưu ở server (UploadSession) để tab khác / lần sau resume được.
+ * Sau khi ghép xong client gọi upload-complete với storageKey như upload thường.
+ */
+public interface UploadSessionService {
+
+    UploadSessionResponse createSession(MultipartUploadCreateRequest request);
+
+    /**
+     * Các session còn hạn của user hiện tại (không gọi S3)
+     */
+    List<UploadSessionResponse> getActiveSessions();
+
+    /**
+     * Đồng bộ với S3 (ListParts): trả về part đã upload và part còn thiếu, gia hạn session
+     */
+    UploadSessionResponse resumeSession(String sessionId);
+
+    List<PresignedPartUrlResponse> requestPartUploadUrls(String sessionId, MultipartUploadPartsRequest request);
+
+    /**
+     * Ghép part thành object. request / parts rỗng thì dùng danh sách part từ S3.
+     */
+    void completeSession(String sessionId, MultipartUploadCompleteRequest request);
+
+    void abortSession(String sessionId);
+}
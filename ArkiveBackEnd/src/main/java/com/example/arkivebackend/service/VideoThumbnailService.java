@@ -0,0 +1,17 @@
+package com.example.arkivebackend.service;
+
+/**
+ * Poster và dải scrub cho video bằng ffmpeg cài trên máy: ffmpeg đọc file gốc qua URL S3 đã ký
+ * (HTTP range khi tua tới khung cần lấy, không tải cả file), kết quả ghi vào thumbnail bucket như thumbnail của ảnh.
+ */
+public interface VideoThumbnailService {
+
+    // Video (video/*) và instance này có ffmpeg chạy được: asset mới upload được để PENDING
+    boolean supports(String contentType);
+
+    // Đưa video PENDING vào hàng đợi riêng, false nếu hàng đợi đầy hoặc không có ffmpeg (asset giữ PENDING)
+    boolean submit(String assetId);
+
+    // Nạp video PENDING trong DB vào chỗ trống của hàng đợi, trả về số asset đã nạp
+    int submitPending();
+}
@@ -0,0 +1,222 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.dto.request.BulkAssetRequest;
+import com.example.arkivebackend.dto.response.BulkAssetResponse;
+import com.example.arkivebackend.enums.BulkItemStatus;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.repository.CollectionRepository;
+import com.example.arkivebackend.repository.projection.AssetRef;
+import com.example.arkivebackend.service.AssetBulkService;
+import com.example.arkivebackend.service.ObjectDeletionService;
+import com.example.arkivebackend.service.StoredBlobService;
+import com.example.arkivebackend.util.SecurityUtil;
+import com.example.arkivebackend.util.TagUtil;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AssetBulkServiceImpl implements AssetBulkService {
+
+    // Số id mỗi lô: giữ mệnh đề IN nhỏ và khớp giới hạn 1000 key của S3 DeleteObjects
+    private static final int CHUNK_SIZE = 1000;
+
+    AssetRepository assetRepository;
+    CollectionRepository collectionRepository;
+    ObjectDeletionService objectDeletionService;
+    StoredBlobService storedBlobService;
+
+    @Override
+    @Transactional
+    public BulkAssetResponse delete(BulkAssetRequest request) {
+        if (request.isPermanent()) {
+            return hardDelete(request);
+        }
+        return process(request, ref -> !Boolean.TRUE.equals(ref.getIsDeleted()), refs -> {
+            LocalDateTime now = LocalDateTime.now();
+            assetRepository.updateDeletedByIdIn(ids(refs), true, now, now);
+            decrementStats(refs);
+        });
+    }
+
+    @Override
+    @Transactional
+    public BulkAssetResponse restore(BulkAssetRequest request) {
+        return process(request, ref -> Boolean.TRUE.equals(ref.getIsDeleted()), refs -> {
+            assetRepository.updateDeletedByIdIn(ids(refs), false, null, LocalDateTime.now());
+            incrementStats(refs, null);
+        });
+    }
+
+    @Override
+    @Transactional
+    public BulkAssetResponse tag(BulkAssetRequest request) {
+        Set<String> addTags = TagUtil.normalize(request.getAddTags());
+        Set<String> removeTags = TagUtil.normalize(request.getRemoveTags());
+        if (addTags.isEmpty() && removeTags.isEmpty()) {
+            throw new AppException(ErrorCode.INVALID_BULK_REQUEST);
+        }
+
+        return process(request, ref -> changesTags(ref.getTags(), addTags, removeTags), refs -> {
+            assetRepository.updateTagsByIdIn(ids(refs), addTags.toArray(String[]::new),
+                    removeTags.toArray(String[]::new), LocalDateTime.now());
+        });
+    }
+
+    @Override
+    @Transactional
+    public BulkAssetResponse move(BulkAssetRequest request) {
+        String targetCollectionId = request.getTargetCollectionId();
+        if (targetCollectionId == null || targetCollectionId.isBlank()) {
+            throw new AppException(ErrorCode.INVALID_BULK_REQUEST);
+        }
+        // Collection đích cũng phải thuộc user hiện tại
+        if (!collectionRepository.existsByIdAndOwnerId(targetCollectionId, SecurityUtil.getCurrentUserId())) {
+            throw new AppException(ErrorCode.COLLECTION_NOT_FOUND);
+        }
+
+        var target = collectionRepository.getReferenceById(targetCollectionId);
+        return process(request, ref -> !targetCollectionId.equals(ref.getCollectionId()), refs -> {
+            assetRepository.moveByIdIn(ids(refs), target, LocalDateTime.now());
+            decrementStats(refs);
+            incrementStats(refs, targetCollectionId);
+        });
+    }
+
+    // Tính kết quả giống updateTagsByIdIn ((tags ∪ add) \ remove), không đổi gì thì asset là SKIPPED
+    private boolean changesTags(Set<String> current, Set<String> addTags, Set<String> removeTags) {
+        Set<String> tags = current == null ? Set.of() : current;
+        Set<String> result = new HashSet<>(tags);
+        result.addAll(addTags);
+        result.removeAll(removeTags);
+        return !result.equals(tags);
+    }
+
+    private BulkAssetResponse hardDelete(BulkAssetRequest request) {
+        return process(request, ref -> true, refs -> {
+            // 1. Bỏ tham chiếu file gốc (object chung chỉ xoá khi hết asset dùng) + đưa thumbnail vào outbox
+            // (cùng transaction), S3 được xoá bất đồng bộ bởi ObjectDeletionWorker
+            storedBlobService.release(refs.stream().map(AssetRef::getStorageKey).toList());
+            objectDeletionService.enqueue(StorageBucket.THUMBNAILS, refs.stream()
+                    .flatMap(ref -> Stream.of(ref.getThumbnailKey(), ref.getPreviewKey(), ref.getScrubStripKey()))
+                    .toList());
+
+            // 2. Xóa bản ghi bằng một câu DELETE, trừ thống kê cho các asset chưa nằm trong thùng rác
+            assetRepository.deleteAllByIdIn(ids(refs));
+            decrementStats(refs);
+        });
+    }
+
+    /**
+     * Khung chung cho mọi thao tác: chia lô id, kiểm tra quyền cả lô bằng một câu SELECT,
+     * bỏ qua asset không cần thay đổi rồi gọi action cho phần còn lại.
+     *
+     * @param needsChange asset nào cần áp dụng thay đổi (còn lại là SKIPPED)
+     * @param action      áp dụng thay đổi cho một lô; lỗi thì ném exception và cả transaction rollback
+     */
+    private BulkAssetResponse process(BulkAssetRequest request,
+                                      Predicate<AssetRef> needsChange,
+                                      Consumer<List<AssetRef>> action) {
+        String userId = SecurityUtil.getCurrentUserId();
+        List<String> assetIds = List.copyOf(new LinkedHashSet<>(request.getAssetIds())); // Bỏ id trùng, giữ thứ tự
+
+        Map<String, BulkItemStatus> statuses = new LinkedHashMap<>();
+        assetIds.forEach(id -> statuses.put(id, BulkItemStatus.NOT_FOUND));
+
+        for (int from = 0; from < assetIds.size(); from += CHUNK_SIZE) {
+            List<String> chunk = assetIds.subList(from, Math.min(from + CHUNK_SIZE, assetIds.size()));
+            List<AssetRef> changes = new ArrayList<>();
+            for (AssetRef ref : assetRepository.findRefsByIdInAndOwnerId(chunk, userId)) {
+                if (needsChange.test(ref)) {
+                    changes.add(ref);
+                } else {
+                    statuses.put(ref.getId(), BulkItemStatus.SKIPPED);
+                }
+            }
+            if (changes.isEmpty()) {
+                continue;
+            }
+
+            action.accept(changes);
+            changes.forEach(ref -> statuses.put(ref.getId(), BulkItemStatus.SUCCESS));
+        }
+
+        List<BulkAssetResponse.Item> results = statuses.entrySet().stream()
+                .map(entry -> new BulkAssetResponse.Item(entry.getKey(), entry.getValue()))
+                .toList();
+        int succeeded = (int) results.stream().filter(item -> item.getStatus() == BulkItemStatus.SUCCESS).count();
+        log.info("Bulk asset operation by {}: {} requested, {} succeeded", userId, assetIds.size(), succeeded);
+        return BulkAssetResponse.builder()
+                .requested(assetIds.size())
+                .succeeded(succeeded)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Trừ các asset chưa nằm trong thùng rác khỏi thống kê collection gốc của chúng (một UPDATE mỗi collection)
+     */
+    private void decrementStats(List<AssetRef> refs) {
+        liveByCollection(refs).forEach((collectionId, assets) -> collectionRepository.decrementAssetStats(
+                collectionId, assets.size(), totalBytes(assets)));
+    }
+
+    /**
+     * Cộng các asset vào thống kê: vào collection đích nếu có, ngược lại vào collection của chính asset.
+     * Dùng cho restore (asset đang trong thùng rác) và move (chỉ tính asset chưa bị xóa).
+     */
+    private void incrementStats(List<AssetRef> refs, String targetCollectionId) {
+        Map<String, List<AssetRef>> byCollection = targetCollectionId == null
+                ? refs.stream().collect(Collectors.groupingBy(AssetRef::getCollectionId))
+                : Map.of(targetCollectionId, liveByCollection(refs).values().stream().flatMap(List::stream).toList());
+        byCollection.forEach((collectionId, assets) -> {
+            if (assets.isEmpty()) {
+                return;
+            }
+            LocalDateTime lastAssetAt = assets.stream()
+                    .map(AssetRef::getCreatedAt)
+                    .filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+            collectionRepository.incrementAssetStats(collectionId, assets.size(), totalBytes(assets), lastAssetAt);
+        });
+    }
+
+    private Map<String, List<AssetRef>> liveByCollection(List<AssetRef> refs) {
+        return refs.stream()
+                .filter(ref -> !Boolean.TRUE.equals(ref.getIsDeleted()))
+                .collect(Collectors.groupingBy(AssetRef::getCollectionId));
+    }
+
+    private long totalBytes(List<AssetRef> refs) {
+        return refs.stream().mapToLong(AssetRef::getFileSize).sum();
+    }
+
+    private List<String> ids(List<AssetRef> refs) {
+        return refs.stream().map(AssetRef::getId).toList();
+    }
+}
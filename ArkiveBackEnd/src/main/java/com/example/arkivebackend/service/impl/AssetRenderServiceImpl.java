@@ -0,0 +1,128 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.enums.RenderFit;
+import com.example.arkivebackend.enums.RenderFormat;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.AssetRenderService;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.util.ContentHashUtil;
+import com.example.arkivebackend.util.DiskVariantCache;
+import com.example.arkivebackend.util.ImageUtil;
+import com.example.arkivebackend.util.SecurityUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Render theo yêu cầu từ file gốc trên S3, kết quả giữ trong DiskVariantCache.
+ *
+ * Khoá cache gồm storage key của file gốc và tham số render: asset trùng nội dung (cùng blob) dùng chung biến thể,
+ * và file gốc không bao giờ bị ghi đè nên biến thể không cần invalidate.
+ * Số lần giải mã đồng thời bị chặn bởi app.render.parallelism để request render không ăn hết heap / CPU.
+ */
+@Slf4j
+@Service
+public class AssetRenderServiceImpl implements AssetRenderService {
+
+    private final AssetRepository assetRepository;
+    private final StorageService storageService;
+    private final DiskVariantCache variantCache;
+    private final int maxDimension;
+    private final float jpegQuality;
+    private final long maxSourcePixels;
+    private final Semaphore renderPermits;
+
+    public AssetRenderServiceImpl(AssetRepository assetRepository,
+                                  StorageService storageService,
+                                  DiskVariantCache variantCache,
+                                  @Value("${app.render.max-dimension:2048}") int maxDimension,
+                                  @Value("${app.render.parallelism:4}") int parallelism,
+                                  @Value("${app.render.jpeg-quality:0.82}") float jpegQuality,
+                                  @Value("${app.thumbnail.max-source-pixels:200000000}") long maxSourcePixels) {
+        this.assetRepository = assetRepository;
+        this.storageService = storageService;
+        this.variantCache = variantCache;
+        this.maxDimension = maxDimension;
+        this.jpegQuality = jpegQuality;
+        this.maxSourcePixels = maxSourcePixels;
+        this.renderPermits = new Semaphore(parallelism, true);
+    }
+
+    @Override
+    public RenderedImage render(String assetId, Integer width, Integer height, String fit, String format) {
+        if ((width == null && height == null) || invalidDimension(width) || invalidDimension(height)) {
+            throw new AppException(ErrorCode.INVALID_RENDER_REQUEST);
+        }
+        Asset asset = assetRepository.findByIdAndOwnerId(assetId, SecurityUtil.getCurrentUserId())
+                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
+        if (!ImageUtil.isSupported(asset.getFileType())) {
+            throw new AppException(ErrorCode.RENDER_NOT_SUPPORTED);
+        }
+
+        // Thiếu một cạnh thì cạnh đó không giới hạn (tới max-dimension); cover chỉ có nghĩa khi có đủ cả hai
+        int boxWidth = width != null ? width : maxDimension;
+        int boxHeight = height != null ? height : maxDimension;
+        boolean cover = width != null && height != null && RenderFit.fromString(fit) == RenderFit.COVER;
+        RenderFormat renderFormat = RenderFormat.fromString(format);
+        String storageKey = asset.getStorageKey();
+        String key = ContentHashUtil.sha256Hex(String.join("|", storageKey, boxWidth + "x" + boxHeight,
+                cover ? "cover" : "contain", renderFormat.name(), Float.toString(jpegQuality)));
+
+        try {
+            FileChannel content = variantCache.open(key,
+                    target -> renderTo(storageKey, boxWidth, boxHeight, cover, renderFormat, target));
+            return new RenderedImage(content, content.size(), renderFormat.getContentType(), "\"" + key + "\"");
+        } catch (IIOException e) {
+            log.info("Cannot render asset {}: {}", assetId, e.getMessage());
+            throw new AppException(ErrorCode.RENDER_NOT_SUPPORTED);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean invalidDimension(Integer value) {
+        return value != null && (value < 1 || value > maxDimension);
+    }
+
+    private void renderTo(String storageKey, int boxWidth, int boxHeight, boolean cover, RenderFormat format,
+                          Path target) throws IOException {
+        try {
+            renderPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a render slot", e);
+        }
+        Path source = Files.createTempFile("arkive-render-", null);
+        try {
+            // Chép file gốc ra đĩa rồi giải mã có subsampling (bộ nhớ theo kích thước đích, không theo file gốc)
+            try (InputStream input = storageService.openObject(storageKey)) {
+                Files.copy(input, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+            BufferedImage image = ImageUtil.readScaled(source, boxWidth, boxHeight, cover, maxSourcePixels);
+            BufferedImage output = cover
+                    ? ImageUtil.cover(image, boxWidth, boxHeight)
+                    : ImageUtil.fit(image, boxWidth, boxHeight);
+            try (OutputStream out = Files.newOutputStream(target)) {
+                ImageUtil.write(output, format.getContentType(), jpegQuality, out);
+            }
+        } finally {
+            Files.deleteIfExists(source);
+            renderPermits.release();
+        }
+    }
+}
@@ -1,34 +1,61 @@
 package com.example.arkivebackend.service.impl;
 
 import com.example.arkivebackend.dto.request.AssetUpdateRequest;
+import com.example.arkivebackend.dto.request.AssetUploadBatchRequest;
+import com.example.arkivebackend.dto.request.AssetUploadCompleteBatchRequest;
 import com.example.arkivebackend.dto.request.AssetUploadCompleteRequest;
 import com.example.arkivebackend.dto.request.AssetUploadRequest;
 import com.example.arkivebackend.dto.response.AssetResponse;
+import com.example.arkivebackend.dto.response.BatchPresignedUrlResponse;
+import com.example.arkivebackend.dto.response.CursorPageResponse;
 import com.example.arkivebackend.dto.response.PresignedUrlResponse;
+import com.example.arkivebackend.dto.response.ScrubStripResponse;
+import com.example.arkivebackend.dto.response.TagFacetResponse;
 import com.example.arkivebackend.entity.Asset;
 import com.example.arkivebackend.entity.Collection;
-import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.entity.StoredBlob;
 import com.example.arkivebackend.enums.AssetSortField;
 import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.enums.TagMatchMode;
+import com.example.arkivebackend.enums.ThumbnailStatus;
 import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.mapper.AssetResponseAssembler;
 import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.repository.AssetSearchRepository;
 import com.example.arkivebackend.repository.CollectionRepository;
-import com.example.arkivebackend.repository.UserRepository;
+import com.example.arkivebackend.repository.projection.AssetSummary;
 import com.example.arkivebackend.service.AssetService;
+import com.example.arkivebackend.service.ObjectDeletionService;
 import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.service.StoredBlobService;
+import com.example.arkivebackend.service.ThumbnailService;
+import com.example.arkivebackend.util.ContentHashUtil;
+import com.example.arkivebackend.util.CursorUtil;
+import com.example.arkivebackend.util.LikeUtil;
 import com.example.arkivebackend.util.SecurityUtil;
+import com.example.arkivebackend.util.TagUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -36,61 +63,168 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AssetServiceImpl implements AssetService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 200;
+
     StorageService storageService;
     AssetRepository assetRepository;
     CollectionRepository collectionRepository;
-    UserRepository userRepository;
+    ObjectDeletionService objectDeletionService;
+    StoredBlobService storedBlobService;
+    ThumbnailService thumbnailService;
+    AssetResponseAssembler assetResponseAssembler;
 
     @Override
     public PresignedUrlResponse requestUploadUrl(AssetUploadRequest request) {
+        // Instant upload: user đã có object cùng nội dung thì không cần upload lại
+        String contentHash = ContentHashUtil.normalize(request.getContentHash());
+        if (contentHash != null) {
+            String existingKey = storedBlobService.findExistingKeys(SecurityUtil.getCurrentUserId(), List.of(contentHash))
+                    .get(contentHash);
+            if (existingKey != null) {
+                return PresignedUrlResponse.alreadyUploaded(existingKey);
+            }
+        }
         return storageService.generatePresignedUploadUrl(
                 request.getFileName(),
-                request.getContentType()
+                request.getContentType(),
+                contentHash
         );
     }
 
     @Override
+    @Transactional
     public AssetResponse completeUpload(AssetUploadCompleteRequest request) {
-        // 1. Lấy User hiện tại
+        // 1. Lấy User hiện tại (userId có sẵn trong JWT, không cần truy vấn bảng users)
         String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
 
-        // 2. Kiểm tra Collection
+        // 2. Upload không kèm hash: HeadObject chạy song song với kiểm tra collection bên dưới
+        String contentHash = ContentHashUtil.normalize(request.getContentHash());
+        CompletableFuture<Map<String, StorageService.ObjectMetadata>> verification = contentHash == null
+                ? storageService.headObjects(List.of(request.getStorageKey()))
+                : CompletableFuture.completedFuture(Map.of());
+
+        // 3. Kiểm tra Collection
         Collection collection = collectionRepository.findById(request.getCollectionId())
                 .orElseThrow(() -> new AppException(ErrorCode.COLLECTION_NOT_FOUND));
 
-        // 3. Kiểm tra quyền sở hữu Collection
-        if (!collection.getOwner().getId().equals(user.getId())) {
+        // 4. Kiểm tra quyền sở hữu Collection
+        if (!collection.getOwner().getId().equals(userId)) {
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
 
-        // 4. Lưu Asset vào CSDL
+        // 5. Kích thước / content type / ETag thật từ storage; upload kèm hash thì lấy từ blob (xác minh checksum,
+        // tăng refCount, asset trỏ tới object chung). Không kèm hash: object phải chưa thuộc asset / blob nào
+        if (contentHash == null) {
+            storedBlobService.checkUnmanagedKeys(List.of(request.getStorageKey()));
+        }
+        VerifiedObject object = contentHash == null
+                ? VerifiedObject.of(request.getStorageKey(), verification.join().get(request.getStorageKey()))
+                : VerifiedObject.of(storedBlobService.acquire(userId,
+                        List.of(new StoredBlobService.BlobUpload(contentHash, request.getStorageKey()))).get(contentHash));
+
+        // 6. Lưu Asset vào CSDL
         Asset asset = Asset.builder()
                 .filename(request.getFileName())
-                .storageKey(request.getStorageKey())
-                .fileType(request.getContentType())
-                .fileSize(request.getFileSize())
+                .storageKey(object.storageKey())
+                .fileType(object.contentTypeOr(request.getContentType()))
+                .fileSize(object.size())
+                .etag(object.eTag())
                 .thumbnailUrl(request.getThumbnailUrl())
-                .tags(request.getTags())
+                .thumbnailKey(request.getThumbnailStorageKey())
+                .thumbnailStatus(thumbnailService.initialStatus(object.contentTypeOr(request.getContentType()),
+                        request.getThumbnailStorageKey() != null || request.getThumbnailUrl() != null))
+                .tags(TagUtil.normalize(request.getTags()))
                 .collection(collection)
+                .isDeleted(false)
                 .build();
-        Asset savedAsset = assetRepository.save(asset);
-
-        userRepository.save(user);
-
-        // 5. Trả về DTO
-        return AssetResponse.builder()
-                .id(savedAsset.getId())
-                .filename(savedAsset.getFilename())
-                .fileType(savedAsset.getFileType())
-                .fileSize(savedAsset.getFileSize())
-                .collectionId(savedAsset.getCollection().getId())
-                .thumbnailUrl(savedAsset.getThumbnailUrl())
-                .tags(savedAsset.getTags())
-                .createdAt(savedAsset.getCreatedAt())
-                .updatedAt(savedAsset.getUpdatedAt())
-                .build();
+        Asset savedAsset = assetRepository.saveAndFlush(asset); // flush để có createdAt
+
+        // 7. Cập nhật thống kê collection trong cùng transaction
+        collectionRepository.incrementAssetStats(collection.getId(), 1, savedAsset.getFileSize(), savedAsset.getCreatedAt());
+
+        // 8. Không có thumbnail từ client: server tạo sau khi commit (worker pool, không chặn request)
+        if (savedAsset.getThumbnailStatus() == ThumbnailStatus.PENDING) {
+            thumbnailService.submitAfterCommit(List.of(savedAsset.getId()));
+        }
+
+        // 9. Trả về DTO
+        return assetResponseAssembler.toResponse(savedAsset);
+    }
+
+    @Override
+    @Transactional
+    public List<AssetResponse> completeUploadBatch(AssetUploadCompleteBatchRequest request) {
+        long started = System.nanoTime();
+
+        // 1. HeadObject cho các file không kèm hash qua pipeline song song có giới hạn, chạy trong lúc kiểm tra quyền
+        CompletableFuture<Map<String, StorageService.ObjectMetadata>> verification = storageService.headObjects(
+                request.getItems().stream()
+                        .filter(item -> item.getContentHash() == null)
+                        .map(AssetUploadCompleteBatchRequest.Item::getStorageKey)
+                        .toList());
+
+        // 2. Kiểm tra quyền sở hữu Collection một lần cho cả lô (userId lấy từ JWT)
+        String userId = SecurityUtil.getCurrentUserId();
+        if (!collectionRepository.existsByIdAndOwnerId(request.getCollectionId(), userId)) {
+            throw new AppException(ErrorCode.COLLECTION_NOT_FOUND);
+        }
+        Collection collection = collectionRepository.getReferenceById(request.getCollectionId()); // Proxy, không SELECT
+
+        // 3. File upload kèm hash: xác minh / tăng refCount blob cho cả lô (lô không có hash không tốn thêm câu SQL)
+        Map<String, StoredBlob> blobs = storedBlobService.acquire(userId, request.getItems().stream()
+                .filter(item -> item.getContentHash() != null)
+                .map(item -> new StoredBlobService.BlobUpload(ContentHashUtil.normalize(item.getContentHash()), item.getStorageKey()))
+                .toList());
+        // File không kèm hash thành object riêng của asset: key không lặp trong lô, chưa thuộc asset / blob nào
+        // (kể cả blob vừa tạo ở trên, Hibernate flush trước câu truy vấn)
+        storedBlobService.checkUnmanagedKeys(request.getItems().stream()
+                .filter(item -> item.getContentHash() == null)
+                .map(AssetUploadCompleteBatchRequest.Item::getStorageKey)
+                .toList());
+        Map<String, StorageService.ObjectMetadata> objects = verification.join();
+
+        // 4. Lưu toàn bộ Asset: id sinh ở ứng dụng nên Hibernate gom INSERT theo hibernate.jdbc.batch_size
+        List<Asset> assets = request.getItems().stream()
+                .<Asset>map(item -> {
+                    VerifiedObject object = item.getContentHash() == null
+                            ? VerifiedObject.of(item.getStorageKey(), objects.get(item.getStorageKey()))
+                            : VerifiedObject.of(blobs.get(ContentHashUtil.normalize(item.getContentHash())));
+                    return Asset.builder()
+                            .filename(item.getFileName())
+                            .storageKey(object.storageKey())
+                            .fileType(object.contentTypeOr(item.getContentType()))
+                            .fileSize(object.size())
+                            .etag(object.eTag())
+                            .thumbnailUrl(item.getThumbnailUrl())
+                            .thumbnailKey(item.getThumbnailStorageKey())
+                            .thumbnailStatus(thumbnailService.initialStatus(object.contentTypeOr(item.getContentType()),
+                                    item.getThumbnailStorageKey() != null || item.getThumbnailUrl() != null))
+                            .tags(TagUtil.normalize(item.getTags()))
+                            .collection(collection)
+                            .isDeleted(false)
+                            .build();
+                })
+                .toList();
+        List<Asset> savedAssets = assetRepository.saveAll(assets);
+        assetRepository.flush(); // flush để có createdAt
+
+        // 5. Cập nhật thống kê collection bằng một câu UPDATE
+        long totalBytes = savedAssets.stream().mapToLong(Asset::getFileSize).sum();
+        LocalDateTime lastAssetAt = savedAssets.stream().map(Asset::getCreatedAt).max(Comparator.naturalOrder()).orElse(null);
+        collectionRepository.incrementAssetStats(collection.getId(), savedAssets.size(), totalBytes, lastAssetAt);
+
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        log.info("Registered {} assets in collection {} in {} ms ({} assets/s)", savedAssets.size(), collection.getId(),
+                Math.round(seconds * 1000), Math.round(savedAssets.size() / Math.max(seconds, 1e-9)));
+
+        // 6. Asset không kèm thumbnail vào hàng đợi tạo thumbnail sau khi commit
+        thumbnailService.submitAfterCommit(savedAssets.stream()
+                .filter(asset -> asset.getThumbnailStatus() == ThumbnailStatus.PENDING)
+                .map(Asset::getId)
+                .toList());
+
+        // 7. Trả về DTO
+        return assetResponseAssembler.toEntityResponses(savedAssets);
     }
 
     @Override
@@ -101,6 +235,27 @@ public class AssetServiceImpl implements AssetService {
         );
     }
 
+    @Override
+    public List<BatchPresignedUrlResponse> requestUploadUrls(AssetUploadBatchRequest request) {
+        List<BatchPresignedUrlResponse> responses = storageService.generatePresignedUploadUrls(request.getFiles());
+
+        // Instant upload: file user đã có object cùng nội dung thì trả key sẵn có thay vì URL upload
+        // (thumbnail vẫn ký URL mới vì mỗi asset có thumbnail riêng)
+        List<String> contentHashes = request.getFiles().stream()
+                .map(file -> ContentHashUtil.normalize(file.getContentHash()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<String, String> existingKeys = storedBlobService.findExistingKeys(SecurityUtil.getCurrentUserId(), contentHashes);
+        for (int i = 0; i < responses.size(); i++) {
+            String contentHash = ContentHashUtil.normalize(request.getFiles().get(i).getContentHash());
+            if (contentHash != null && existingKeys.containsKey(contentHash)) {
+                responses.get(i).setFile(PresignedUrlResponse.alreadyUploaded(existingKeys.get(contentHash)));
+            }
+        }
+        return responses;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<AssetResponse> getAssetsByCollectionId(String collectionId) {
@@ -115,73 +270,51 @@ public class AssetServiceImpl implements AssetService {
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
 
-        // 3. LẤY DANH SÁCH ASSET TỪ COLLECTION
-        List<Asset> assets = collection.getAssets().stream()
-                .sorted((a1, a2) -> a2.getCreatedAt().compareTo(a1.getCreatedAt()))
-                .toList();
-
-        // 4. CHUYỂN ĐỔI SANG DTO
-        return assets.stream()
-                .map(asset -> AssetResponse.builder()
-                        .id(asset.getId())
-                        .filename(asset.getFilename())
-                        .fileType(asset.getFileType())
-                        .fileSize(asset.getFileSize())
-                        .collectionId(asset.getCollection().getId())
-                        .thumbnailUrl(asset.getThumbnailUrl())
-                        .tags(asset.getTags())
-                        .createdAt(asset.getCreatedAt())
-                        .updatedAt(asset.getUpdatedAt())
-                        .build())
-                .collect(Collectors.toList());
+        // 3. LẤY DANH SÁCH ASSET (PROJECTION) VÀ CHUYỂN ĐỔI SANG DTO (kèm thumbnail đã ký)
+        return assetResponseAssembler.toResponses(assetRepository.findSummariesByCollectionId(collectionId));
     }
 
     @Override
+    @Transactional
     public void softDeleteAsset(String assetId) {
-        // 1. Lấy User hiện tại
-        String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
+        // 1. Tìm Asset thuộc user hiện tại (kiểm tra quyền sở hữu trong cùng câu SQL)
+        Asset asset = findOwnedAsset(assetId);
 
-        // 2. Tìm Asset
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
-
-        // 3. Kiểm tra quyền sở hữu
-        if (!asset.getCollection().getOwner().getId().equals(user.getId())) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
+        if (Boolean.TRUE.equals(asset.getIsDeleted())) {
+            return; // Đã nằm trong thùng rác, không trừ thống kê lần nữa
         }
 
-        // 5. Update isDeleted Asset khỏi CSDL
+        // 2. Update isDeleted Asset khỏi CSDL
         asset.setIsDeleted(true);
+        asset.setDeletedAt(LocalDateTime.now());
         assetRepository.save(asset);
+        collectionRepository.decrementAssetStats(asset.getCollection().getId(), 1, asset.getFileSize());
     }
 
     @Override
+    @Transactional
     public void hardDeleteAsset(String assetId) {
-        // 1. Lấy User hiện tại
-        String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-
-        // 2. Tìm Asset
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
-
-        // 3. Kiểm tra quyền sở hữu
-        if (!asset.getCollection().getOwner().getId().equals(user.getId())) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
+        // 1. Tìm Asset thuộc user hiện tại (kiểm tra quyền sở hữu trong cùng câu SQL)
+        Asset asset = findOwnedAsset(assetId);
+
+        // 2. Bỏ tham chiếu file gốc (object chung chỉ xoá khi hết asset dùng) + đưa thumbnail vào outbox
+        // trong cùng transaction, ObjectDeletionWorker xoá trên storage sau
+        storedBlobService.release(List.of(asset.getStorageKey()));
+        objectDeletionService.enqueue(StorageBucket.THUMBNAILS,
+                Stream.of(asset.getThumbnailKey(), asset.getPreviewKey(), asset.getScrubStripKey())
+                        .filter(Objects::nonNull)
+                        .toList());
+
+        // 3. Xoa Asset khỏi CSDL (asset trong thùng rác đã được trừ khỏi thống kê lúc xoá mềm)
+        assetRepository.delete(asset);
+        if (!Boolean.TRUE.equals(asset.getIsDeleted())) {
+            collectionRepository.decrementAssetStats(asset.getCollection().getId(), 1, asset.getFileSize());
         }
-
-        // 4. Xóa Asset khỏi Storage
-        storageService.deleteAsset(asset.getId());
-
-        // 5. Xoa Asset khỏi CSDL
-        assetRepository.deleteById(assetId);
     }
 
     @Override
-    public Page<AssetResponse> getAssetsPaginated(String collectionId, String keyword, String sortBy, String sortOrder, int page, int size) {
+    public Page<AssetResponse> getAssetsPaginated(String collectionId, String keyword, Set<String> tags, String tagMatch,
+                                                  String sortBy, String sortOrder, int page, int size) {
         // 1. Tạo đối tượng Sort (ví dụ: sắp xếp theo tên, A-Z)
         // sortBy = "filename", "createdAt", "fileSize", ...
         // sortOrder = "ASC" or "DESC"
@@ -195,77 +328,112 @@ public class AssetServiceImpl implements AssetService {
         // 2. Tạo đối tượng Pageable
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        // 3. Gọi repository
-        // Bạn không cần @Transactional ở đây vì bạn không truy cập collection.getAssets()
-        var asset = assetRepository.searchAssets(collectionId, keyword, pageable);
-        // 4. Chuyển đổi sang DTO
-        return asset.map(a -> AssetResponse.builder()
-                .id(a.getId())
-                .filename(a.getFilename())
-                .fileType(a.getFileType())
-                .fileSize(a.getFileSize())
-                .collectionId(a.getCollection().getId())
-                .thumbnailUrl(a.getThumbnailUrl())
-                .tags(a.getTags())
-                .createdAt(a.getCreatedAt())
-                .updatedAt(a.getUpdatedAt())
-                .build());
+        // 3. Gọi repository: projection, không hydrate entity nên không có lazy-load
+        var filter = new AssetSearchRepository.Filter(collectionId, keyword, TagUtil.normalize(tags), TagMatchMode.fromString(tagMatch));
+        var assets = assetRepository.searchSummaries(filter, pageable);
+        // 4. Chuyển đổi sang DTO, ký thumbnail của cả trang một lần
+        return assetResponseAssembler.toResponses(assets);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public AssetResponse getAssetById(String assetId) {
-        // 1. Lấy User hiện tại
-        String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-
-        // 2. Tìm Asset
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
-
-        // 3. Kiểm tra quyền sở hữu
-        if (!asset.getCollection().getOwner().getId().equals(user.getId())) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
+    public Page<AssetResponse> searchAssetsByRelevance(String collectionId, String query, int page, int size) {
+        // 1. Xếp hạng bằng pg_trgm (chỉ lấy id, dùng index GIN)
+        String trimmed = query.trim();
+        Page<String> rankedIds = assetRepository.searchIdsByRelevance(collectionId, trimmed,
+                LikeUtil.containsPattern(trimmed), PageRequest.of(page, size));
+        if (!rankedIds.hasContent()) {
+            return new PageImpl<>(List.of(), rankedIds.getPageable(), rankedIds.getTotalElements());
         }
 
-        // 4. Trả về DTO
-        return AssetResponse.builder()
-                .id(asset.getId())
-                .filename(asset.getFilename())
-                .fileType(asset.getFileType())
-                .fileSize(asset.getFileSize())
-                .collectionId(asset.getCollection().getId())
-                .thumbnailUrl(asset.getThumbnailUrl())
-                .tags(asset.getTags())
-                .createdAt(asset.getCreatedAt())
-                .updatedAt(asset.getUpdatedAt())
+        // 2. Lấy projection cho các id của trang và giữ nguyên thứ tự xếp hạng
+        // (asset bị xoá giữa hai câu truy vấn không có projection, bỏ qua)
+        Map<String, AssetSummary> summariesById = assetRepository.findSummariesByIdIn(rankedIds.getContent()).stream()
+                .collect(Collectors.toMap(AssetSummary::getId, Function.identity()));
+        List<AssetSummary> ranked = rankedIds.getContent().stream()
+                .map(summariesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(assetResponseAssembler.toResponses(ranked), rankedIds.getPageable(), rankedIds.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AssetResponse> getAssetsByCursor(String collectionId, String keyword,
+                                                              Set<String> tags, String tagMatch,
+                                                              String sortBy, String sortOrder, String cursor,
+                                                              int size, boolean includeTotal) {
+        // 1. Xác định trường và chiều sắp xếp (giống getAssetsPaginated)
+        Sort.Direction direction = "ASC".equalsIgnoreCase(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        AssetSortField sortFieldEnum = AssetSortField.fromString(sortBy);
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+
+        // 2. Giải mã cursor (rỗng = trang đầu tiên)
+        CursorUtil.Position after = (cursor == null || cursor.isBlank())
+                ? null
+                : CursorUtil.decode(cursor, sortFieldEnum, direction);
+
+        // 3. Lấy dư 1 bản ghi để biết còn trang sau hay không, không cần COUNT(*)
+        var filter = new AssetSearchRepository.Filter(collectionId, keyword, TagUtil.normalize(tags), TagMatchMode.fromString(tagMatch));
+        List<AssetSummary> rows = assetRepository.findSummariesAfter(
+                filter, sortFieldEnum, direction,
+                after != null ? after.value() : null,
+                after != null ? after.id() : null,
+                pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<AssetSummary> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+
+        // 4. Trả về trang kèm cursor của bản ghi cuối
+        return CursorPageResponse.<AssetResponse>builder()
+                .content(assetResponseAssembler.toResponses(pageRows))
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CursorUtil.encode(sortFieldEnum, direction, pageRows.get(pageRows.size() - 1)) : null)
+                .totalElements(includeTotal ? assetRepository.countSummaries(filter) : null)
                 .build();
     }
 
     @Override
-    @Transactional
-    public AssetResponse updateAsset(String assetId, AssetUpdateRequest request) {
-        // 1. Lấy User hiện tại
-        String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
+    @Transactional(readOnly = true)
+    public List<TagFacetResponse> getTagFacets(String collectionId) {
+        return assetRepository.countTagsByCollectionId(collectionId).stream()
+                .map(facet -> TagFacetResponse.builder()
+                        .tag(facet.getTag())
+                        .count(facet.getCount())
+                        .build())
+                .toList();
+    }
 
-        // 2. Tìm Asset
-        Asset asset = assetRepository.findById(assetId)
+    @Override
+    @Transactional(readOnly = true)
+    public AssetResponse getAssetById(String assetId) {
+        // 1. Đọc projection của asset thuộc user hiện tại (một câu SQL, không hydrate entity)
+        AssetSummary summary = assetRepository.findSummaryByIdAndOwnerId(assetId, SecurityUtil.getCurrentUserId())
                 .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
 
-        // 3. Kiểm tra quyền sở hữu
-        if (!asset.getCollection().getOwner().getId().equals(user.getId())) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
-        }
+        // 2. Trả về DTO
+        return assetResponseAssembler.toResponse(summary);
+    }
 
-        // 4. Cập nhật thông tin
+    @Override
+    @Transactional
+    public AssetResponse updateAsset(String assetId, AssetUpdateRequest request) {
+        // 1. Tìm Asset thuộc user hiện tại (kiểm tra quyền sở hữu trong cùng câu SQL)
+        Asset asset = findOwnedAsset(assetId);
+
+        // 2. Cập nhật thông tin
         if (request.getFilename() != null) {
             asset.setFilename(request.getFilename());
         }
         if (request.getTags() != null) {
-            asset.setTags(request.getTags());
+            asset.setTags(TagUtil.normalize(request.getTags())); // Ghi đè toàn bộ
+        }
+        if (request.getAddTags() != null || request.getRemoveTags() != null) {
+            // Sửa từng phần, không cần client gửi lại toàn bộ danh sách tag
+            Set<String> tags = TagUtil.normalize(asset.getTags());
+            tags.addAll(TagUtil.normalize(request.getAddTags()));
+            tags.removeAll(TagUtil.normalize(request.getRemoveTags()));
+            asset.setTags(tags);
         }
         if (request.getThumbnailUrl() != null) {
             asset.setThumbnailUrl(request.getThumbnailUrl());
@@ -273,110 +441,110 @@ public class AssetServiceImpl implements AssetService {
 
         Asset updatedAsset = assetRepository.save(asset);
 
-        // 5. Trả về DTO
-        return AssetResponse.builder()
-                .id(updatedAsset.getId())
-                .filename(updatedAsset.getFilename())
-                .fileType(updatedAsset.getFileType())
-                .fileSize(updatedAsset.getFileSize())
-                .collectionId(updatedAsset.getCollection().getId())
-                .thumbnailUrl(updatedAsset.getThumbnailUrl())
-                .tags(updatedAsset.getTags())
-                .createdAt(updatedAsset.getCreatedAt())
-                .updatedAt(updatedAsset.getUpdatedAt())
-                .build();
+        // 3. Trả về DTO
+        return assetResponseAssembler.toResponse(updatedAsset);
     }
 
     @Override
     @Transactional(readOnly = true)
     public PresignedUrlResponse getDownloadUrl(String assetId) {
-        // 1. Lấy User hiện tại
-        String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-
-        // 2. Tìm Asset
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
-
-        // 3. Kiểm tra quyền sở hữu
-        if (!asset.getCollection().getOwner().getId().equals(user.getId())) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
-        }
+        // 1. Tìm Asset thuộc user hiện tại (kiểm tra quyền sở hữu trong cùng câu SQL)
+        Asset asset = findOwnedAsset(assetId);
 
-        // 4. Tạo presigned download URL
+        // 2. Tạo presigned download URL
         return storageService.generatePresignedDownloadUrl(asset.getStorageKey(), asset.getFilename());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PresignedUrlResponse getPreviewUrl(String assetId) {
-        // 1. Lấy User hiện tại
-        String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
+        // 1. Tìm Asset thuộc user hiện tại (kiểm tra quyền sở hữu trong cùng câu SQL)
+        Asset asset = findOwnedAsset(assetId);
 
-        // 2. Tìm Asset
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
-
-        // 3. Kiểm tra quyền sở hữu
-        if (!asset.getCollection().getOwner().getId().equals(user.getId())) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
+        // 2. Ảnh đã có bản preview do server tạo: xem bản đó (nhẹ hơn nhiều so với file gốc, tải xuống vẫn là file gốc)
+        if (asset.getPreviewKey() != null) {
+            String url = storageService.generatePresignedThumbnailUrls(List.of(asset.getPreviewKey())).get(asset.getPreviewKey());
+            return new PresignedUrlResponse(url, asset.getPreviewKey());
         }
 
-        // 4. Tạo presigned download URL
+        // 3. Tạo presigned preview URL cho file gốc
         return storageService.generatePresignedPreviewUrl(asset.getStorageKey());
     }
 
     @Override
-    public List<AssetResponse> getDeletedAssets() {
-        // 1. Lấy User hiện tại
-        String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-        // 2. Lấy danh sách assets đã xóa của user
-        List<Asset> deletedAssets = assetRepository.findAll().stream()
-                .filter(asset -> asset.getIsDeleted() != null && asset.getIsDeleted())
-                .filter(asset -> asset.getCollection().getOwner().getId().equals(user.getId()))
-                .toList();
-        // 3. Chuyển đổi sang DTO
-        return deletedAssets.stream()
-                .map(asset -> AssetResponse.builder()
-                        .id(asset.getId())
-                        .filename(asset.getFilename())
-                        .fileType(asset.getFileType())
-                        .fileSize(asset.getFileSize())
-                        .collectionId(asset.getCollection().getId())
-                        .thumbnailUrl(asset.getThumbnailUrl())
-                        .tags(asset.getTags())
-                        .createdAt(asset.getCreatedAt())
-                        .updatedAt(asset.getUpdatedAt())
-                        .build())
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ScrubStripResponse getScrubStrip(String assetId) {
+        // 1. Tìm Asset thuộc user hiện tại (kiểm tra quyền sở hữu trong cùng câu SQL)
+        Asset asset = findOwnedAsset(assetId);
+        if (asset.getScrubStripKey() == null) {
+            throw new AppException(ErrorCode.SCRUB_STRIP_NOT_FOUND);
+        }
+
+        // 2. Ký URL trong thumbnail bucket (dùng chung cache với thumbnail)
+        String url = storageService.generatePresignedThumbnailUrls(List.of(asset.getScrubStripKey()))
+                .get(asset.getScrubStripKey());
+        return ScrubStripResponse.builder()
+                .url(url)
+                .frameCount(asset.getScrubFrameCount())
+                .build();
     }
 
     @Override
-    public void restoreAsset(String assetId) {
-        // 1. Lấy User hiện tại
+    @Transactional(readOnly = true)
+    public Page<AssetResponse> getDeletedAssets(int page, int size) {
+        // 1. Lấy User hiện tại (userId có sẵn trong JWT, không cần truy vấn bảng users)
         String userId = SecurityUtil.getCurrentUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
 
-        // 2. Tìm Asset
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
+        // 2. Lọc is_deleted và owner ngay trong SQL, mới xóa gần nhất trước (id để thứ tự ổn định giữa các trang)
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "deletedAt", "id"));
+        return assetResponseAssembler.toResponses(assetRepository.findDeletedSummariesByOwnerId(userId, pageable));
+    }
+
+    @Override
+    @Transactional
+    public void restoreAsset(String assetId) {
+        // 1. Tìm Asset thuộc user hiện tại (kiểm tra quyền sở hữu trong cùng câu SQL)
+        Asset asset = findOwnedAsset(assetId);
 
         if (asset.getIsDeleted() == null || !asset.getIsDeleted()) {
             throw new AppException(ErrorCode.ASSET_ALREADY_DELETED);
         }
 
-        // 3. Kiểm tra quyền sở hữu
-        if (!asset.getCollection().getOwner().getId().equals(user.getId())) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
-        }
-
-        // 4. Cập nhật isDeleted về false
+        // 2. Cập nhật isDeleted về false
         asset.setIsDeleted(false);
+        asset.setDeletedAt(null);
         assetRepository.save(asset);
+        collectionRepository.incrementAssetStats(asset.getCollection().getId(), 1, asset.getFileSize(), asset.getCreatedAt());
+    }
+
+    /**
+     * Lấy asset thuộc user hiện tại bằng một câu SQL (asset join collection, lọc theo owner_id từ JWT).
+     * Asset của người khác được xử lý như không tồn tại.
+     */
+    private Asset findOwnedAsset(String assetId) {
+        return assetRepository.findByIdAndOwnerId(assetId, SecurityUtil.getCurrentUserId())
+                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
+    }
+
+    /**
+     * Object đã xác minh trên storage mà asset sẽ trỏ tới: kích thước, ETag, content type là giá trị thật,
+     * không phải giá trị client khai báo.
+     */
+    private record VerifiedObject(String storageKey, long size, String eTag, String contentType) {
+
+        static VerifiedObject of(String storageKey, StorageService.ObjectMetadata metadata) {
+            if (metadata == null) {
+                throw new AppException(ErrorCode.UPLOADED_OBJECT_NOT_FOUND);
+            }
+            return new VerifiedObject(storageKey, metadata.size(), metadata.eTag(), metadata.contentType());
+        }
+
+        static VerifiedObject of(StoredBlob blob) {
+            return new VerifiedObject(blob.getStorageKey(), blob.getFileSize(), blob.getEtag(), blob.getContentType());
+        }
+
+        String contentTypeOr(String declared) {
+            return contentType == null || contentType.isBlank() ? declared : contentType;
+        }
     }
 }
@@ -40,7 +40,9 @@ public class CollectionServiceImpl implements CollectionService {
                         .ownerId(collection.getOwner().getId())
                         .createdAt(collection.getCreatedAt())
                         .updatedAt(collection.getUpdatedAt())
-                        .assetCount(collection.getAssets().size())
+                        .assetCount(collection.getAssetCount())
+                        .totalBytes(collection.getTotalBytes())
+                        .lastAssetAt(collection.getLastAssetAt())
                         .build())
                 .toList();
     }
@@ -65,6 +67,8 @@ public class CollectionServiceImpl implements CollectionService {
                 .name(savedCollection.getName())
                 .description(savedCollection.getDescription())
                 .ownerId(savedCollection.getOwner().getId())
+                .assetCount(0)
+                .totalBytes(0L)
                 .updatedAt(collection.getUpdatedAt())
                 .createdAt(collection.getCreatedAt())
                 .build();
@@ -80,7 +84,9 @@ public class CollectionServiceImpl implements CollectionService {
                 .name(collection.getName())
                 .description(collection.getDescription())
                 .ownerId(collection.getOwner().getId())
-                .assetCount(collection.getAssets().size())
+                .assetCount(collection.getAssetCount())
+                .totalBytes(collection.getTotalBytes())
+                .lastAssetAt(collection.getLastAssetAt())
                 .createdAt(collection.getCreatedAt())
                 .updatedAt(collection.getUpdatedAt())
                 .build();
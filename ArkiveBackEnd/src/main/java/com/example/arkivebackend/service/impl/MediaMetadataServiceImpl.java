@@ -0,0 +1,66 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.MediaMetadataService;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.util.MediaMetadataUtil;
+import com.example.arkivebackend.util.MediaMetadataUtil.MediaMetadata;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MediaMetadataServiceImpl implements MediaMetadataService {
+
+    private static final MediaMetadata NO_METADATA = new MediaMetadata(null, null, null, null, null, null);
+
+    AssetRepository assetRepository;
+    StorageService storageService;
+
+    // EXIF nằm trong 64 KB đầu của JPEG (giới hạn của segment APP1)
+    @NonFinal
+    @Value("${app.media-metadata.header-size:64KB}")
+    DataSize headerSize;
+
+    @Override
+    public int extractPendingChunk(int batchSize) {
+        List<Asset> pending = assetRepository.findMetadataPending(Limit.of(batchSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // 1. Ranged GET song song phần đầu của các file ảnh / video (asset trùng nội dung chỉ đọc một lần).
+        // Lỗi storage làm hỏng cả lô: asset giữ trạng thái chưa đọc và được thử lại ở lượt sau
+        List<String> mediaKeys = pending.stream()
+                .filter(asset -> MediaMetadataUtil.isSupported(asset.getFileType()))
+                .map(Asset::getStorageKey)
+                .toList();
+        Map<String, byte[]> heads = storageService.readObjectHeads(StorageBucket.ASSETS, mediaKeys,
+                (int) headerSize.toBytes()).join();
+
+        // 2. Ghi kết quả; file không hỗ trợ hoặc object đã mất vẫn được đánh dấu đã đọc để không lặp lại mãi
+        LocalDateTime now = LocalDateTime.now();
+        for (Asset asset : pending) {
+            byte[] head = MediaMetadataUtil.isSupported(asset.getFileType()) ? heads.get(asset.getStorageKey()) : null;
+            MediaMetadata metadata = head != null ? MediaMetadataUtil.parse(head) : NO_METADATA;
+            assetRepository.updateMediaMetadata(asset.getId(), metadata.takenAt(), metadata.width(), metadata.height(),
+                    metadata.orientation(), metadata.cameraMake(), metadata.cameraModel(), now);
+        }
+        return pending.size();
+    }
+}
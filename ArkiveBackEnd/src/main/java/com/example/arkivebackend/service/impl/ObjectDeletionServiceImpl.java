@@ -0,0 +1,124 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.entity.PendingObjectDeletion;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.repository.PendingObjectDeletionRepository;
+import com.example.arkivebackend.service.ObjectDeletionService;
+import com.example.arkivebackend.service.StorageService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ObjectDeletionServiceImpl implements ObjectDeletionService {
+
+    private static final int BATCH_SIZE = 1000; // Giới hạn của S3 DeleteObjects
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    PendingObjectDeletionRepository pendingObjectDeletionRepository;
+    StorageService storageService;
+
+    @NonFinal
+    @Value("${app.object-deletion.initial-backoff:PT30S}")
+    Duration initialBackoff;
+
+    @NonFinal
+    @Value("${app.object-deletion.max-backoff:PT1H}")
+    Duration maxBackoff;
+
+    @Override
+    @Transactional
+    public void enqueue(StorageBucket bucket, Collection<String> storageKeys) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingObjectDeletion> deletions = storageKeys.stream()
+                .filter(key -> key != null && !key.isBlank())
+                .distinct()
+                .<PendingObjectDeletion>map(key -> PendingObjectDeletion.builder()
+                        .bucket(bucket)
+                        .storageKey(key)
+                        .attempts(0)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList();
+        pendingObjectDeletionRepository.saveAll(deletions); // INSERT theo JDBC batch
+    }
+
+    @Override
+    @Transactional
+    public int processDueBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingObjectDeletion> due = pendingObjectDeletionRepository.claimDue(now, Limit.of(BATCH_SIZE));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<PendingObjectDeletion> done = new ArrayList<>();
+        Map<StorageBucket, List<PendingObjectDeletion>> byBucket = due.stream()
+                .collect(Collectors.groupingBy(PendingObjectDeletion::getBucket));
+        // Các bucket được xoá song song, chỉ chờ khi xử lý kết quả
+        Map<StorageBucket, CompletableFuture<Set<String>>> requests = new EnumMap<>(StorageBucket.class);
+        byBucket.forEach((bucket, deletions) -> requests.put(bucket,
+                storageService.deleteObjects(bucket, deletions.stream().map(PendingObjectDeletion::getStorageKey).toList())));
+        byBucket.forEach((bucket, deletions) -> {
+            Set<String> failedKeys;
+            String error;
+            try {
+                failedKeys = requests.get(bucket).join();
+                error = "DeleteObjects reported an error for this key";
+            } catch (CompletionException e) {
+                // S3 không phản hồi / lỗi mạng: cả lô thử lại sau
+                log.warn("DeleteObjects failed for {} {} keys: {}", deletions.size(), bucket, e.getCause().getMessage());
+                failedKeys = deletions.stream().map(PendingObjectDeletion::getStorageKey).collect(Collectors.toSet());
+                error = e.getCause().getMessage();
+            }
+
+            for (PendingObjectDeletion deletion : deletions) {
+                if (failedKeys.contains(deletion.getStorageKey())) {
+                    scheduleRetry(deletion, error, now);
+                } else {
+                    done.add(deletion);
+                }
+            }
+        });
+
+        pendingObjectDeletionRepository.deleteAllInBatch(done);
+        if (done.size() < due.size()) {
+            log.warn("Deleted {} of {} queued objects, {} rescheduled", done.size(), due.size(), due.size() - done.size());
+        }
+        return due.size();
+    }
+
+    // Backoff luỹ thừa: initial, 2x, 4x, ... tối đa maxBackoff; không bỏ cuộc để không sót object
+    private void scheduleRetry(PendingObjectDeletion deletion, String error, LocalDateTime now) {
+        int attempts = deletion.getAttempts() + 1;
+        long multiplier = 1L << Math.min(attempts - 1, 20);
+        Duration backoff = initialBackoff.multipliedBy(multiplier);
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        deletion.setAttempts(attempts);
+        deletion.setNextAttemptAt(now.plus(backoff));
+        deletion.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)));
+    }
+}
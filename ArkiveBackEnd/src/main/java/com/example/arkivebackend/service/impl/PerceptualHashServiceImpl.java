@@ -0,0 +1,83 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.enums.ThumbnailStatus;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.PerceptualHashService;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.util.ImageUtil;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash được tính từ thumbnail (vài chục KB) thay vì file gốc: không phải tải / giải mã ảnh lớn,
+ * và ảnh gốc đã được thu nhỏ sẵn đúng như dHash cần.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PerceptualHashServiceImpl implements PerceptualHashService {
+
+    AssetRepository assetRepository;
+    StorageService storageService;
+
+    // Thumbnail lớn hơn thì bị cắt (không giải mã được, hash = null)
+    @NonFinal
+    @Value("${app.similarity.max-thumbnail-size:2MB}")
+    DataSize maxThumbnailSize;
+
+    @Override
+    public int hashPendingChunk(int batchSize) {
+        List<Asset> pending = assetRepository.findPerceptualHashPending(Limit.of(batchSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // 1. Đọc song song thumbnail của lô; lỗi storage làm hỏng cả lô, thử lại ở lượt sau
+        List<String> thumbnailKeys = pending.stream()
+                .filter(PerceptualHashServiceImpl::hasThumbnail)
+                .map(Asset::getThumbnailKey)
+                .toList();
+        Map<String, byte[]> thumbnails = storageService.readObjectHeads(StorageBucket.THUMBNAILS, thumbnailKeys,
+                (int) maxThumbnailSize.toBytes()).join();
+
+        // 2. Không có thumbnail / không giải mã được: hash = null nhưng vẫn đánh dấu đã xử lý
+        LocalDateTime now = LocalDateTime.now();
+        for (Asset asset : pending) {
+            byte[] thumbnail = hasThumbnail(asset) ? thumbnails.get(asset.getThumbnailKey()) : null;
+            assetRepository.updatePerceptualHash(asset.getId(), thumbnail != null ? hash(asset.getId(), thumbnail) : null, now);
+        }
+        return pending.size();
+    }
+
+    private static boolean hasThumbnail(Asset asset) {
+        return asset.getThumbnailStatus() == ThumbnailStatus.READY && asset.getThumbnailKey() != null;
+    }
+
+    private static Long hash(String assetId, byte[] thumbnail) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail));
+            return image == null ? null : ImageUtil.differenceHash(image);
+        } catch (IOException | RuntimeException e) {
+            log.info("Cannot decode thumbnail of asset {}: {}", assetId, e.getMessage());
+            return null;
+        }
+    }
+}
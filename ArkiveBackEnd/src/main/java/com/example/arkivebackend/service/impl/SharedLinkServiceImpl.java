@@ -5,11 +5,12 @@ import com.example.arkivebackend.dto.request.ShareCollectionRequest;
 import com.example.arkivebackend.dto.response.AssetResponse;
 import com.example.arkivebackend.dto.response.SharedCollectionDetailResponse;
 import com.example.arkivebackend.dto.response.SharedLinkResponse;
-import com.example.arkivebackend.entity.Asset;
 import com.example.arkivebackend.entity.Collection;
 import com.example.arkivebackend.entity.SharedLink;
 import com.example.arkivebackend.enums.ErrorCode;
 import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.mapper.AssetResponseAssembler;
+import com.example.arkivebackend.repository.AssetRepository;
 import com.example.arkivebackend.repository.CollectionRepository;
 import com.example.arkivebackend.repository.SharedLinkRepository;
 import com.example.arkivebackend.service.SharedLinkService;
@@ -24,7 +25,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -34,6 +34,8 @@ public class SharedLinkServiceImpl implements SharedLinkService {
 
     SharedLinkRepository sharedLinkRepository;
     CollectionRepository collectionRepository;
+    AssetRepository assetRepository;
+    AssetResponseAssembler assetResponseAssembler;
     PasswordEncoder passwordEncoder;
 
     @Override
@@ -115,23 +117,13 @@ public class SharedLinkServiceImpl implements SharedLinkService {
             }
         }
 
-        // 3. Lấy thông tin collection và assets
+        // 3. Lấy thông tin collection và assets (projection, không hydrate entity)
         Collection collection = sharedLink.getCollection();
-        List<Asset> assets = collection.getAssets();
-
-        // 4. Convert sang DTO
-        List<AssetResponse> assetResponses = assets.stream()
-                .map(asset -> AssetResponse.builder()
-                        .id(asset.getId())
-                        .filename(asset.getFilename())
-                        .fileType(asset.getFileType())
-                        .fileSize(asset.getFileSize())
-                        .thumbnailUrl(asset.getThumbnailUrl())
-                        .tags(asset.getTags())
-                        .createdAt(asset.getCreatedAt())
-                        .updatedAt(asset.getUpdatedAt())
-                        .build())
-                .collect(Collectors.toList());
+
+        // 4. Convert sang DTO (thumbnail đã ký sẵn, người xem link không có quyền gọi /preview).
+        // Asset trong thùng rác không được lộ qua link công khai
+        List<AssetResponse> assetResponses = assetResponseAssembler.toResponses(
+                assetRepository.findActiveSummariesByCollectionId(collection.getId()));
 
         log.info("Shared link accessed: publicId={}, collectionId={}", request.getPublicId(), collection.getId());
 
@@ -139,7 +131,7 @@ public class SharedLinkServiceImpl implements SharedLinkService {
                 .collectionName(collection.getName())
                 .collectionDescription(collection.getDescription())
                 .ownerName(collection.getOwner().getFullName())
-                .assetCount(assets.size())
+                .assetCount(collection.getAssetCount()) // Cùng bộ đếm với buildSharedLinkResponse
                 .assets(assetResponses)
                 .build();
     }
@@ -223,7 +215,7 @@ public class SharedLinkServiceImpl implements SharedLinkService {
                 .collectionId(collection.getId())
                 .collectionName(collection.getName())
                 .collectionDescription(collection.getDescription())
-                .assetCount(collection.getAssets().size())
+                .assetCount(collection.getAssetCount()) // Bộ đếm phi chuẩn hoá, không tải danh sách asset
                 .createdAt(sharedLink.getCreatedAt())
                 .updatedAt(sharedLink.getUpdatedAt())
                 .shareUrl("/api/v1/shared/" + sharedLink.getPublicId())
@@ -0,0 +1,197 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.dto.response.AssetResponse;
+import com.example.arkivebackend.dto.response.SimilarAssetResponse;
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.mapper.AssetResponseAssembler;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.repository.projection.AssetHashRef;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import com.example.arkivebackend.service.SimilarAssetService;
+import com.example.arkivebackend.util.HammingBkTree;
+import com.example.arkivebackend.util.SecurityUtil;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Index trong bộ nhớ: ownerId -> HammingBkTree chứa (asset id, dHash), khoảng 37 byte mỗi asset.
+ *
+ * - Khởi động / app.similarity.rebuild-interval: dựng lại từ DB bằng stream 4 cột, bỏ asset đã xoá vĩnh viễn.
+ * - Sau mỗi lượt PerceptualHashJob: nạp thêm các hash mới theo vị trí (perceptualHashedAt, id), nên hash do instance
+ *   khác tính cũng vào được index của instance này. Cả lô của PerceptualHashJob ghi cùng một mốc thời gian nhưng commit
+ *   từng dòng, nên mỗi lượt đọc lại app.similarity.refresh-lookback phía sau vị trí đã nạp (id đã nạp thì bỏ qua).
+ * Asset trong thùng rác vẫn nằm trong index (để khôi phục là tìm thấy lại ngay), asset đã xoá vĩnh viễn nằm trong
+ * BK-tree tới lần dựng lại; kết quả được lọc lại ở DB.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SimilarAssetServiceImpl implements SimilarAssetService {
+
+    private static final int MAX_RESULTS = 100;
+    private static final int REFRESH_BATCH_SIZE = 1000;
+    // Vị trí trước mọi hash (PostgreSQL không nhận LocalDateTime.MIN)
+    private static final Watermark START = new Watermark(LocalDateTime.of(1970, 1, 1, 0, 0), "");
+
+    AssetRepository assetRepository;
+    AssetResponseAssembler assetResponseAssembler;
+
+    @NonFinal
+    @Value("${app.similarity.default-distance:8}")
+    int defaultDistance;
+
+    @NonFinal
+    @Value("${app.similarity.max-distance:16}")
+    int maxDistance;
+
+    // Lớn hơn thời gian xử lý một lô của PerceptualHashJob và độ lệch đồng hồ giữa các instance
+    @NonFinal
+    @Value("${app.similarity.refresh-lookback:PT5M}")
+    Duration refreshLookback;
+
+    // Thay nguyên map khi dựng lại: request đang tìm vẫn dùng index cũ cho tới khi xong
+    @NonFinal
+    volatile Map<String, HammingBkTree> trees = new ConcurrentHashMap<>();
+
+    // hashedAt lớn nhất đã nạp, chỉ đọc / ghi trong rebuild() / refresh() (synchronized)
+    @NonFinal
+    LocalDateTime loadedUntil = START.hashedAt();
+
+    // id đã nạp có hashedAt trong khoảng refreshLookback cuối, để đọc lại không thêm trùng vào BK-tree
+    @NonFinal
+    Map<String, LocalDateTime> recentIds = new HashMap<>();
+
+    // Vị trí đọc theo thứ tự (hashedAt, id) của DB
+    private record Watermark(LocalDateTime hashedAt, String id) {
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SimilarAssetResponse> findSimilar(String assetId, Integer distance, int limit) {
+        String userId = SecurityUtil.getCurrentUserId();
+        Asset asset = assetRepository.findByIdAndOwnerId(assetId, userId)
+                .orElseThrow(() -> new AppException(ErrorCode.ASSET_NOT_FOUND));
+        HammingBkTree tree = trees.get(userId);
+        if (asset.getPerceptualHash() == null || tree == null) {
+            return List.of(); // Chưa tính hash (asset mới upload) hoặc không có thumbnail
+        }
+
+        // 1. Tra BK-tree, gần nhất trước, bỏ chính asset này
+        int searchDistance = Math.max(0, Math.min(distance == null ? defaultDistance : distance, maxDistance));
+        List<HammingBkTree.Match> matches = tree.search(asset.getPerceptualHash(), searchDistance).stream()
+                .filter(match -> !match.id().toString().equals(assetId))
+                .distinct() // Một asset có thể được nạp hai lần (sau khi dựng lại)
+                .sorted(Comparator.comparingInt(HammingBkTree.Match::distance).thenComparing(HammingBkTree.Match::id))
+                .limit(Math.max(1, Math.min(limit, MAX_RESULTS)))
+                .toList();
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        // 2. Lấy projection của các asset còn tồn tại (index có thể còn asset đã xoá), giữ thứ tự theo khoảng cách
+        Map<String, AssetSummary> summaries = assetRepository.findActiveSummariesByIdIn(
+                        matches.stream().map(match -> match.id().toString()).toList()).stream()
+                .collect(Collectors.toMap(AssetSummary::getId, Function.identity()));
+        List<HammingBkTree.Match> found = matches.stream()
+                .filter(match -> summaries.containsKey(match.id().toString()))
+                .toList();
+        List<AssetResponse> responses = assetResponseAssembler.toResponses(
+                found.stream().map(match -> summaries.get(match.id().toString())).toList());
+        return IntStream.range(0, found.size())
+                .mapToObj(i -> SimilarAssetResponse.builder()
+                        .asset(responses.get(i))
+                        .distance(found.get(i).distance())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true) // Stream của Spring Data cần transaction mở
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Map<String, HammingBkTree> built = new ConcurrentHashMap<>();
+        Map<String, LocalDateTime> recent = new HashMap<>();
+        LocalDateTime recentFrom = LocalDateTime.now().minus(refreshLookback);
+        LocalDateTime lastHashedAt = START.hashedAt();
+        int count = 0;
+        try (Stream<AssetHashRef> hashes = assetRepository.streamPerceptualHashes()) {
+            for (AssetHashRef ref : (Iterable<AssetHashRef>) hashes::iterator) {
+                add(built, ref);
+                if (!ref.getPerceptualHashedAt().isBefore(recentFrom)) {
+                    recent.put(ref.getId(), ref.getPerceptualHashedAt());
+                }
+                if (ref.getPerceptualHashedAt().isAfter(lastHashedAt)) {
+                    lastHashedAt = ref.getPerceptualHashedAt();
+                }
+                count++;
+            }
+        }
+        trees = built;
+        recentIds = recent;
+        loadedUntil = lastHashedAt;
+        pruneRecentIds();
+        log.info("Built similarity index with {} hashes for {} users in {} ms", count, built.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public synchronized int refresh() {
+        // Đọc lại từ refreshLookback trước vị trí đã nạp: dòng cùng mốc thời gian commit muộn hơn vẫn được nạp
+        Watermark cursor = new Watermark(loadedUntil.minus(refreshLookback), "");
+        int count = 0;
+        List<AssetHashRef> batch;
+        do {
+            batch = assetRepository.findPerceptualHashesAfter(cursor.hashedAt(), cursor.id(),
+                    Limit.of(REFRESH_BATCH_SIZE));
+            for (AssetHashRef ref : batch) {
+                if (recentIds.putIfAbsent(ref.getId(), ref.getPerceptualHashedAt()) == null) {
+                    add(trees, ref);
+                    count++;
+                }
+            }
+            if (!batch.isEmpty()) {
+                AssetHashRef last = batch.get(batch.size() - 1);
+                cursor = new Watermark(last.getPerceptualHashedAt(), last.getId());
+            }
+        } while (batch.size() == REFRESH_BATCH_SIZE);
+        if (cursor.hashedAt().isAfter(loadedUntil)) {
+            loadedUntil = cursor.hashedAt();
+        }
+        pruneRecentIds();
+        return count;
+    }
+
+    // Bỏ id đã ra khỏi khoảng đọc lại, lần refresh sau không còn gặp chúng
+    private void pruneRecentIds() {
+        LocalDateTime from = loadedUntil.minus(refreshLookback);
+        recentIds.values().removeIf(hashedAt -> hashedAt.isBefore(from));
+    }
+
+    private static void add(Map<String, HammingBkTree> trees, AssetHashRef ref) {
+        trees.computeIfAbsent(ref.getOwnerId(), owner -> new HammingBkTree())
+                .add(UUID.fromString(ref.getId()), ref.getPerceptualHash());
+    }
+}
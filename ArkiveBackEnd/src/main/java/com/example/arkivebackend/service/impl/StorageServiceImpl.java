@@ -1,7 +1,18 @@
 package com.example.arkivebackend.service.impl;
 
+import com.example.arkivebackend.dto.request.AssetUploadBatchRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadCompleteRequest;
+import com.example.arkivebackend.dto.response.BatchPresignedUrlResponse;
+import com.example.arkivebackend.dto.response.MultipartUploadResponse;
+import com.example.arkivebackend.dto.response.PresignedPartUrlResponse;
+import com.example.arkivebackend.dto.response.UploadedPartResponse;
 import com.example.arkivebackend.dto.response.PresignedUrlResponse;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.exception.AppException;
 import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.util.ContentHashUtil;
+import com.example.arkivebackend.util.PresignedUrlCache;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -10,16 +21,57 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
 
+import java.io.InputStream;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -27,8 +79,21 @@ import java.util.UUID;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class StorageServiceImpl implements StorageService {
 
+    private static final int MAX_KEYS_PER_DELETE = 1000; // Giới hạn của S3 DeleteObjects
+    private static final int PARALLEL_SIGNING_THRESHOLD = 32; // Lô nhỏ ký tuần tự, tránh chi phí chia việc
+    private static final String THUMBNAIL_CONTENT_TYPE = "image/jpeg";
+    private static final Duration GET_URL_VALIDITY = Duration.ofMinutes(10);
+    private static final Duration VIEW_URL_VALIDITY = Duration.ofMinutes(30); // download / preview
+    private static final Duration THUMBNAIL_URL_VALIDITY = Duration.ofHours(1); // Dài hơn để trình duyệt cache ảnh lâu hơn
+    private static final Duration PART_URL_VALIDITY = Duration.ofHours(1); // Hết hạn thì client xin lại URL cho part còn thiếu
+    private static final long MIN_PART_SIZE = 16L * 1024 * 1024; // S3 yêu cầu >= 5 MB (trừ part cuối)
+    private static final int MAX_PARTS = 10_000; // Giới hạn số part của S3
+    private static final long PART_SIZE_ALIGNMENT = 1024 * 1024;
+
     S3Client s3Client;
+    S3AsyncClient s3AsyncClient;
     S3Presigner s3Presigner;
+    PresignedUrlCache presignedUrlCache;
     @Value("${app.s3.bucket-name}")
     @NonFinal
     String bucketName;
@@ -37,16 +102,52 @@ public class StorageServiceImpl implements StorageService {
     @NonFinal
     String thumbnailBucketName;
 
-    @Override
-    public PresignedUrlResponse generatePresignedUploadUrl(String fileName, String contentType) {
-        String storageKey = UUID.randomUUID().toString() + "-" + fileName;
+    @Value("${app.s3.async.head-concurrency:32}")
+    @NonFinal
+    int headConcurrency;
 
+    @Override
+    public PresignedUrlResponse generatePresignedUploadUrl(String fileName, String contentType, String contentHash) {
         log.info("Generating PresignedUrlResponse for fileName {}, {}", fileName, contentType);
+        return presignPut(bucketName, fileName, contentType, null, contentHash);
+    }
+
+    @Override
+    public PresignedUrlResponse generatePresignedThumbnailUrl(String fileName, String contentType) {
+        return presignPut(thumbnailBucketName, fileName, contentType, null, null);
+    }
+
+    @Override
+    public List<BatchPresignedUrlResponse> generatePresignedUploadUrls(List<AssetUploadBatchRequest.Item> files) {
+        // Ký URL chỉ tốn CPU (HMAC-SHA256), không gọi mạng: lô lớn chia cho các core, S3Presigner an toàn đa luồng
+        Stream<AssetUploadBatchRequest.Item> stream = files.size() >= PARALLEL_SIGNING_THRESHOLD
+                ? files.parallelStream()
+                : files.stream();
+        log.info("Generating {} presigned upload URL pairs", files.size());
+        return stream
+                .map(file -> BatchPresignedUrlResponse.builder()
+                        .fileName(file.getFileName())
+                        .file(presignPut(bucketName, file.getFileName(), file.getContentType(), file.getSize(), file.getContentHash()))
+                        .thumbnail(presignPut(thumbnailBucketName, thumbnailFileName(file.getFileName()), THUMBNAIL_CONTENT_TYPE, null, null))
+                        .build())
+                .toList(); // Giữ đúng thứ tự của request
+    }
+
+    /**
+     * Ký URL PUT cho một object mới. Nếu biết contentLength thì ký luôn vào URL:
+     * URL chỉ nhận đúng số byte đã khai báo. Có contentHash thì client phải gửi header x-amz-checksum-sha256
+     * (base64 của hash), S3 kiểm tra nội dung và lưu checksum để headObject() đối chiếu lúc complete.
+     */
+    private PresignedUrlResponse presignPut(String bucket, String fileName, String contentType, Long contentLength,
+                                            String contentHash) {
+        String storageKey = newStorageKey(fileName);
 
         PutObjectRequest objectRequest = PutObjectRequest.builder()
-                .bucket(bucketName)
+                .bucket(bucket)
                 .key(storageKey)
                 .contentType(contentType)
+                .contentLength(contentLength)
+                .checksumSHA256(contentHash == null ? null : ContentHashUtil.toS3Checksum(contentHash))
                 .build();
 
         PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
@@ -59,96 +160,406 @@ public class StorageServiceImpl implements StorageService {
         return new PresignedUrlResponse(url, storageKey);
     }
 
-    @Override
-    public PresignedUrlResponse generatePresignedThumbnailUrl(String fileName, String contentType) {
-        String storageKey = UUID.randomUUID().toString() + "-" + fileName;
+    private String newStorageKey(String fileName) {
+        return UUID.randomUUID().toString() + "-" + fileName;
+    }
 
-        PutObjectRequest objectRequest = PutObjectRequest.builder()
-                .bucket(thumbnailBucketName)
+    // Thumbnail do frontend tạo luôn là JPEG, cùng tên với file gốc
+    private String thumbnailFileName(String fileName) {
+        return fileName.replaceFirst("\\.[^.]+$", "") + ".jpg";
+    }
+
+    @Override
+    public MultipartUploadResponse createMultipartUpload(String fileName, String contentType, long fileSize) {
+        String storageKey = newStorageKey(fileName);
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
                 .key(storageKey)
                 .contentType(contentType)
-                .build();
+                .build()).uploadId();
 
-        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(10)) // URL hết hạn sau 10 phút
-                .putObjectRequest(objectRequest)
+        long partSize = partSizeFor(fileSize);
+        int partCount = (int) Math.max(1, (fileSize + partSize - 1) / partSize);
+        log.info("Created multipart upload {} for {} ({} bytes, {} parts of {} bytes)",
+                uploadId, storageKey, fileSize, partCount, partSize);
+        return MultipartUploadResponse.builder()
+                .uploadId(uploadId)
+                .storageKey(storageKey)
+                .partSize(partSize)
+                .partCount(partCount)
                 .build();
+    }
 
-        String url = s3Presigner.presignPutObject(presignRequest).url().toString();
+    /**
+     * Part nhỏ nhất 16 MB; file lớn hơn 160 GB thì tăng part (làm tròn lên MB) để không vượt 10000 part.
+     */
+    static long partSizeFor(long fileSize) {
+        long needed = (fileSize + MAX_PARTS - 1) / MAX_PARTS;
+        long aligned = (needed + PART_SIZE_ALIGNMENT - 1) / PART_SIZE_ALIGNMENT * PART_SIZE_ALIGNMENT;
+        return Math.max(MIN_PART_SIZE, aligned);
+    }
 
-        return new PresignedUrlResponse(url, storageKey);
+    @Override
+    public List<PresignedPartUrlResponse> generatePresignedPartUrls(String storageKey, String uploadId, List<Integer> partNumbers) {
+        // Cùng lý do với generatePresignedUploadUrls: chỉ tốn CPU, lô lớn ký song song
+        Stream<Integer> stream = partNumbers.size() >= PARALLEL_SIGNING_THRESHOLD
+                ? partNumbers.parallelStream()
+                : partNumbers.stream();
+        return stream
+                .map(partNumber -> new PresignedPartUrlResponse(partNumber, s3Presigner.presignUploadPart(
+                        UploadPartPresignRequest.builder()
+                                .signatureDuration(PART_URL_VALIDITY)
+                                .uploadPartRequest(UploadPartRequest.builder()
+                                        .bucket(bucketName)
+                                        .key(storageKey)
+                                        .uploadId(uploadId)
+                                        .partNumber(partNumber)
+                                        .build())
+                                .build()).url().toString()))
+                .toList();
     }
 
     @Override
-    public void deleteAsset(String storageKey) {
-        DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                .bucket(bucketName)
-                .key(storageKey)
-                .build();
-        s3Client.deleteObject(deleteRequest);
+    public void completeMultipartUpload(String storageKey, String uploadId, List<MultipartUploadCompleteRequest.Part> parts) {
+        // S3 yêu cầu part tăng dần, không trùng
+        List<CompletedPart> completedParts = parts.stream()
+                .sorted(Comparator.comparing(MultipartUploadCompleteRequest.Part::getPartNumber))
+                .map(part -> CompletedPart.builder().partNumber(part.getPartNumber()).eTag(part.getEtag()).build())
+                .toList();
+        if (completedParts.stream().map(CompletedPart::partNumber).distinct().count() != completedParts.size()) {
+            throw new AppException(ErrorCode.INVALID_MULTIPART_PARTS);
+        }
+
+        try {
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(storageKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        } catch (NoSuchUploadException e) {
+            throw new AppException(ErrorCode.MULTIPART_UPLOAD_NOT_FOUND);
+        } catch (S3Exception e) {
+            String code = e.awsErrorDetails() == null ? null : e.awsErrorDetails().errorCode();
+            if ("InvalidPart".equals(code) || "InvalidPartOrder".equals(code) || "EntityTooSmall".equals(code)) {
+                log.warn("Rejected parts for multipart upload {} of {}: {}", uploadId, storageKey, code);
+                throw new AppException(ErrorCode.INVALID_MULTIPART_PARTS);
+            }
+            throw e;
+        }
+        log.info("Completed multipart upload {} for {} ({} parts)", uploadId, storageKey, completedParts.size());
     }
 
     @Override
-    public String generatePresignedGetUrl(String storageKey) {
-        // 1. Tạo request để lấy object
-        GetObjectRequest getRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(storageKey)
-                .build();
+    public List<UploadedPartResponse> listUploadedParts(String storageKey, String uploadId) {
+        List<UploadedPartResponse> parts = new ArrayList<>();
+        Integer partNumberMarker = null;
+        ListPartsResponse page;
+        try {
+            do {
+                // Mỗi trang tối đa 1000 part
+                page = s3Client.listParts(ListPartsRequest.builder()
+                        .bucket(bucketName)
+                        .key(storageKey)
+                        .uploadId(uploadId)
+                        .partNumberMarker(partNumberMarker)
+                        .build());
+                page.parts().forEach(part -> parts.add(UploadedPartResponse.builder()
+                        .partNumber(part.partNumber())
+                        .etag(part.eTag())
+                        .size(part.size())
+                        .build()));
+                partNumberMarker = page.nextPartNumberMarker();
+            } while (Boolean.TRUE.equals(page.isTruncated()));
+        } catch (NoSuchUploadException e) {
+            throw new AppException(ErrorCode.MULTIPART_UPLOAD_NOT_FOUND);
+        }
+        parts.sort(Comparator.comparingInt(UploadedPartResponse::getPartNumber));
+        return parts;
+    }
 
-        // 2. Tạo yêu cầu Pre-sign cho GET
-        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(10)) // URL có hiệu lực 10 phút
-                .getObjectRequest(getRequest)
-                .build();
+    @Override
+    public CompletableFuture<Void> abortMultipartUpload(String storageKey, String uploadId) {
+        return s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(storageKey)
+                        .uploadId(uploadId)
+                        .build())
+                .handle((response, error) -> {
+                    if (error != null && !(unwrap(error) instanceof NoSuchUploadException)) {
+                        throw new CompletionException(unwrap(error));
+                    }
+                    if (error != null) {
+                        // Đã complete / abort trước đó: không còn gì để dọn
+                        log.debug("Multipart upload {} for {} no longer exists", uploadId, storageKey);
+                    }
+                    return null;
+                });
+    }
 
-        // 3. Lấy URL đã ký và trả về
-        return s3Presigner.presignGetObject(presignRequest).url().toString();
+    @Override
+    public int abortMultipartUploadsInitiatedBefore(Instant cutoff, Set<String> keepUploadIds) {
+        int aborted = 0;
+        String keyMarker = null;
+        String uploadIdMarker = null;
+        ListMultipartUploadsResponse page;
+        do {
+            page = s3Client.listMultipartUploads(ListMultipartUploadsRequest.builder()
+                    .bucket(bucketName)
+                    .keyMarker(keyMarker)
+                    .uploadIdMarker(uploadIdMarker)
+                    .build());
+            // Huỷ song song cả trang (tối đa 1000 upload) rồi mới sang trang kế
+            Map<MultipartUpload, CompletableFuture<Void>> aborts = new LinkedHashMap<>();
+            for (MultipartUpload upload : page.uploads()) {
+                if (upload.initiated() != null && upload.initiated().isBefore(cutoff)
+                        && !keepUploadIds.contains(upload.uploadId())) {
+                    aborts.put(upload, abortMultipartUpload(upload.key(), upload.uploadId()));
+                }
+            }
+            for (Map.Entry<MultipartUpload, CompletableFuture<Void>> abort : aborts.entrySet()) {
+                try {
+                    abort.getValue().join();
+                    aborted++;
+                } catch (CompletionException e) {
+                    // Lỗi một upload không chặn phần còn lại, lần chạy sau sẽ thử lại
+                    log.warn("Failed to abort multipart upload {} for {}: {}",
+                            abort.getKey().uploadId(), abort.getKey().key(), unwrap(e).getMessage());
+                }
+            }
+            keyMarker = page.nextKeyMarker();
+            uploadIdMarker = page.nextUploadIdMarker();
+        } while (Boolean.TRUE.equals(page.isTruncated()));
+        return aborted;
     }
 
     @Override
-    public PresignedUrlResponse generatePresignedDownloadUrl(String storageKey, String fileName) {
-        log.info("Generating presigned download URL for storageKey: {}, fileName: {}", storageKey, fileName);
+    public CompletableFuture<Set<String>> deleteObjects(StorageBucket bucket, Collection<String> storageKeys) {
+        String targetBucket = bucketName(bucket);
+        List<String> keys = List.copyOf(storageKeys);
+        // Mỗi lô 1000 key là một request, các lô chạy song song trên pool kết nối của client bất đồng bộ
+        List<CompletableFuture<List<String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<ObjectIdentifier> objects = keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, keys.size())).stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
+                    .bucket(targetBucket)
+                    .delete(Delete.builder().objects(objects).quiet(true).build()) // quiet: chỉ trả về key lỗi
+                    .build();
+            chunks.add(s3AsyncClient.deleteObjects(deleteRequest).thenApply(response -> response.errors().stream()
+                    .map(error -> {
+                        log.warn("Failed to delete object {}: {} {}", error.key(), error.code(), error.message());
+                        return error.key();
+                    })
+                    .toList()));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .thenApply(done -> chunks.stream()
+                        .flatMap(chunk -> chunk.join().stream())
+                        .collect(Collectors.toSet()));
+    }
 
-        // 1. Tạo request để lấy object với response-content-disposition để download
-        GetObjectRequest getRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(storageKey)
-                .responseContentDisposition("attachment; filename=\"" + fileName + "\"")
-                .build();
+    @Override
+    public void forEachObjectPage(StorageBucket bucket, Consumer<List<StoredObject>> pageConsumer) {
+        // Paginator lấy trang kế tiếp khi cần: bộ nhớ chỉ giữ một trang dù bucket có bao nhiêu object
+        s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucketName(bucket))
+                        .maxKeys(MAX_KEYS_PER_DELETE)
+                        .build())
+                .stream()
+                .forEach(page -> pageConsumer.accept(page.contents().stream()
+                        .map(object -> new StoredObject(object.key(), object.lastModified(), object.size()))
+                        .toList()));
+    }
 
-        // 2. Tạo yêu cầu Pre-sign cho GET
-        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(30)) // URL có hiệu lực 30 phút
-                .getObjectRequest(getRequest)
-                .build();
+    private String bucketName(StorageBucket bucket) {
+        return switch (bucket) {
+            case ASSETS -> bucketName;
+            case THUMBNAILS -> thumbnailBucketName;
+        };
+    }
 
-        // 3. Lấy URL đã ký và trả về
-        String url = s3Presigner.presignGetObject(presignRequest).url().toString();
+    @Override
+    public CompletableFuture<ObjectMetadata> headObject(String storageKey) {
+        return s3AsyncClient.headObject(HeadObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(storageKey)
+                        .checksumMode(ChecksumMode.ENABLED) // Mặc định S3 không trả checksum
+                        .build())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return new ObjectMetadata(response.contentLength(), response.eTag(), response.contentType(),
+                                response.checksumSHA256());
+                    }
+                    if (unwrap(error) instanceof NoSuchKeyException) {
+                        return null;
+                    }
+                    throw new CompletionException(unwrap(error));
+                });
+    }
 
+    @Override
+    public CompletableFuture<Map<String, ObjectMetadata>> headObjects(Collection<String> storageKeys) {
+        return forEachBounded(storageKeys, this::headObject);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> readObjectHead(StorageBucket bucket, String storageKey, int length) {
+        return s3AsyncClient.getObject(GetObjectRequest.builder()
+                                .bucket(bucketName(bucket))
+                                .key(storageKey)
+                                .range("bytes=0-" + (length - 1)) // Object ngắn hơn thì S3 trả cả object
+                                .build(),
+                        AsyncResponseTransformer.toBytes())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return response.asByteArray();
+                    }
+                    if (unwrap(error) instanceof NoSuchKeyException) {
+                        return null;
+                    }
+                    if (unwrap(error) instanceof S3Exception s3 && s3.statusCode() == 416) {
+                        return new byte[0]; // Object rỗng: range không thoả mãn được
+                    }
+                    throw new CompletionException(unwrap(error));
+                });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, byte[]>> readObjectHeads(StorageBucket bucket, Collection<String> storageKeys,
+                                                                  int length) {
+        return forEachBounded(storageKeys, key -> readObjectHead(bucket, key, length));
+    }
+
+    /**
+     * Gọi request cho từng key (bỏ trùng), tối đa app.s3.async.head-concurrency request cùng lúc: key -> kết quả,
+     * key có kết quả null không có trong map. Một request lỗi thì cả lô lỗi.
+     */
+    private <T> CompletableFuture<Map<String, T>> forEachBounded(Collection<String> storageKeys,
+                                                                 Function<String, CompletableFuture<T>> request) {
+        List<String> keys = List.copyOf(new LinkedHashSet<>(storageKeys));
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        // Cửa sổ trượt: mở headConcurrency request, mỗi request xong thì mở request kế tiếp.
+        // Lô 1000 file tốn ~ 1000 / headConcurrency round trip thay vì 1000, và không chiếm hết pool kết nối
+        Map<String, T> results = new ConcurrentHashMap<>();
+        CompletableFuture<Map<String, T>> done = new CompletableFuture<>();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(keys.size());
+        Runnable launchNext = new Runnable() {
+            @Override
+            public void run() {
+                int index = next.getAndIncrement();
+                if (index >= keys.size() || done.isDone()) {
+                    return;
+                }
+                String key = keys.get(index);
+                request.apply(key).whenComplete((result, error) -> {
+                    if (error != null) {
+                        done.completeExceptionally(unwrap(error));
+                        return;
+                    }
+                    if (result != null) {
+                        results.put(key, result);
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        done.complete(results);
+                    } else {
+                        run();
+                    }
+                });
+            }
+        };
+        for (int i = 0; i < Math.min(Math.max(headConcurrency, 1), keys.size()); i++) {
+            launchNext.run();
+        }
+        return done;
+    }
+
+    @Override
+    public InputStream openObject(String storageKey) {
+        try {
+            // Stream đọc thẳng từ kết nối HTTP, không nạp cả object vào bộ nhớ
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(storageKey)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            throw new AppException(ErrorCode.UPLOADED_OBJECT_NOT_FOUND);
+        }
+    }
+
+    @Override
+    public void putObject(StorageBucket bucket, String storageKey, byte[] content, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucketName(bucket))
+                        .key(storageKey)
+                        .contentType(contentType)
+                        .build(),
+                RequestBody.fromBytes(content));
+    }
+
+    // Lỗi của CompletableFuture bị bọc trong CompletionException
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    @Override
+    public String generatePresignedGetUrl(String storageKey) {
+        // URL có hiệu lực 10 phút, dùng lại từ cache cho tới gần hết hạn
+        return presignGet(bucketName, storageKey, null, GET_URL_VALIDITY);
+    }
+
+    @Override
+    public PresignedUrlResponse generatePresignedDownloadUrl(String storageKey, String fileName) {
+        // response-content-disposition = attachment để trình duyệt tải về với đúng tên file
+        String url = presignGet(bucketName, storageKey, "attachment; filename=\"" + fileName + "\"", VIEW_URL_VALIDITY);
         return new PresignedUrlResponse(url, storageKey);
     }
 
     @Override
     public PresignedUrlResponse generatePresignedPreviewUrl(String storageKey) {
-        log.info("Generating presigned preview URL for storageKey: {}", storageKey);
+        // response-content-disposition = inline để xem trước
+        String url = presignGet(bucketName, storageKey, "inline", VIEW_URL_VALIDITY);
+        return new PresignedUrlResponse(url, storageKey);
+    }
 
-        // 1. Tạo request để lấy object với response-content-disposition để preview
-        GetObjectRequest getRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(storageKey)
-                .responseContentDisposition("inline")
-                .build();
+    @Override
+    public Map<String, String> generatePresignedThumbnailUrls(Collection<String> thumbnailKeys) {
+        // Phần lớn là cache hit khi cuộn gallery; lô lớn lần đầu thì ký song song như generatePresignedUploadUrls
+        Stream<String> stream = thumbnailKeys.size() >= PARALLEL_SIGNING_THRESHOLD
+                ? thumbnailKeys.parallelStream()
+                : thumbnailKeys.stream();
+        return stream.distinct()
+                .collect(Collectors.toMap(Function.identity(),
+                        key -> presignGet(thumbnailBucketName, key, null, THUMBNAIL_URL_VALIDITY)));
+    }
 
-        // 2. Tạo yêu cầu Pre-sign cho GET
-        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(30)) // URL có hiệu lực 30 phút
-                .getObjectRequest(getRequest)
-                .build();
+    /**
+     * Ký URL GET qua PresignedUrlCache: cùng (bucket, key, disposition) nhận lại cùng URL
+     * cho tới trước khi hết hạn một khoảng safety-margin.
+     */
+    private String presignGet(String bucket, String storageKey, String disposition, Duration validity) {
+        return presignedUrlCache.get(bucket, storageKey, disposition, validity, () -> {
+            log.debug("Signing GET URL for bucket: {}, storageKey: {}, disposition: {}", bucket, storageKey, disposition);
 
-        // 3. Lấy URL đã ký và trả về
-        String url = s3Presigner.presignGetObject(presignRequest).url().toString();
+            // 1. Tạo request để lấy object
+            GetObjectRequest getRequest = GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(storageKey)
+                    .responseContentDisposition(disposition)
+                    .build();
 
-        return new PresignedUrlResponse(url, storageKey);
+            // 2. Tạo yêu cầu Pre-sign cho GET
+            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                    .signatureDuration(validity)
+                    .getObjectRequest(getRequest)
+                    .build();
+
+            // 3. Lấy URL đã ký và trả về
+            return s3Presigner.presignGetObject(presignRequest).url().toString();
+        });
     }
 }
@@ -0,0 +1,156 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.entity.StoredBlob;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.repository.PendingObjectDeletionRepository;
+import com.example.arkivebackend.repository.StoredBlobRepository;
+import com.example.arkivebackend.service.ObjectDeletionService;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.service.StoredBlobService;
+import com.example.arkivebackend.util.ContentHashUtil;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class StoredBlobServiceImpl implements StoredBlobService {
+
+    StoredBlobRepository storedBlobRepository;
+    AssetRepository assetRepository;
+    PendingObjectDeletionRepository pendingObjectDeletionRepository;
+    StorageService storageService;
+    ObjectDeletionService objectDeletionService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, String> findExistingKeys(String ownerId, Collection<String> contentHashes) {
+        if (contentHashes.isEmpty()) {
+            return Map.of();
+        }
+        return storedBlobRepository.findByOwnerIdAndContentHashIn(ownerId, contentHashes).stream()
+                .collect(Collectors.toMap(StoredBlob::getContentHash, StoredBlob::getStorageKey));
+    }
+
+    @Override
+    @Transactional
+    public Map<String, StoredBlob> acquire(String ownerId, Collection<BlobUpload> uploads) {
+        if (uploads.isEmpty()) {
+            return Map.of();
+        }
+
+        // 1. Gom theo hash (nhiều file cùng nội dung trong một lô dùng chung một blob), khoá các blob đã có
+        Map<String, List<BlobUpload>> byHash = uploads.stream()
+                .collect(Collectors.groupingBy(BlobUpload::contentHash, LinkedHashMap::new, Collectors.toList()));
+        Map<String, StoredBlob> blobs = storedBlobRepository.lockByOwnerIdAndContentHashIn(ownerId, byHash.keySet()).stream()
+                .collect(Collectors.toMap(StoredBlob::getContentHash, Function.identity(), (a, b) -> a, HashMap::new));
+
+        // 2. Hash chưa có blob: object vừa upload phải tồn tại, chưa thuộc asset nào / chưa chờ xoá và khớp checksum
+        Map<String, String> newKeys = new LinkedHashMap<>();
+        byHash.forEach((hash, group) -> {
+            if (!blobs.containsKey(hash)) {
+                newKeys.put(hash, group.get(0).storageKey());
+            }
+        });
+        if (!newKeys.isEmpty()) {
+            if (!assetRepository.findExistingStorageKeys(newKeys.values()).isEmpty()
+                    || !pendingObjectDeletionRepository.findQueuedKeys(StorageBucket.ASSETS, newKeys.values()).isEmpty()) {
+                throw new AppException(ErrorCode.CONTENT_HASH_MISMATCH);
+            }
+            // HeadObject cho các object mới qua pipeline song song có giới hạn của StorageService
+            Map<String, StorageService.ObjectMetadata> objects = storageService.headObjects(newKeys.values()).join();
+            LocalDateTime now = LocalDateTime.now();
+            newKeys.forEach((hash, storageKey) -> {
+                StorageService.ObjectMetadata metadata = objects.get(storageKey);
+                if (metadata == null || !ContentHashUtil.toS3Checksum(hash).equals(metadata.checksumSha256())) {
+                    log.warn("Rejected upload {}: object missing or checksum does not match content hash {}", storageKey, hash);
+                    throw new AppException(ErrorCode.CONTENT_HASH_MISMATCH);
+                }
+                storedBlobRepository.insertIfAbsent(UUID.randomUUID().toString(), ownerId, hash, storageKey,
+                        metadata.size(), metadata.eTag(), metadata.contentType(), now);
+            });
+
+            // Khoá lại: blob vừa tạo, hoặc blob upload đồng thời khác đã tạo trước (object vừa upload bị bỏ lại
+            // cho OrphanObjectReconcileJob như blob đã có ở bước 1)
+            storedBlobRepository.lockByOwnerIdAndContentHashIn(ownerId, newKeys.keySet())
+                    .forEach(blob -> blobs.put(blob.getContentHash(), blob));
+            if (!blobs.keySet().containsAll(newKeys.keySet())) { // Key đã thành object của blob khác
+                throw new AppException(ErrorCode.STORAGE_KEY_ALREADY_USED);
+            }
+        }
+
+        // 3. Tăng refCount (blob đã có là entity managed, Hibernate tự UPDATE khi flush)
+        byHash.forEach((hash, group) -> {
+            StoredBlob blob = blobs.get(hash);
+            blob.setRefCount(blob.getRefCount() + group.size());
+        });
+        return blobs;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void checkUnmanagedKeys(Collection<String> storageKeys) {
+        if (storageKeys.isEmpty()) {
+            return;
+        }
+        Set<String> keys = new HashSet<>(storageKeys);
+        if (keys.size() < storageKeys.size()
+                || !assetRepository.findExistingStorageKeys(keys).isEmpty()
+                || !storedBlobRepository.findExistingStorageKeys(keys).isEmpty()
+                || !pendingObjectDeletionRepository.findQueuedKeys(StorageBucket.ASSETS, keys).isEmpty()) {
+            log.warn("Rejected {} uploads: storage key repeated, already registered or queued for deletion", storageKeys.size());
+            throw new AppException(ErrorCode.STORAGE_KEY_ALREADY_USED);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void release(Collection<String> storageKeys) {
+        Map<String, Long> references = storageKeys.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        if (references.isEmpty()) {
+            return;
+        }
+
+        // Key không có blob: object riêng của asset, xoá luôn
+        Map<String, Long> unmanaged = new HashMap<>(references);
+        List<StoredBlob> emptied = new ArrayList<>();
+        for (StoredBlob blob : storedBlobRepository.lockByStorageKeyIn(references.keySet())) {
+            unmanaged.remove(blob.getStorageKey());
+            int remaining = blob.getRefCount() - references.get(blob.getStorageKey()).intValue();
+            if (remaining > 0) {
+                blob.setRefCount(remaining);
+            } else {
+                emptied.add(blob);
+            }
+        }
+        storedBlobRepository.deleteAll(emptied);
+
+        List<String> unreferenced = new ArrayList<>(unmanaged.keySet());
+        emptied.forEach(blob -> unreferenced.add(blob.getStorageKey()));
+        objectDeletionService.enqueue(StorageBucket.ASSETS, unreferenced);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.enums.ThumbnailStatus;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.ObjectDeletionService;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.service.ThumbnailService;
+import com.example.arkivebackend.service.VideoThumbnailService;
+import com.example.arkivebackend.util.ImageUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker pool tạo thumbnail: app.thumbnail.parallelism thread, hàng đợi giới hạn app.thumbnail.queue-capacity.
+ *
+ * Backpressure không chặn request: hàng đợi đầy thì asset chỉ nằm lại trạng thái PENDING trong DB,
+ * ThumbnailBackfillJob nạp tiếp đúng bằng số chỗ trống. Import 10k ảnh vì vậy chỉ giữ trong bộ nhớ tối đa
+ * queue-capacity id, và tối đa parallelism ảnh đang giải mã (mỗi ảnh bị chặn theo kích thước preview).
+ * Trạng thái nằm trong DB nên restart không mất việc; nhiều instance có thể render trùng một asset, kết quả giống nhau.
+ * Video được chuyển sang pool riêng của VideoThumbnailService (ffmpeg chạy lâu, không chiếm chỗ của ảnh).
+ *
+ * Metrics: arkive.thumbnail.render{outcome}, arkive.thumbnail.queue, arkive.thumbnail.active, arkive.thumbnail.deferred
+ */
+@Slf4j
+@Service
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private final AssetRepository assetRepository;
+    private final StorageService storageService;
+    private final ObjectDeletionService objectDeletionService;
+    private final VideoThumbnailService videoThumbnailService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int gridSize;
+    private final int previewSize;
+    private final float jpegQuality;
+    private final long maxSourcePixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet(); // Đang trong hàng đợi hoặc đang render
+    private final Counter deferred;
+
+    public ThumbnailServiceImpl(AssetRepository assetRepository,
+                                StorageService storageService,
+                                ObjectDeletionService objectDeletionService,
+                                VideoThumbnailService videoThumbnailService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.thumbnail.enabled:true}") boolean enabled,
+                                @Value("${app.thumbnail.parallelism:2}") int parallelism,
+                                @Value("${app.thumbnail.queue-capacity:100}") int queueCapacity,
+                                @Value("${app.thumbnail.grid-size:320}") int gridSize,
+                                @Value("${app.thumbnail.preview-size:1280}") int previewSize,
+                                @Value("${app.thumbnail.jpeg-quality:0.82}") float jpegQuality,
+                                @Value("${app.thumbnail.max-source-pixels:200000000}") long maxSourcePixels) {
+        this.assetRepository = assetRepository;
+        this.storageService = storageService;
+        this.objectDeletionService = objectDeletionService;
+        this.videoThumbnailService = videoThumbnailService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.gridSize = gridSize;
+        this.previewSize = previewSize;
+        this.jpegQuality = jpegQuality;
+        this.maxSourcePixels = maxSourcePixels;
+        // Số thread cố định, hàng đợi có giới hạn, đầy thì execute ném RejectedExecutionException (AbortPolicy)
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("thumbnail-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.deferred = Counter.builder("arkive.thumbnail.deferred")
+                .description("Asset không vào được hàng đợi (đầy), để ThumbnailBackfillJob nạp lại").register(meterRegistry);
+        meterRegistry.gauge("arkive.thumbnail.queue", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("arkive.thumbnail.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public ThumbnailStatus initialStatus(String contentType, boolean hasClientThumbnail) {
+        if (hasClientThumbnail) {
+            return ThumbnailStatus.READY;
+        }
+        return ImageUtil.isSupported(contentType) || videoThumbnailService.supports(contentType)
+                ? ThumbnailStatus.PENDING
+                : ThumbnailStatus.UNSUPPORTED;
+    }
+
+    @Override
+    public void submitAfterCommit(Collection<String> assetIds) {
+        if (!enabled || assetIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(assetIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(ids);
+            return;
+        }
+        // Worker đọc asset bằng transaction khác: chỉ nộp khi dữ liệu đã commit, rollback thì không nộp
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(ids);
+            }
+        });
+    }
+
+    @Override
+    public int submitPending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (!enabled || capacity == 0) {
+            return 0;
+        }
+        // Lấy dư đúng bằng số asset đang xử lý, để sau khi bỏ chúng vẫn đủ lấp chỗ trống
+        List<String> pending = assetRepository.findPendingThumbnailIds(Limit.of(capacity + inFlight.size()));
+        return submit(pending.stream().filter(id -> !inFlight.contains(id)).limit(capacity).toList());
+    }
+
+    private int submit(List<String> assetIds) {
+        for (int i = 0; i < assetIds.size(); i++) {
+            String assetId = assetIds.get(i);
+            if (!inFlight.add(assetId)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> generate(assetId));
+            } catch (RejectedExecutionException e) {
+                // Hàng đợi đầy (hoặc đang tắt): phần còn lại giữ PENDING, không chặn request upload
+                inFlight.remove(assetId);
+                deferred.increment(assetIds.size() - i);
+                return i;
+            }
+        }
+        return assetIds.size();
+    }
+
+    private void generate(String assetId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "retry";
+        try {
+            outcome = render(assetId);
+        } catch (Exception e) {
+            // Lỗi storage / mạng: giữ PENDING, ThumbnailBackfillJob thử lại ở lượt sau
+            log.warn("Thumbnail generation for asset {} failed, will retry: {}", assetId, e.getMessage());
+        } finally {
+            inFlight.remove(assetId);
+            sample.stop(meterRegistry.timer("arkive.thumbnail.render", "outcome", outcome));
+        }
+    }
+
+    private String render(String assetId) throws IOException {
+        Asset asset = assetRepository.findById(assetId).orElse(null);
+        if (asset == null || asset.getThumbnailStatus() != ThumbnailStatus.PENDING) {
+            return "skipped";
+        }
+        if (asset.getFileType() != null && asset.getFileType().startsWith("video/")) {
+            // Hàng đợi video đầy hoặc instance này không có ffmpeg: giữ PENDING, ThumbnailBackfillJob nạp lại
+            return videoThumbnailService.submit(assetId) ? "video" : "deferred";
+        }
+
+        BufferedImage preview;
+        BufferedImage thumbnail;
+        Path source = Files.createTempFile("arkive-thumbnail-", null);
+        try {
+            // 1. Chép file gốc ra đĩa rồi mới giải mã: trả kết nối S3 ngay, và lỗi mạng (thử lại)
+            // tách biệt với file hỏng (không thử lại)
+            try (InputStream input = storageService.openObject(asset.getStorageKey())) {
+                Files.copy(input, source, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AppException e) {
+                return markFailed(assetId, "object not found in storage");
+            }
+
+            // 2. Giải mã có subsampling, preview thu từ ảnh gốc, thumbnail thu tiếp từ preview (rẻ hơn)
+            try {
+                preview = ImageUtil.fit(ImageUtil.readScaled(source, previewSize, maxSourcePixels), previewSize);
+                thumbnail = ImageUtil.fit(preview, gridSize);
+            } catch (IOException e) {
+                return markFailed(assetId, e.getMessage());
+            }
+        } finally {
+            Files.deleteIfExists(source);
+        }
+
+        // 3. Ghi vào thumbnail bucket, key theo asset id (asset trùng nội dung vẫn có thumbnail riêng, xoá độc lập)
+        String thumbnailKey = assetId + "/thumbnail-" + gridSize + ".jpg";
+        String previewKey = assetId + "/preview-" + previewSize + ".jpg";
+        storageService.putObject(StorageBucket.THUMBNAILS, thumbnailKey, ImageUtil.toJpeg(thumbnail, jpegQuality),
+                ImageUtil.JPEG_CONTENT_TYPE);
+        storageService.putObject(StorageBucket.THUMBNAILS, previewKey, ImageUtil.toJpeg(preview, jpegQuality),
+                ImageUtil.JPEG_CONTENT_TYPE);
+
+        // 4. Cập nhật asset nếu vẫn PENDING; asset đã bị xoá trong lúc render thì dọn object vừa ghi
+        if (assetRepository.completePendingThumbnail(assetId, thumbnailKey, previewKey, ThumbnailStatus.READY) == 0) {
+            objectDeletionService.enqueue(StorageBucket.THUMBNAILS, List.of(thumbnailKey, previewKey));
+            return "skipped";
+        }
+        return "ready";
+    }
+
+    private String markFailed(String assetId, String reason) {
+        log.info("Cannot generate thumbnail for asset {}: {}", assetId, reason);
+        assetRepository.completePendingThumbnail(assetId, null, null, ThumbnailStatus.FAILED);
+        return "failed";
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Việc còn trong hàng đợi bị bỏ, asset vẫn PENDING và được nạp lại khi khởi động
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.repository.projection.AssetRef;
+import com.example.arkivebackend.service.ObjectDeletionService;
+import com.example.arkivebackend.service.StoredBlobService;
+import com.example.arkivebackend.service.TrashPurgeService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TrashPurgeServiceImpl implements TrashPurgeService {
+
+    AssetRepository assetRepository;
+    ObjectDeletionService objectDeletionService;
+    StoredBlobService storedBlobService;
+
+    @Override
+    @Transactional
+    public int purgeExpiredChunk(LocalDateTime cutoff, int limit) {
+        // 1. Khoá một lô (SKIP LOCKED): nhiều instance chạy song song không nhận trùng dòng
+        List<AssetRef> refs = assetRepository.claimExpiredTrash(cutoff, Limit.of(limit));
+        if (refs.isEmpty()) {
+            return 0;
+        }
+
+        // 2. Bỏ tham chiếu file gốc (object chung chỉ xoá khi hết asset dùng), thumbnail vào outbox cùng transaction;
+        // ObjectDeletionWorker xoá bằng DeleteObjects theo lô
+        storedBlobService.release(refs.stream().map(AssetRef::getStorageKey).toList());
+        objectDeletionService.enqueue(StorageBucket.THUMBNAILS, refs.stream()
+                .flatMap(ref -> Stream.of(ref.getThumbnailKey(), ref.getPreviewKey(), ref.getScrubStripKey()))
+                .toList());
+
+        // 3. Xoá bản ghi bằng một câu DELETE; asset trong thùng rác đã bị trừ khỏi thống kê collection lúc xoá mềm
+        return assetRepository.deleteAllByIdIn(refs.stream().map(AssetRef::getId).toList());
+    }
+}
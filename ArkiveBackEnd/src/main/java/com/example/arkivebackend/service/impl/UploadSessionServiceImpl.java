@@ -0,0 +1,190 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.dto.request.MultipartUploadCompleteRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadCreateRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadPartsRequest;
+import com.example.arkivebackend.dto.response.PresignedPartUrlResponse;
+import com.example.arkivebackend.dto.response.UploadSessionResponse;
+import com.example.arkivebackend.dto.response.UploadedPartResponse;
+import com.example.arkivebackend.entity.UploadSession;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.UploadSessionRepository;
+import com.example.arkivebackend.repository.UserRepository;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.service.UploadSessionService;
+import com.example.arkivebackend.util.SecurityUtil;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    UploadSessionRepository uploadSessionRepository;
+    UserRepository userRepository;
+    StorageService storageService;
+
+    // Hạn của session, tính lại mỗi lần client hoạt động (xin URL part / resume)
+    @NonFinal
+    @Value("${app.s3.multipart.max-age:P1D}")
+    Duration maxAge;
+
+    @Override
+    @Transactional
+    public UploadSessionResponse createSession(MultipartUploadCreateRequest request) {
+        String userId = SecurityUtil.getCurrentUserId();
+
+        var upload = storageService.createMultipartUpload(request.getFileName(), request.getContentType(), request.getFileSize());
+        UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                .uploadId(upload.getUploadId())
+                .storageKey(upload.getStorageKey())
+                .fileName(request.getFileName())
+                .contentType(request.getContentType())
+                .fileSize(request.getFileSize())
+                .partSize(upload.getPartSize())
+                .partCount(upload.getPartCount())
+                .completedParts(new HashMap<>())
+                .expiresAt(LocalDateTime.now().plus(maxAge))
+                .owner(userRepository.getReferenceById(userId))
+                .build());
+
+        return toResponse(session, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UploadSessionResponse> getActiveSessions() {
+        String userId = SecurityUtil.getCurrentUserId();
+        return uploadSessionRepository.findByOwnerIdAndExpiresAtAfterOrderByCreatedAtDesc(userId, LocalDateTime.now()).stream()
+                .map(session -> toResponse(session, null))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public UploadSessionResponse resumeSession(String sessionId) {
+        UploadSession session = findOwnedSession(sessionId);
+
+        // 1. Nguồn sự thật là S3: part có trong ListParts và đúng kích thước mới tính là xong
+        List<UploadedPartResponse> uploadedParts = storageService.listUploadedParts(session.getStorageKey(), session.getUploadId()).stream()
+                .filter(part -> part.getPartNumber() <= session.getPartCount()
+                        && part.getSize() == expectedPartSize(session, part.getPartNumber()))
+                .toList();
+
+        // 2. Lưu lại ETag để lần complete sau không cần client gửi lại
+        session.setCompletedParts(uploadedParts.stream()
+                .collect(Collectors.toMap(UploadedPartResponse::getPartNumber, UploadedPartResponse::getEtag)));
+        session.setExpiresAt(LocalDateTime.now().plus(maxAge));
+
+        log.info("Resuming upload session {}: {}/{} parts already uploaded",
+                sessionId, uploadedParts.size(), session.getPartCount());
+        return toResponse(session, uploadedParts);
+    }
+
+    @Override
+    @Transactional
+    public List<PresignedPartUrlResponse> requestPartUploadUrls(String sessionId, MultipartUploadPartsRequest request) {
+        UploadSession session = findOwnedSession(sessionId);
+        List<Integer> partNumbers = request.getPartNumbers().stream().distinct().toList();
+        if (partNumbers.stream().anyMatch(partNumber -> partNumber > session.getPartCount())) {
+            throw new AppException(ErrorCode.INVALID_MULTIPART_PARTS);
+        }
+
+        session.setExpiresAt(LocalDateTime.now().plus(maxAge));
+        return storageService.generatePresignedPartUrls(session.getStorageKey(), session.getUploadId(), partNumbers);
+    }
+
+    @Override
+    @Transactional
+    public void completeSession(String sessionId, MultipartUploadCompleteRequest request) {
+        UploadSession session = findOwnedSession(sessionId);
+
+        // 1. Client không gửi parts (ví dụ đã resume ở tab khác): lấy danh sách từ S3
+        List<MultipartUploadCompleteRequest.Part> parts = request == null || request.getParts() == null || request.getParts().isEmpty()
+                ? storageService.listUploadedParts(session.getStorageKey(), session.getUploadId()).stream()
+                        .map(part -> MultipartUploadCompleteRequest.Part.builder()
+                                .partNumber(part.getPartNumber())
+                                .etag(part.getEtag())
+                                .build())
+                        .toList()
+                : request.getParts();
+
+        // 2. Phải đủ đúng các part 1..partCount, thiếu part thì S3 vẫn ghép được nhưng file bị cụt
+        Map<Integer, Long> partsByNumber = parts.stream()
+                .collect(Collectors.groupingBy(MultipartUploadCompleteRequest.Part::getPartNumber, Collectors.counting()));
+        boolean complete = partsByNumber.size() == session.getPartCount()
+                && partsByNumber.values().stream().allMatch(count -> count == 1)
+                && IntStream.rangeClosed(1, session.getPartCount()).allMatch(partsByNumber::containsKey);
+        if (!complete) {
+            throw new AppException(ErrorCode.INVALID_MULTIPART_PARTS);
+        }
+
+        // 3. Ghép rồi xoá session, object đã nằm ở storageKey
+        storageService.completeMultipartUpload(session.getStorageKey(), session.getUploadId(), parts);
+        uploadSessionRepository.delete(session);
+    }
+
+    @Override
+    @Transactional
+    public void abortSession(String sessionId) {
+        UploadSession session = findOwnedSession(sessionId);
+        storageService.abortMultipartUpload(session.getStorageKey(), session.getUploadId()).join();
+        uploadSessionRepository.delete(session);
+        log.info("Aborted upload session {} ({})", sessionId, session.getStorageKey());
+    }
+
+    // ==================== Helper Methods ====================
+
+    private UploadSession findOwnedSession(String sessionId) {
+        String userId = SecurityUtil.getCurrentUserId();
+        UploadSession session = uploadSessionRepository.findByIdAndOwnerId(sessionId, userId)
+                .orElseThrow(() -> new AppException(ErrorCode.MULTIPART_UPLOAD_NOT_FOUND));
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            // Job có thể chưa kịp dọn: coi như đã huỷ
+            throw new AppException(ErrorCode.MULTIPART_UPLOAD_NOT_FOUND);
+        }
+        return session;
+    }
+
+    // Mọi part bằng partSize, riêng part cuối nhận phần còn lại
+    private long expectedPartSize(UploadSession session, int partNumber) {
+        return partNumber < session.getPartCount()
+                ? session.getPartSize()
+                : session.getFileSize() - session.getPartSize() * (session.getPartCount() - 1);
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<UploadedPartResponse> uploadedParts) {
+        return UploadSessionResponse.builder()
+                .sessionId(session.getId())
+                .storageKey(session.getStorageKey())
+                .fileName(session.getFileName())
+                .contentType(session.getContentType())
+                .fileSize(session.getFileSize())
+                .partSize(session.getPartSize())
+                .partCount(session.getPartCount())
+                .expiresAt(session.getExpiresAt())
+                .uploadedParts(uploadedParts)
+                .missingPartNumbers(uploadedParts == null ? null : IntStream.rangeClosed(1, session.getPartCount())
+                        .filter(partNumber -> !session.getCompletedParts().containsKey(partNumber))
+                        .boxed()
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.enums.ThumbnailStatus;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.ObjectDeletionService;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.service.VideoThumbnailService;
+import com.example.arkivebackend.util.ImageUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Worker pool riêng cho video: app.thumbnail.video.parallelism tiến trình ffmpeg cùng lúc, hàng đợi giới hạn
+ * app.thumbnail.video.queue-capacity, tách khỏi pool của ảnh và thread API. Mỗi video có tổng thời gian
+ * app.thumbnail.video.timeout cho mọi lần gọi ffmpeg, quá hạn thì kill tiến trình.
+ *
+ * - Poster: một khung ở giây poster-offset (video ngắn hơn thì khung đầu), lưu làm thumbnailKey.
+ * - Dải scrub: scrub-frames khung rải đều theo thời lượng, cao scrub-frame-height px, ghép ngang thành một JPEG
+ *   chất lượng thấp (scrubStripKey). Không lấy được thì video vẫn READY với poster.
+ * ffmpeg đọc file gốc qua URL đã ký, -ss trước -i nên chỉ tải các đoạn quanh khung cần lấy (HTTP range),
+ * mọi khung của dải scrub lấy trong một tiến trình. Chỉ cho phép giao thức HTTP(S): file video chứa playlist
+ * trỏ tới file:// trên máy chủ sẽ không đọc được.
+ *
+ * Metrics: arkive.thumbnail.video.render{outcome}, arkive.thumbnail.video.queue, arkive.thumbnail.video.active
+ */
+@Slf4j
+@Service
+public class VideoThumbnailServiceImpl implements VideoThumbnailService {
+
+    private static final Pattern DURATION = Pattern.compile("Duration: (\\d+):(\\d{2}):(\\d{2}(?:\\.\\d+)?)");
+    private static final String PROTOCOLS = "http,https,tcp,tls";
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final AssetRepository assetRepository;
+    private final StorageService storageService;
+    private final ObjectDeletionService objectDeletionService;
+    private final MeterRegistry meterRegistry;
+    private final String ffmpegPath;
+    private final boolean available;
+    private final Duration timeout;
+    private final double posterOffset;
+    private final int scrubFrames;
+    private final int scrubFrameHeight;
+    private final float jpegQuality;
+    private final int gridSize;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet(); // Đang trong hàng đợi hoặc đang render
+
+    public VideoThumbnailServiceImpl(AssetRepository assetRepository,
+                                     StorageService storageService,
+                                     ObjectDeletionService objectDeletionService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.thumbnail.video.enabled:true}") boolean enabled,
+                                     @Value("${app.thumbnail.video.ffmpeg-path:ffmpeg}") String ffmpegPath,
+                                     @Value("${app.thumbnail.video.parallelism:1}") int parallelism,
+                                     @Value("${app.thumbnail.video.queue-capacity:20}") int queueCapacity,
+                                     @Value("${app.thumbnail.video.timeout:PT2M}") Duration timeout,
+                                     @Value("${app.thumbnail.video.poster-offset:PT1S}") Duration posterOffset,
+                                     @Value("${app.thumbnail.video.scrub-frames:10}") int scrubFrames,
+                                     @Value("${app.thumbnail.video.scrub-frame-height:90}") int scrubFrameHeight,
+                                     @Value("${app.thumbnail.video.jpeg-quality:0.7}") float jpegQuality,
+                                     @Value("${app.thumbnail.grid-size:320}") int gridSize) {
+        this.assetRepository = assetRepository;
+        this.storageService = storageService;
+        this.objectDeletionService = objectDeletionService;
+        this.meterRegistry = meterRegistry;
+        this.ffmpegPath = ffmpegPath;
+        this.available = enabled && probe(ffmpegPath);
+        this.timeout = timeout;
+        this.posterOffset = posterOffset.toMillis() / 1000.0;
+        this.scrubFrames = scrubFrames;
+        this.scrubFrameHeight = scrubFrameHeight;
+        this.jpegQuality = jpegQuality;
+        this.gridSize = gridSize;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("video-thumbnail-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.gauge("arkive.thumbnail.video.queue", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("arkive.thumbnail.video.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    // ffmpeg -version chạy được: không có thì video giữ UNSUPPORTED như trước, instance khác có ffmpeg vẫn xử lý PENDING
+    private static boolean probe(String ffmpegPath) {
+        try {
+            Process process = new ProcessBuilder(ffmpegPath, "-hide_banner", "-version")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (process.waitFor(PROBE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) && process.exitValue() == 0) {
+                return true;
+            }
+            process.destroyForcibly();
+        } catch (IOException e) {
+            log.debug("Cannot start ffmpeg: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("ffmpeg is not available at '{}', video thumbnails are disabled on this instance", ffmpegPath);
+        return false;
+    }
+
+    @Override
+    public boolean supports(String contentType) {
+        return available && contentType != null && contentType.startsWith("video/");
+    }
+
+    @Override
+    public boolean submit(String assetId) {
+        if (!available) {
+            return false;
+        }
+        if (!inFlight.add(assetId)) {
+            return true; // Đã nằm trong hàng đợi
+        }
+        try {
+            executor.execute(() -> generate(assetId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Hàng đợi đầy: asset giữ PENDING, submitPending nạp lại khi có chỗ
+            inFlight.remove(assetId);
+            return false;
+        }
+    }
+
+    @Override
+    public int submitPending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (!available || capacity == 0) {
+            return 0;
+        }
+        List<String> pending = assetRepository.findPendingVideoThumbnailIds(Limit.of(capacity + inFlight.size()));
+        int submitted = 0;
+        for (String assetId : pending.stream().filter(id -> !inFlight.contains(id)).limit(capacity).toList()) {
+            if (!submit(assetId)) {
+                break;
+            }
+            submitted++;
+        }
+        return submitted;
+    }
+
+    private void generate(String assetId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "retry";
+        try {
+            outcome = render(assetId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Đang tắt: asset giữ PENDING
+        } catch (Exception e) {
+            // Lỗi storage / mạng: giữ PENDING, ThumbnailBackfillJob thử lại ở lượt sau
+            log.warn("Video thumbnail generation for asset {} failed, will retry: {}", assetId, e.getMessage());
+        } finally {
+            inFlight.remove(assetId);
+            sample.stop(meterRegistry.timer("arkive.thumbnail.video.render", "outcome", outcome));
+        }
+    }
+
+    private String render(String assetId) throws IOException, InterruptedException {
+        Asset asset = assetRepository.findById(assetId).orElse(null);
+        if (asset == null || asset.getThumbnailStatus() != ThumbnailStatus.PENDING) {
+            return "skipped";
+        }
+
+        // URL từ cache còn hạn ít nhất app.s3.presign-cache.safety-margin, dài hơn timeout của một video
+        String source = storageService.generatePresignedGetUrl(asset.getStorageKey());
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Path workDir = Files.createTempDirectory("arkive-video-");
+        BufferedImage poster;
+        BufferedImage strip = null;
+        try {
+            // 1. Poster, thu vào khung 2 x grid-size ngay trong ffmpeg; đọc luôn thời lượng từ log
+            String filter = "scale=" + 2 * gridSize + ":" + 2 * gridSize + ":force_original_aspect_ratio=decrease";
+            FrameResult first = extractFrames(source, List.of(posterOffset), filter, workDir, "poster", deadline);
+            if (first.frames().isEmpty() && first.log() != null && posterOffset > 0) {
+                first = extractFrames(source, List.of(0.0), filter, workDir, "poster", deadline); // Video ngắn hơn offset
+            }
+            if (first.log() == null) {
+                return markFailed(assetId, "ffmpeg timed out after " + timeout);
+            }
+            if (first.frames().isEmpty()) {
+                if (first.log().contains("Server returned 404")) {
+                    return markFailed(assetId, "object not found in storage");
+                }
+                if (first.log().contains("Server returned") || first.log().contains("Connection")) {
+                    throw new IOException("ffmpeg cannot read the source: " + lastLine(first.log()));
+                }
+                return markFailed(assetId, "no decodable video frame: " + lastLine(first.log()));
+            }
+            poster = ImageUtil.fit(first.frames().get(0), gridSize);
+
+            // 2. Dải scrub: khung giữa mỗi đoạn bằng nhau, lỗi / quá hạn thì bỏ qua dải, vẫn giữ poster
+            double duration = duration(first.log());
+            if (scrubFrames > 0 && duration > 0) {
+                List<Double> offsets = new ArrayList<>();
+                for (int i = 0; i < scrubFrames; i++) {
+                    offsets.add(duration * (i + 0.5) / scrubFrames);
+                }
+                FrameResult scrub = extractFrames(source, offsets, "scale=-2:" + scrubFrameHeight, workDir, "scrub", deadline);
+                if (scrub.frames().size() == scrubFrames) {
+                    strip = ImageUtil.horizontalStrip(scrub.frames(), scrub.frames().get(0).getWidth(), scrubFrameHeight);
+                } else {
+                    log.debug("Skipping scrub strip for asset {}: got {} of {} frames", assetId, scrub.frames().size(), scrubFrames);
+                }
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(workDir);
+        }
+
+        // 3. Ghi vào thumbnail bucket, key theo asset id như thumbnail của ảnh
+        String posterKey = assetId + "/poster-" + gridSize + ".jpg";
+        String stripKey = strip == null ? null : assetId + "/scrub-" + scrubFrames + "x" + scrubFrameHeight + ".jpg";
+        storageService.putObject(StorageBucket.THUMBNAILS, posterKey, ImageUtil.toJpeg(poster, jpegQuality),
+                ImageUtil.JPEG_CONTENT_TYPE);
+        if (strip != null) {
+            storageService.putObject(StorageBucket.THUMBNAILS, stripKey, ImageUtil.toJpeg(strip, jpegQuality),
+                    ImageUtil.JPEG_CONTENT_TYPE);
+        }
+
+        // 4. Cập nhật asset nếu vẫn PENDING; asset đã bị xoá trong lúc render thì dọn object vừa ghi
+        if (assetRepository.completePendingVideoThumbnail(assetId, posterKey, stripKey,
+                strip == null ? null : scrubFrames, ThumbnailStatus.READY) == 0) {
+            objectDeletionService.enqueue(StorageBucket.THUMBNAILS,
+                    strip == null ? List.of(posterKey) : List.of(posterKey, stripKey));
+            return "skipped";
+        }
+        return "ready";
+    }
+
+    // Các khung lấy được (theo thứ tự offsets, dừng ở khung đầu tiên thiếu) và log của ffmpeg; log null nếu quá hạn
+    private record FrameResult(List<BufferedImage> frames, String log) {
+    }
+
+    /**
+     * Một tiến trình ffmpeg, mỗi offset là một input riêng với -ss trước -i (seek theo HTTP range) và một output PNG.
+     */
+    private FrameResult extractFrames(String source, List<Double> offsets, String filter, Path workDir, String prefix,
+                                      long deadline) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(ffmpegPath, "-hide_banner", "-nostdin", "-y"));
+        for (double offset : offsets) {
+            command.addAll(List.of("-protocol_whitelist", PROTOCOLS, "-ss", String.format(Locale.ROOT, "%.3f", offset), "-i", source));
+        }
+        List<Path> outputs = new ArrayList<>();
+        for (int i = 0; i < offsets.size(); i++) {
+            Path output = workDir.resolve(prefix + "-" + i + ".png");
+            Files.deleteIfExists(output);
+            outputs.add(output);
+            command.addAll(List.of("-map", i + ":v:0", "-frames:v", "1", "-vf", filter, output.toString()));
+        }
+
+        String log = run(command, workDir.resolve(prefix + ".log"), deadline);
+        List<BufferedImage> frames = new ArrayList<>();
+        for (Path output : outputs) {
+            BufferedImage frame = Files.isRegularFile(output) ? ImageIO.read(output.toFile()) : null;
+            if (frame == null) {
+                break;
+            }
+            frames.add(frame);
+        }
+        return new FrameResult(frames, log);
+    }
+
+    // stderr ghi ra file (không cần thread đọc pipe), quá deadline thì kill tiến trình và trả về null
+    private static String run(List<String> command, Path logFile, long deadline) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(logFile.toFile())
+                .start();
+        try {
+            if (!process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return null;
+            }
+        } finally {
+            process.destroyForcibly(); // Đã thoát thì không làm gì; bị interrupt (đang tắt) thì kill ffmpeg
+        }
+        // Metadata của video có thể không phải UTF-8
+        return new String(Files.readAllBytes(logFile), StandardCharsets.ISO_8859_1);
+    }
+
+    // "Duration: 00:01:23.45" trong log của input đầu tiên, 0 nếu không rõ (livestream, N/A)
+    private static double duration(String log) {
+        Matcher matcher = DURATION.matcher(log);
+        if (!matcher.find()) {
+            return 0;
+        }
+        return Integer.parseInt(matcher.group(1)) * 3600 + Integer.parseInt(matcher.group(2)) * 60
+                + Double.parseDouble(matcher.group(3));
+    }
+
+    private static String lastLine(String log) {
+        String trimmed = log.strip();
+        return trimmed.substring(trimmed.lastIndexOf('\n') + 1);
+    }
+
+    private String markFailed(String assetId, String reason) {
+        log.info("Cannot generate video thumbnail for asset {}: {}", assetId, reason);
+        assetRepository.completePendingVideoThumbnail(assetId, null, null, null, ThumbnailStatus.FAILED);
+        return "failed";
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Interrupt worker: ffmpeg đang chạy bị kill, asset giữ PENDING và được nạp lại khi khởi động
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.arkivebackend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Content hash của asset là SHA-256 dạng hex (client tự tính), còn S3 nhận / trả checksum SHA-256 dạng base64
+ * (header x-amz-checksum-sha256).
+ */
+public final class ContentHashUtil {
+
+    private ContentHashUtil() {
+    }
+
+    // Hex chữ thường, null giữ nguyên (upload không khử trùng lặp)
+    public static String normalize(String contentHash) {
+        return contentHash == null ? null : contentHash.toLowerCase(Locale.ROOT);
+    }
+
+    public static String toS3Checksum(String contentHash) {
+        return Base64.getEncoder().encodeToString(HexFormat.of().parseHex(contentHash));
+    }
+
+    // SHA-256 (hex) của chuỗi UTF-8, dùng làm khoá cache ngắn và an toàn cho tên file
+    public static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // JDK luôn có SHA-256
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.arkivebackend.util;
+
+import com.example.arkivebackend.enums.AssetSortField;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Mã hoá / giải mã cursor cho phân trang keyset của assets.
+ * Cursor là chuỗi Base64 URL-safe (opaque với client) chứa:
+ * trường sắp xếp, chiều sắp xếp, giá trị cột sắp xếp và id của bản ghi cuối trang.
+ * Giá trị có ký tự đánh dấu phía trước để null không trùng với chuỗi rỗng (vd: cameraModel "" từ EXIF).
+ */
+public final class CursorUtil {
+
+    private static final char SEPARATOR = '|';
+    private static final char VALUE_MARKER = '=';
+    private static final char NULL_MARKER = '~';
+
+    private CursorUtil() {
+    }
+
+    /**
+     * Vị trí keyset đã giải mã: (giá trị cột sắp xếp, id).
+     */
+    public record Position(Object value, String id) {
+    }
+
+    /**
+     * Tạo cursor trỏ tới ngay sau asset {@code last}.
+     */
+    public static String encode(AssetSortField sortField, Sort.Direction direction, AssetSummary last) {
+        Object value = sortValue(sortField, last);
+        String raw = sortField.name() + SEPARATOR + direction.name() + SEPARATOR
+                + (value == null ? String.valueOf(NULL_MARKER) : VALUE_MARKER + value.toString()) + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã cursor. Cursor phải được tạo với cùng trường và chiều sắp xếp.
+     */
+    public static Position decode(String cursor, AssetSortField sortField, Sort.Direction direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String prefix = sortField.name() + SEPARATOR + direction.name() + SEPARATOR;
+            int idStart = raw.lastIndexOf(SEPARATOR);
+            if (!raw.startsWith(prefix) || idStart < prefix.length()) {
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+            // filename có thể chứa ký tự '|', còn id (UUID) thì không -> tách từ hai đầu
+            String value = raw.substring(prefix.length(), idStart);
+            String id = raw.substring(idStart + 1);
+            return new Position(parseValue(sortField, value), id);
+        } catch (IllegalArgumentException | DateTimeException e) { // Base64 sai, số / ngày sai định dạng
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    private static Object sortValue(AssetSortField sortField, AssetSummary asset) {
+        return switch (sortField) {
+            case FILENAME -> asset.getFilename();
+            case FILE_SIZE -> asset.getFileSize();
+            case CREATED_AT -> asset.getCreatedAt();
+            case UPDATED_AT -> asset.getUpdatedAt();
+            case TAKEN_AT -> asset.getTakenAt();
+            case WIDTH -> asset.getWidth();
+            case HEIGHT -> asset.getHeight();
+            case CAMERA_MODEL -> asset.getCameraModel();
+        };
+    }
+
+    private static Object parseValue(AssetSortField sortField, String value) {
+        if (sortField.isNullable() && value.equals(String.valueOf(NULL_MARKER))) {
+            return null;
+        }
+        if (value.isEmpty() || value.charAt(0) != VALUE_MARKER) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+        String text = value.substring(1);
+        return switch (sortField) {
+            case FILENAME, CAMERA_MODEL -> text;
+            case FILE_SIZE -> Long.valueOf(text);
+            case CREATED_AT, UPDATED_AT, TAKEN_AT -> LocalDateTime.parse(text);
+            case WIDTH, HEIGHT -> Integer.valueOf(text);
+        };
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.arkivebackend.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Cache file trên đĩa cục bộ cho các biến thể ảnh đã render (GET /assets/{id}/render), giới hạn tổng dung lượng bằng LRU.
+ *
+ * - Miss: chỉ một request render cho mỗi key, các request trùng key cùng lúc chờ kết quả đó (coalescing).
+ * - Hit: trả về FileChannel đã mở; file bị đẩy ra trong lúc đang gửi vẫn đọc được tới hết (Linux giữ inode tới khi đóng).
+ * - Restart: index dựng lại từ các file có sẵn, thứ tự LRU xấp xỉ theo thời điểm ghi.
+ * Metrics: arkive.render.cache{result=hit|miss|coalesced}, arkive.render.cache.bytes
+ */
+@Slf4j
+@Component
+public class DiskVariantCache {
+
+    // Ghi biến thể vào file tạm target (cùng thư mục cache, được rename nguyên tử khi xong)
+    @FunctionalInterface
+    public interface Renderer {
+        void render(Path target) throws IOException;
+    }
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    // accessOrder = true: entry ít dùng nhất nằm đầu; giá trị là kích thước file
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Void>> rendering = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private long totalBytes; // Cùng khoá với entries
+
+    @Autowired
+    public DiskVariantCache(MeterRegistry meterRegistry,
+                            @Value("${app.render.cache.directory:${java.io.tmpdir}/arkive-render}") Path directory,
+                            @Value("${app.render.cache.max-size:1GB}") DataSize maxSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxSize.toBytes();
+        this.hits = Counter.builder("arkive.render.cache").tag("result", "hit")
+                .description("Biến thể ảnh lấy từ cache trên đĩa").register(meterRegistry);
+        this.misses = Counter.builder("arkive.render.cache").tag("result", "miss")
+                .description("Biến thể ảnh phải render").register(meterRegistry);
+        this.coalesced = Counter.builder("arkive.render.cache").tag("result", "coalesced")
+                .description("Request chờ chung một lần render đang chạy").register(meterRegistry);
+        meterRegistry.gauge("arkive.render.cache.bytes", this, DiskVariantCache::totalBytes);
+        loadExisting();
+    }
+
+    /**
+     * Mở biến thể key để đọc, render bằng renderer nếu chưa có. Caller phải đóng channel.
+     * Lỗi của renderer (IOException / RuntimeException) được ném lại cho mọi request đang chờ key đó.
+     */
+    public FileChannel open(String key, Renderer renderer) throws IOException {
+        FileChannel cached = openCached(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<Void> render = new CompletableFuture<>();
+        CompletableFuture<Void> inProgress = rendering.putIfAbsent(key, render);
+        if (inProgress != null) {
+            coalesced.increment();
+            await(inProgress);
+            FileChannel rendered = openCached(key);
+            // Hiếm: bị đẩy ra ngay sau khi render (cache quá nhỏ so với biến thể), render lại
+            return rendered != null ? rendered : open(key, renderer);
+        }
+
+        try {
+            // Request trước có thể vừa render xong giữa openCached và putIfAbsent
+            FileChannel channel = openCached(key);
+            if (channel == null) {
+                misses.increment();
+                channel = renderAndRegister(key, renderer);
+            }
+            render.complete(null);
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            render.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, render);
+        }
+    }
+
+    public long totalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private FileChannel renderAndRegister(String key, Renderer renderer) throws IOException {
+        Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+        try {
+            renderer.render(temp);
+            Files.move(temp, file(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        long size = Files.size(file(key));
+        synchronized (entries) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            evict();
+            return FileChannel.open(file(key), StandardOpenOption.READ);
+        }
+    }
+
+    private FileChannel openCached(String key) throws IOException {
+        synchronized (entries) {
+            if (entries.get(key) == null) { // get: đưa entry lên cuối hàng LRU
+                return null;
+            }
+            try {
+                return FileChannel.open(file(key), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // File bị xoá từ bên ngoài (dọn thư mục tạm): coi như miss
+                totalBytes -= entries.remove(key);
+                return null;
+            }
+        }
+    }
+
+    // Gọi trong synchronized (entries). Entry mới nhất luôn được giữ, kể cả khi một mình nó lớn hơn maxBytes
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(file(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Cannot delete evicted render cache file {}: {}", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void loadExisting() throws IOException {
+        record CachedFile(Path path, long size, long modified) {
+        }
+        List<CachedFile> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(Files::isRegularFile)
+                    .map(path -> {
+                        try {
+                            if (path.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                                Files.delete(path); // Render dang dở trước khi tắt
+                                return null;
+                            }
+                            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                            return new CachedFile(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .filter(file -> file != null)
+                    .sorted(Comparator.comparingLong(CachedFile::modified))
+                    .toList();
+        }
+        synchronized (entries) {
+            for (CachedFile file : files) {
+                entries.put(file.path().getFileName().toString(), file.size());
+                totalBytes += file.size();
+            }
+            evict();
+        }
+        log.info("Render cache {}: {} files, {} bytes", directory, entries.size(), totalBytes);
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key);
+    }
+
+    private static void await(CompletableFuture<Void> render) throws IOException {
+        try {
+            render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
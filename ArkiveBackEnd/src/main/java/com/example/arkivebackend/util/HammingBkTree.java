@@ -0,0 +1,113 @@
+package com.example.arkivebackend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * BK-tree trên hash 64 bit với khoảng cách Hamming, tìm mọi hash cách hash cho trước không quá maxDistance bit.
+ *
+ * Lưu bằng mảng nguyên thuỷ (hash, id dạng 2 long, con đầu / anh em kế tiếp, khoảng cách tới cha):
+ * khoảng 37 byte mỗi asset, không có object cho từng node. Thread-safe (synchronized, truy vấn chỉ vài ms).
+ * Không hỗ trợ xoá: asset đã xoá được lọc lại ở DB và biến mất ở lần dựng lại index kế tiếp.
+ */
+public final class HammingBkTree {
+
+    // Một kết quả: id asset và số bit khác nhau
+    public record Match(UUID id, int distance) {
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private byte[] distanceToParent = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    public synchronized void add(UUID id, long hash) {
+        if (size == hashes.length) {
+            grow();
+        }
+        int node = size++;
+        hashes[node] = hash;
+        idHigh[node] = id.getMostSignificantBits();
+        idLow[node] = id.getLeastSignificantBits();
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        if (node == 0) {
+            return;
+        }
+
+        // Đi xuống theo cạnh có cùng khoảng cách, không có thì thêm con mới
+        int parent = 0;
+        while (true) {
+            int distance = Long.bitCount(hashes[parent] ^ hash);
+            int child = childAt(parent, distance);
+            if (child == NONE) {
+                distanceToParent[node] = (byte) distance;
+                nextSibling[node] = firstChild[parent];
+                firstChild[parent] = node;
+                return;
+            }
+            parent = child;
+        }
+    }
+
+    /**
+     * Mọi phần tử cách hash không quá maxDistance bit, chưa sắp xếp.
+     * Bất đẳng thức tam giác: chỉ cần đi vào con có khoảng cách tới cha trong [d - maxDistance, d + maxDistance].
+     */
+    public synchronized List<Match> search(long hash, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (size == 0) {
+            return matches;
+        }
+        int[] stack = new int[INITIAL_CAPACITY];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = Long.bitCount(hashes[node] ^ hash);
+            if (distance <= maxDistance) {
+                matches.add(new Match(new UUID(idHigh[node], idLow[node]), distance));
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(distanceToParent[child] - distance) <= maxDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        return matches;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int childAt(int parent, int distance) {
+        for (int child = firstChild[parent]; child != NONE; child = nextSibling[child]) {
+            if (distanceToParent[child] == distance) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private void grow() {
+        int capacity = hashes.length + (hashes.length >> 1);
+        hashes = Arrays.copyOf(hashes, capacity);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        distanceToParent = Arrays.copyOf(distanceToParent, capacity);
+    }
+}
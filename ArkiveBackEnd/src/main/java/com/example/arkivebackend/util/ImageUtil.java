@@ -0,0 +1,217 @@
+package com.example.arkivebackend.util;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Đọc / thu nhỏ / mã hoá ảnh bằng ImageIO của JDK (JPEG, PNG, GIF, BMP, TIFF), không cần thư viện ngoài.
+ */
+public final class ImageUtil {
+
+    public static final String JPEG_CONTENT_TYPE = "image/jpeg";
+
+    private ImageUtil() {
+    }
+
+    // Có ImageReader cho MIME type này không
+    public static boolean isSupported(String contentType) {
+        return contentType != null && ImageIO.getImageReadersByMIMEType(contentType).hasNext();
+    }
+
+    /**
+     * Đọc frame đầu của ảnh, bỏ bớt pixel ngay lúc giải mã (subsampling) sao cho cạnh dài vẫn còn khoảng
+     * 2 x maxSize: bộ nhớ cho mỗi ảnh phụ thuộc kích thước đích chứ không phụ thuộc số megapixel của file gốc.
+     *
+     * @throws IIOException định dạng không hỗ trợ, file hỏng, hoặc ảnh lớn hơn maxPixels
+     */
+    public static BufferedImage readScaled(Path file, int maxSize, long maxPixels) throws IOException {
+        return readScaled(file, maxSize, maxSize, false, maxPixels);
+    }
+
+    /**
+     * Như readScaled(file, maxSize, maxPixels) với khung boxWidth x boxHeight: cover = true thì ảnh phải phủ kín
+     * khung (cắt phần thừa) nên được giữ lại nhiều pixel hơn theo cạnh ngắn.
+     */
+    public static BufferedImage readScaled(Path file, int boxWidth, int boxHeight, boolean cover, long maxPixels) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IIOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+                    throw new IIOException("Image is " + width + "x" + height + ", limit is " + maxPixels + " pixels");
+                }
+                double scale = scale(width, height, boxWidth, boxHeight, cover);
+                int step = Math.max(1, (int) (1 / (2 * scale)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (RuntimeException e) {
+                // Decoder của JDK ném cả lỗi runtime với dữ liệu hỏng
+                throw new IIOException("Cannot decode image", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Thu nhỏ vào khung maxSize x maxSize
+    public static BufferedImage fit(BufferedImage source, int maxSize) {
+        return fit(source, maxSize, maxSize);
+    }
+
+    /**
+     * Thu nhỏ vào khung maxWidth x maxHeight, giữ tỉ lệ và không phóng to.
+     */
+    public static BufferedImage fit(BufferedImage source, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, scale(source.getWidth(), source.getHeight(), maxWidth, maxHeight, false));
+        return resize(source, Math.max(1, (int) Math.round(source.getWidth() * scale)),
+                Math.max(1, (int) Math.round(source.getHeight() * scale)));
+    }
+
+    /**
+     * Phủ kín khung width x height rồi cắt phần thừa ở giữa. Không phóng to: ảnh nhỏ hơn khung cho kết quả
+     * nhỏ hơn nhưng cùng tỉ lệ với khung.
+     */
+    public static BufferedImage cover(BufferedImage source, int width, int height) {
+        double scale = scale(source.getWidth(), source.getHeight(), width, height, true);
+        int cropWidth = Math.max(1, Math.min(source.getWidth(), (int) Math.round(width / scale)));
+        int cropHeight = Math.max(1, Math.min(source.getHeight(), (int) Math.round(height / scale)));
+        BufferedImage cropped = source.getSubimage((source.getWidth() - cropWidth) / 2,
+                (source.getHeight() - cropHeight) / 2, cropWidth, cropHeight);
+        double resizeScale = Math.min(1.0, scale);
+        return resize(cropped, Math.max(1, (int) Math.round(cropWidth * resizeScale)),
+                Math.max(1, (int) Math.round(cropHeight * resizeScale)));
+    }
+
+    // Mã hoá JPEG với quality 0..1, ảnh đích nhỏ nên đệm trong bộ nhớ
+    public static byte[] toJpeg(BufferedImage image, float quality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(image, JPEG_CONTENT_TYPE, quality, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Mã hoá theo MIME type (image/jpeg, image/png, ...). quality chỉ áp dụng cho JPEG,
+     * JPEG không có kênh alpha nên vùng trong suốt thành nền trắng.
+     */
+    public static void write(BufferedImage image, String contentType, float quality, OutputStream out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(contentType);
+        if (!writers.hasNext()) {
+            throw new IIOException("No image writer for " + contentType);
+        }
+        ImageWriter writer = writers.next();
+        boolean jpeg = JPEG_CONTENT_TYPE.equals(contentType);
+        BufferedImage output = jpeg && image.getColorModel().hasAlpha()
+                ? draw(image, image.getWidth(), image.getHeight(), false)
+                : image;
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (jpeg) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(output, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Ghép các khung hình thành một dải ngang, mỗi ô width x height (khung khác tỉ lệ được cắt giữa như cover).
+     */
+    public static BufferedImage horizontalStrip(List<BufferedImage> frames, int width, int height) {
+        BufferedImage strip = new BufferedImage(width * frames.size(), height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = strip.createGraphics();
+        try {
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage tile = cover(frames.get(i), width, height);
+                graphics.drawImage(tile, i * width, 0, width, height, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return strip;
+    }
+
+    /**
+     * dHash 64 bit: thu ảnh về 9 x 8 mức xám, mỗi bit = pixel bên trái tối hơn pixel bên phải.
+     * Ảnh gần giống nhau (resize, nén lại, chỉnh màu nhẹ) cho hash cách nhau vài bit (khoảng cách Hamming).
+     */
+    public static long differenceHash(BufferedImage image) {
+        BufferedImage small = resize(image, 9, 8);
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                hash = hash << 1 | (luminance(small.getRGB(x, y)) < luminance(small.getRGB(x + 1, y)) ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    private static int luminance(int rgb) {
+        return (299 * (rgb >> 16 & 0xFF) + 587 * (rgb >> 8 & 0xFF) + 114 * (rgb & 0xFF)) / 1000;
+    }
+
+    // Tỉ lệ thu phóng để vừa khung (contain) hoặc phủ kín khung (cover)
+    private static double scale(int width, int height, int boxWidth, int boxHeight, boolean cover) {
+        double horizontal = (double) boxWidth / width;
+        double vertical = (double) boxHeight / height;
+        return cover ? Math.max(horizontal, vertical) : Math.min(horizontal, vertical);
+    }
+
+    // Mỗi bước giảm tối đa một nửa: bilinear một bước từ ảnh lớn bị răng cưa
+    private static BufferedImage resize(BufferedImage source, int targetWidth, int targetHeight) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, alpha);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Kết quả luôn là RGB / ARGB chuẩn; ảnh không giữ alpha thì nền trắng
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.arkivebackend.util;
+
+import java.util.Locale;
+
+/**
+ * Dựng pattern cho LIKE ... ESCAPE '\': ký tự đại diện % và _ trong từ khoá của người dùng được so khớp
+ * như ký tự thường, không phải "khớp mọi thứ".
+ */
+public final class LikeUtil {
+
+    public static final char ESCAPE = '\\';
+
+    private LikeUtil() {
+    }
+
+    // '%' + từ khoá (chữ thường, đã escape) + '%', null coi như rỗng (khớp mọi filename)
+    public static String containsPattern(String keyword) {
+        String value = keyword == null ? "" : keyword.toLowerCase(Locale.ROOT);
+        StringBuilder pattern = new StringBuilder(value.length() + 2).append('%');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
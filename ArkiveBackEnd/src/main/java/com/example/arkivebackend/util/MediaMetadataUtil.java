@@ -0,0 +1,314 @@
+package com.example.arkivebackend.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Đọc metadata (thời điểm chụp, kích thước, orientation, máy ảnh) từ vài chục KB đầu của file, không cần cả file.
+ *
+ * Nhận dạng định dạng theo magic bytes (không tin MIME type client gửi): JPEG / TIFF (EXIF), PNG, GIF, WebP,
+ * MP4 / MOV (ISO BMFF, chỉ khi moov nằm đầu file). Phần đầu bị cắt ngang thì trả về những gì đã đọc được.
+ */
+public final class MediaMetadataUtil {
+
+    // Không có trường nào thì tất cả null
+    public record MediaMetadata(LocalDateTime takenAt, Integer width, Integer height, Integer orientation,
+                                String cameraMake, String cameraModel) {
+    }
+
+    private static final DateTimeFormatter EXIF_DATE = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+    private static final long MP4_EPOCH_OFFSET = 2_082_844_800L; // Giây từ 1904-01-01 tới 1970-01-01
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private MediaMetadataUtil() {
+    }
+
+    // Các loại file có thể có metadata đọc được từ phần đầu
+    public static boolean isSupported(String contentType) {
+        return contentType != null && (contentType.startsWith("image/") || contentType.startsWith("video/"));
+    }
+
+    public static MediaMetadata parse(byte[] head) {
+        Fields fields = new Fields();
+        try {
+            if (startsWith(head, 0, new byte[]{(byte) 0xFF, (byte) 0xD8})) {
+                parseJpeg(head, fields);
+            } else if (startsWith(head, 0, "II*\0".getBytes(StandardCharsets.US_ASCII))
+                    || startsWith(head, 0, "MM\0*".getBytes(StandardCharsets.US_ASCII))) {
+                parseTiff(head, 0, head.length, fields);
+            } else if (startsWith(head, 0, new byte[]{(byte) 0x89, 'P', 'N', 'G'})) {
+                // IHDR luôn là chunk đầu tiên
+                fields.width = ByteBuffer.wrap(head).getInt(16);
+                fields.height = ByteBuffer.wrap(head).getInt(20);
+            } else if (startsWith(head, 0, "GIF8".getBytes(StandardCharsets.US_ASCII))) {
+                ByteBuffer buffer = ByteBuffer.wrap(head).order(ByteOrder.LITTLE_ENDIAN);
+                fields.width = buffer.getShort(6) & 0xFFFF;
+                fields.height = buffer.getShort(8) & 0xFFFF;
+            } else if (startsWith(head, 0, "RIFF".getBytes(StandardCharsets.US_ASCII))
+                    && startsWith(head, 8, "WEBP".getBytes(StandardCharsets.US_ASCII))) {
+                parseWebp(head, fields);
+            } else if (startsWith(head, 4, "ftyp".getBytes(StandardCharsets.US_ASCII))) {
+                parseBoxes(ByteBuffer.wrap(head), 0, head.length, fields);
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            // Dữ liệu bị cắt ngang (ngoài phạm vi đã đọc) hoặc hỏng: giữ các trường đã đọc được
+        }
+        return fields.toMetadata();
+    }
+
+    private static void parseJpeg(byte[] head, Fields fields) {
+        ByteBuffer buffer = ByteBuffer.wrap(head);
+        int pos = 2;
+        while (pos + 4 <= head.length && (head[pos] & 0xFF) == 0xFF) {
+            int marker = head[pos + 1] & 0xFF;
+            if (marker == 0xFF) { // Byte đệm
+                pos++;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) { // EOI / SOS: phía sau là dữ liệu ảnh
+                return;
+            }
+            int length = buffer.getShort(pos + 2) & 0xFFFF;
+            int data = pos + 4;
+            if (marker == 0xE1 && startsWith(head, data, "Exif\0\0".getBytes(StandardCharsets.US_ASCII))) {
+                parseTiff(head, data + 6, Math.min(head.length, pos + 2 + length), fields);
+            } else if (isStartOfFrame(marker)) {
+                // Kích thước thật của ảnh nén, ưu tiên hơn PixelXDimension trong EXIF
+                int height = buffer.getShort(data + 1) & 0xFFFF;
+                fields.width = buffer.getShort(data + 3) & 0xFFFF;
+                fields.height = height;
+                return;
+            }
+            pos += 2 + length;
+        }
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    // Khối TIFF (file TIFF, hoặc APP1 "Exif" của JPEG / chunk EXIF của WebP) nằm trong head[start, end)
+    private static void parseTiff(byte[] head, int start, int end, Fields fields) {
+        ByteBuffer tiff = ByteBuffer.wrap(head, start, end - start).slice()
+                .order(head[start] == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int exifIfd = readIfd(tiff, tiff.getInt(4), fields);
+        if (exifIfd > 0) {
+            readIfd(tiff, exifIfd, fields);
+        }
+    }
+
+    // Đọc các tag cần dùng của một IFD, trả về offset của Exif IFD nếu có (0 nếu không)
+    private static int readIfd(ByteBuffer tiff, int offset, Fields fields) {
+        int exifIfd = 0;
+        int count = tiff.getShort(offset) & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            int entry = offset + 2 + i * 12;
+            int tag = tiff.getShort(entry) & 0xFFFF;
+            switch (tag) {
+                case 0x0100 -> fields.width = firstNonNull(fields.width, number(tiff, entry)); // ImageWidth
+                case 0x0101 -> fields.height = firstNonNull(fields.height, number(tiff, entry)); // ImageLength
+                case 0x010F -> fields.cameraMake = text(tiff, entry);
+                case 0x0110 -> fields.cameraModel = text(tiff, entry);
+                case 0x0112 -> fields.orientation = number(tiff, entry);
+                case 0x0132 -> fields.modifiedAt = date(text(tiff, entry)); // DateTime
+                case 0x8769 -> exifIfd = firstNonNull(number(tiff, entry), 0);
+                case 0x9003 -> fields.takenAt = date(text(tiff, entry)); // DateTimeOriginal
+                case 0x9004 -> fields.digitizedAt = date(text(tiff, entry)); // DateTimeDigitized
+                case 0xA002 -> fields.width = firstNonNull(fields.width, number(tiff, entry)); // PixelXDimension
+                case 0xA003 -> fields.height = firstNonNull(fields.height, number(tiff, entry)); // PixelYDimension
+                default -> {
+                }
+            }
+        }
+        return exifIfd;
+    }
+
+    // SHORT hoặc LONG nằm ngay trong entry
+    private static Integer number(ByteBuffer tiff, int entry) {
+        int type = tiff.getShort(entry + 2) & 0xFFFF;
+        return switch (type) {
+            case 3 -> tiff.getShort(entry + 8) & 0xFFFF;
+            case 4 -> tiff.getInt(entry + 8);
+            default -> null;
+        };
+    }
+
+    // ASCII: <= 4 byte nằm trong entry, dài hơn thì entry chứa offset
+    private static String text(ByteBuffer tiff, int entry) {
+        int count = tiff.getInt(entry + 4);
+        if (count <= 0 || count > MAX_TEXT_LENGTH * 4) {
+            return null;
+        }
+        int offset = count <= 4 ? entry + 8 : tiff.getInt(entry + 8);
+        byte[] value = new byte[count];
+        tiff.get(offset, value);
+        return clean(new String(value, StandardCharsets.ISO_8859_1));
+    }
+
+    private static void parseWebp(byte[] head, Fields fields) {
+        ByteBuffer buffer = ByteBuffer.wrap(head).order(ByteOrder.LITTLE_ENDIAN);
+        int pos = 12;
+        while (pos + 8 <= head.length) {
+            String type = new String(head, pos, 4, StandardCharsets.US_ASCII);
+            long size = buffer.getInt(pos + 4) & 0xFFFFFFFFL; // uint32, có thể vượt Integer.MAX_VALUE
+            int data = pos + 8;
+            switch (type) {
+                case "VP8X" -> { // Canvas 24 bit, lưu giá trị - 1
+                    fields.width = 1 + uint24(head, data + 4);
+                    fields.height = 1 + uint24(head, data + 7);
+                }
+                case "VP8 " -> {
+                    fields.width = firstNonNull(fields.width, buffer.getShort(data + 6) & 0x3FFF);
+                    fields.height = firstNonNull(fields.height, buffer.getShort(data + 8) & 0x3FFF);
+                }
+                case "VP8L" -> {
+                    int bits = buffer.getInt(data + 1);
+                    fields.width = firstNonNull(fields.width, 1 + (bits & 0x3FFF));
+                    fields.height = firstNonNull(fields.height, 1 + ((bits >>> 14) & 0x3FFF));
+                }
+                case "EXIF" -> {
+                    int start = startsWith(head, data, "Exif\0\0".getBytes(StandardCharsets.US_ASCII)) ? data + 6 : data;
+                    parseTiff(head, start, (int) Math.min(head.length, data + size), fields);
+                }
+                default -> {
+                }
+            }
+            if (data + size > head.length) { // Chunk bị cắt ngang (hoặc size hỏng): không còn gì để đọc
+                return;
+            }
+            pos = data + (int) size + (int) (size & 1); // Chunk được đệm tới số byte chẵn
+        }
+    }
+
+    // ISO BMFF (MP4, MOV): moov > mvhd (thời điểm tạo), moov > trak > tkhd (kích thước, ma trận xoay)
+    private static void parseBoxes(ByteBuffer buffer, int start, int end, Fields fields) {
+        int pos = start;
+        while (pos + 8 <= end) {
+            long size = buffer.getInt(pos) & 0xFFFFFFFFL;
+            String type = new String(buffer.array(), pos + 4, 4, StandardCharsets.US_ASCII);
+            int header = 8;
+            if (size == 1) {
+                size = buffer.getLong(pos + 8);
+                header = 16;
+            } else if (size == 0) {
+                size = end - pos; // Box kéo dài tới hết file
+            }
+            if (size < header) {
+                return;
+            }
+            int data = pos + header;
+            int boxEnd = (int) Math.min(end, pos + size);
+            switch (type) {
+                case "moov", "trak" -> parseBoxes(buffer, data, boxEnd, fields);
+                case "mvhd" -> {
+                    long created = buffer.get(data) == 1 ? buffer.getLong(data + 4) : buffer.getInt(data + 4) & 0xFFFFFFFFL;
+                    if (created > MP4_EPOCH_OFFSET) { // Nhiều máy ghi 0
+                        fields.takenAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(created - MP4_EPOCH_OFFSET),
+                                ZoneId.systemDefault());
+                    }
+                }
+                case "tkhd" -> parseTrackHeader(buffer, data, fields);
+                default -> {
+                }
+            }
+            if (pos + size > end) { // Box bị cắt ngang (thường là mdat): không còn gì để đọc
+                return;
+            }
+            pos = boxEnd;
+        }
+    }
+
+    private static void parseTrackHeader(ByteBuffer buffer, int data, Fields fields) {
+        int matrix = data + (buffer.get(data) == 1 ? 52 : 40);
+        int width = buffer.getInt(matrix + 36) >>> 16; // Fixed-point 16.16
+        int height = buffer.getInt(matrix + 40) >>> 16;
+        if (width == 0 || height == 0 || fields.width != null) { // Track audio, hoặc đã có track hình trước đó
+            return;
+        }
+        fields.width = width;
+        fields.height = height;
+        int a = buffer.getInt(matrix);
+        int b = buffer.getInt(matrix + 4);
+        // Quy về EXIF orientation để client xoay giống ảnh
+        if (a == 0 && b == 0x10000) {
+            fields.orientation = 6;
+        } else if (a == 0 && b == -0x10000) {
+            fields.orientation = 8;
+        } else if (a == -0x10000) {
+            fields.orientation = 3;
+        } else {
+            fields.orientation = 1;
+        }
+    }
+
+    private static LocalDateTime date(String value) {
+        try {
+            return value == null ? null : LocalDateTime.parse(value, EXIF_DATE);
+        } catch (DateTimeParseException e) {
+            return null; // "0000:00:00 00:00:00" hoặc định dạng lạ
+        }
+    }
+
+    // Bỏ ký tự NUL / khoảng trắng thừa, chuỗi rỗng thành null
+    private static String clean(String value) {
+        String cleaned = value.replace('\0', ' ').strip();
+        if (cleaned.isEmpty()) {
+            return null;
+        }
+        return cleaned.length() > MAX_TEXT_LENGTH ? cleaned.substring(0, MAX_TEXT_LENGTH) : cleaned;
+    }
+
+    private static int uint24(byte[] head, int offset) {
+        return (head[offset] & 0xFF) | (head[offset + 1] & 0xFF) << 8 | (head[offset + 2] & 0xFF) << 16;
+    }
+
+    private static boolean startsWith(byte[] head, int offset, byte[] prefix) {
+        if (head.length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (head[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> T firstNonNull(T current, T candidate) {
+        return current != null ? current : candidate;
+    }
+
+    // Giá trị đọc dần trong lúc duyệt file
+    private static final class Fields {
+        LocalDateTime takenAt;
+        LocalDateTime digitizedAt;
+        LocalDateTime modifiedAt;
+        Integer width;
+        Integer height;
+        Integer orientation;
+        String cameraMake;
+        String cameraModel;
+
+        MediaMetadata toMetadata() {
+            Integer validOrientation = orientation != null && orientation >= 1 && orientation <= 8 ? orientation : null;
+            Integer validWidth = width != null && width > 0 ? width : null;
+            Integer validHeight = height != null && height > 0 ? height : null;
+            // Orientation 5..8: ảnh lưu nằm ngang nhưng hiển thị xoay 90 độ
+            boolean rotated = validOrientation != null && validOrientation >= 5;
+            return new MediaMetadata(
+                    takenAt != null ? takenAt : digitizedAt != null ? digitizedAt : modifiedAt,
+                    rotated ? validHeight : validWidth,
+                    rotated ? validWidth : validHeight,
+                    validOrientation,
+                    cameraMake,
+                    cameraModel);
+        }
+    }
+}
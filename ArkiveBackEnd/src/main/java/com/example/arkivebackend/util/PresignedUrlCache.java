@@ -0,0 +1,104 @@
+package com.example.arkivebackend.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache các presigned GET URL theo (bucket, storageKey, disposition).
+ *
+ * Trả lại cùng một URL cho tới trước khi hết hạn một khoảng safety-margin, nhờ vậy
+ * trình duyệt / CDN cache được nội dung ảnh và server không phải ký lại mỗi lần.
+ * Giới hạn kích thước bằng LRU, entry sắp hết hạn bị loại khi được đọc tới hoặc khi nằm cuối hàng LRU.
+ * Metrics: arkive.presign.cache{result=hit|miss}, arkive.presign.cache.size
+ */
+@Slf4j
+@Component
+public class PresignedUrlCache {
+
+    private final int maxEntries;
+    private final Duration safetyMargin;
+    private final Clock clock;
+    private final Counter hits;
+    private final Counter misses;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    @Autowired
+    public PresignedUrlCache(MeterRegistry meterRegistry,
+                             @Value("${app.s3.presign-cache.max-entries:20000}") int maxEntries,
+                             @Value("${app.s3.presign-cache.safety-margin:PT5M}") Duration safetyMargin) {
+        this(meterRegistry, maxEntries, safetyMargin, Clock.systemUTC());
+    }
+
+    PresignedUrlCache(MeterRegistry meterRegistry, int maxEntries, Duration safetyMargin, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.safetyMargin = safetyMargin;
+        this.clock = clock;
+        // accessOrder = true: mỗi lần get đưa entry lên đầu, entry ít dùng nhất nằm cuối (LRU)
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > PresignedUrlCache.this.maxEntries || isStale(eldest.getValue());
+            }
+        };
+        this.hits = Counter.builder("arkive.presign.cache").tag("result", "hit")
+                .description("Presigned GET URL được dùng lại từ cache").register(meterRegistry);
+        this.misses = Counter.builder("arkive.presign.cache").tag("result", "miss")
+                .description("Presigned GET URL phải ký mới").register(meterRegistry);
+        meterRegistry.gauge("arkive.presign.cache.size", this, PresignedUrlCache::size);
+    }
+
+    /**
+     * Lấy URL đã ký còn dùng được, hoặc gọi signer để ký URL mới (hiệu lực validity) rồi lưu lại.
+     * Ký nằm ngoài lock: hai request trùng key cùng lúc có thể cùng ký, chấp nhận được.
+     */
+    public String get(String bucket, String storageKey, String disposition, Duration validity, Supplier<String> signer) {
+        Key key = new Key(bucket, storageKey, disposition);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !isStale(entry)) {
+                hits.increment();
+                return entry.url();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+
+        misses.increment();
+        String url = signer.get();
+        Instant reuseUntil = clock.instant().plus(validity).minus(safetyMargin);
+        if (reuseUntil.isAfter(clock.instant())) { // URL quá ngắn hạn so với safety-margin thì không cache
+            synchronized (entries) {
+                entries.put(key, new Entry(url, reuseUntil));
+            }
+        }
+        return url;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private boolean isStale(Entry entry) {
+        return !clock.instant().isBefore(entry.reuseUntil());
+    }
+
+    private record Key(String bucket, String storageKey, String disposition) {
+    }
+
+    private record Entry(String url, Instant reuseUntil) {
+    }
+}
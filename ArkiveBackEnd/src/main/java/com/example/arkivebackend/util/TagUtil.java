@@ -0,0 +1,29 @@
+package com.example.arkivebackend.util;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Chuẩn hoá tag trước khi lưu / lọc: trim, chữ thường, bỏ tag rỗng và trùng lặp.
+ * Nhờ vậy so sánh trên mảng tags (@>, &&, GIN index) khớp chính xác mà không cần lower().
+ */
+public final class TagUtil {
+
+    private TagUtil() {
+    }
+
+    public static Set<String> normalize(Collection<String> tags) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (tags == null) {
+            return normalized;
+        }
+        for (String tag : tags) {
+            if (tag != null && !tag.isBlank()) {
+                normalized.add(tag.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return normalized;
+    }
+}
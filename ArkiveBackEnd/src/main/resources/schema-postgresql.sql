@@ -0,0 +1,100 @@
+-- Các index đặc thù PostgreSQL mà @Index của JPA không biểu diễn được
+-- (partial index, GIN, ...). Chạy sau khi Hibernate cập nhật schema
+-- (spring.jpa.defer-datasource-initialization = true), mọi câu lệnh phải idempotent.
+
+-- Thùng rác: chỉ index các dòng đã xóa mềm, kích thước tỉ lệ với thùng rác chứ không với toàn bộ dữ liệu.
+-- Trang thùng rác sắp theo deleted_at (updated_at còn đổi khi đổi tên / gắn tag asset đã xoá)
+DROP INDEX IF EXISTS arkive.idx_asset_deleted_collection;
+CREATE INDEX IF NOT EXISTS idx_asset_trash_collection_deleted_at
+    ON arkive.asset (collection_id, deleted_at DESC, id DESC)
+    WHERE is_deleted = true;
+
+-- Tìm kiếm filename: LIKE '%...%' không dùng được B-tree, nên dùng GIN trigram trên lower(filename)
+-- (phục vụ cả LIKE '%q%' lẫn toán tử word-similarity '<%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_asset_filename_trgm
+    ON arkive.asset USING gin (lower(filename) gin_trgm_ops);
+
+-- Tìm kiếm theo tag: GIN trên mảng tags phục vụ toán tử @> / &&
+CREATE INDEX IF NOT EXISTS idx_asset_tags_gin
+    ON arkive.asset USING gin (tags);
+
+-- Backfill: tag lưu trước khi có TagUtil.normalize (chữ hoa, khoảng trắng, trùng lặp) không khớp bộ lọc any/all
+-- và bị tách đôi trong thống kê tag. Chỉ cập nhật dòng còn tag chưa chuẩn hoá nên chạy lại không đổi gì (idempotent)
+UPDATE arkive.asset a
+    SET tags = ARRAY(SELECT DISTINCT lower(trim(t)) FROM unnest(a.tags) AS t WHERE trim(t) <> '' ORDER BY 1)
+    WHERE EXISTS (SELECT 1 FROM unnest(a.tags) AS t WHERE t IS NULL OR t <> lower(trim(t)) OR trim(t) = '')
+       OR cardinality(a.tags) <> (SELECT count(DISTINCT t) FROM unnest(a.tags) AS t);
+
+-- Đối soát thumbnail bucket (OrphanObjectReconcileJob): tra cứu theo thumbnail_key, asset cũ chưa có key thì không index
+CREATE INDEX IF NOT EXISTS idx_asset_thumbnail_key
+    ON arkive.asset (thumbnail_key)
+    WHERE thumbnail_key IS NOT NULL;
+
+-- Dọn thùng rác (TrashPurgeJob): tìm asset xoá mềm quá hạn theo deleted_at, chỉ index các dòng trong thùng rác
+CREATE INDEX IF NOT EXISTS idx_asset_trash_deleted_at
+    ON arkive.asset (deleted_at)
+    WHERE is_deleted = true;
+
+-- Backfill: asset vào thùng rác trước khi có cột deleted_at, lấy updated_at làm mốc (idempotent)
+UPDATE arkive.asset SET deleted_at = updated_at
+    WHERE is_deleted = true AND deleted_at IS NULL;
+
+-- Khử trùng lặp theo nội dung (StoredBlob): nhiều asset có thể trỏ tới cùng storage_key.
+-- Bỏ unique constraint cũ do Hibernate sinh (tên ngẫu nhiên), idx_asset_storage_key thay thế cho tra cứu.
+-- Thân DO dùng chuỗi nháy đơn vì trình chạy script tách câu lệnh theo dấu chấm phẩy ngoài chuỗi.
+DO '
+DECLARE
+    c record;
+BEGIN
+    FOR c IN SELECT con.conname
+             FROM pg_constraint con
+             JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+             WHERE con.conrelid = ''arkive.asset''::regclass
+               AND con.contype = ''u''
+               AND array_length(con.conkey, 1) = 1
+               AND att.attname = ''storage_key''
+    LOOP
+        EXECUTE format(''ALTER TABLE arkive.asset DROP CONSTRAINT %I'', c.conname);
+    END LOOP;
+END';
+
+-- Thumbnail phía server (ThumbnailService): preview_key cũng nằm trong thumbnail bucket, đối soát tra cứu như thumbnail_key
+CREATE INDEX IF NOT EXISTS idx_asset_preview_key
+    ON arkive.asset (preview_key)
+    WHERE preview_key IS NOT NULL;
+
+-- Dải scrub của video (VideoThumbnailService) cũng nằm trong thumbnail bucket
+CREATE INDEX IF NOT EXISTS idx_asset_scrub_strip_key
+    ON arkive.asset (scrub_strip_key)
+    WHERE scrub_strip_key IS NOT NULL;
+
+-- ThumbnailBackfillJob lấy asset chờ tạo thumbnail theo thứ tự upload, chỉ index các dòng PENDING
+CREATE INDEX IF NOT EXISTS idx_asset_thumbnail_pending
+    ON arkive.asset (created_at)
+    WHERE thumbnail_status = 'PENDING';
+
+-- Backfill: asset upload trước khi có thumbnail_status. Ảnh (định dạng ImageIO đọc được) chưa có thumbnail,
+-- thường từ client mobile, được tạo bù; định dạng khác để UNSUPPORTED (idempotent)
+UPDATE arkive.asset SET thumbnail_status = CASE
+        WHEN thumbnail_key IS NOT NULL OR thumbnail_url IS NOT NULL THEN 'READY'
+        WHEN file_type IN ('image/jpeg', 'image/png', 'image/gif', 'image/bmp', 'image/tiff') THEN 'PENDING'
+        ELSE 'UNSUPPORTED'
+    END
+    WHERE thumbnail_status IS NULL;
+
+-- MediaMetadataJob lấy asset chưa đọc metadata theo thứ tự upload, chỉ index các dòng chưa đọc
+-- (asset cũ đều chưa đọc: job tự backfill)
+CREATE INDEX IF NOT EXISTS idx_asset_metadata_pending
+    ON arkive.asset (created_at)
+    WHERE metadata_extracted_at IS NULL;
+
+-- PerceptualHashJob lấy asset chưa tính perceptual hash theo thứ tự upload, chỉ index các dòng chưa tính
+CREATE INDEX IF NOT EXISTS idx_asset_perceptual_hash_pending
+    ON arkive.asset (created_at)
+    WHERE perceptual_hashed_at IS NULL;
+
+-- SimilarAssetService nạp các hash mới theo (perceptual_hashed_at, id)
+CREATE INDEX IF NOT EXISTS idx_asset_perceptual_hashed
+    ON arkive.asset (perceptual_hashed_at, id)
+    WHERE perceptual_hash IS NOT NULL;
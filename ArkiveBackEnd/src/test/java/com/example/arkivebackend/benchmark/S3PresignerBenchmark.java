@@ -0,0 +1,121 @@
+package com.example.arkivebackend.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.arkivebackend.dto.request.AssetUploadBatchRequest;
+import com.example.arkivebackend.dto.response.BatchPresignedUrlResponse;
+import com.example.arkivebackend.dto.response.PresignedUrlResponse;
+import com.example.arkivebackend.service.impl.StorageServiceImpl;
+import com.example.arkivebackend.util.PresignedUrlCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Đo chi phí ký presigned URL (thuần CPU, không gọi mạng): một URL, và cả lô qua
+ * StorageServiceImpl.generatePresignedUploadUrls (tuần tự khi lô nhỏ, song song khi lô lớn).
+ *
+ * Chạy:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.example.arkivebackend.benchmark.S3PresignerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class S3PresignerBenchmark {
+
+    @Param({"1", "16", "500"})
+    int batchSize;
+
+    S3Client s3Client;
+    S3Presigner s3Presigner;
+    StorageServiceImpl storageService;
+    List<AssetUploadBatchRequest.Item> files;
+
+    @Setup
+    public void setUp() {
+        // Không đo chi phí ghi log (không có Spring nên logback mặc định in DEBUG ra console)
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        // Cùng cấu hình với S3Config, endpoint giả: presigner không mở kết nối
+        var credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create("access-key", "secret-key"));
+        URI endpoint = URI.create("https://account.r2.cloudflarestorage.com");
+        s3Client = S3Client.builder().region(Region.of("auto")).credentialsProvider(credentials).endpointOverride(endpoint).build();
+        s3Presigner = S3Presigner.builder().region(Region.of("auto")).credentialsProvider(credentials).endpointOverride(endpoint).build();
+
+        storageService = new StorageServiceImpl(s3Client, null /* chỉ ký URL, không gọi S3 bất đồng bộ */, s3Presigner,
+                new PresignedUrlCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5)));
+        ReflectionTestUtils.setField(storageService, "bucketName", "assets");
+        ReflectionTestUtils.setField(storageService, "thumbnailBucketName", "thumbnails");
+
+        files = IntStream.range(0, batchSize)
+                .mapToObj(i -> AssetUploadBatchRequest.Item.builder()
+                        .fileName("IMG_" + i + ".jpg")
+                        .contentType("image/jpeg")
+                        .size(4_000_000L)
+                        .build())
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        s3Presigner.close();
+        s3Client.close();
+    }
+
+    /**
+     * Cách cũ: mỗi file ký 2 URL tuần tự (1 request HTTP cho mỗi URL)
+     */
+    @Benchmark
+    public int signSequentially() {
+        int length = 0;
+        for (AssetUploadBatchRequest.Item file : files) {
+            PresignedUrlResponse original = storageService.generatePresignedUploadUrl(file.getFileName(), file.getContentType(), null);
+            PresignedUrlResponse thumbnail = storageService.generatePresignedThumbnailUrl(file.getFileName(), "image/jpeg");
+            length += original.getUrl().length() + thumbnail.getUrl().length();
+        }
+        return length;
+    }
+
+    /**
+     * Endpoint batch: cả lô trong một lời gọi, ký song song khi lô đủ lớn
+     */
+    @Benchmark
+    public List<BatchPresignedUrlResponse> signBatch() {
+        return storageService.generatePresignedUploadUrls(files);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(S3PresignerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
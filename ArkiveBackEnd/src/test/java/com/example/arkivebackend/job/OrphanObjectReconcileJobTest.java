@@ -0,0 +1,104 @@
+package com.example.arkivebackend.job;
+
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.service.StorageService.StoredObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrphanObjectReconcileJobTest {
+
+    static final Instant CUTOFF = Instant.parse("2025-01-10T00:00:00Z");
+    static final Instant OLD = CUTOFF.minus(Duration.ofDays(3));
+
+    AssetRepository assetRepository = mock(AssetRepository.class);
+    StorageService storageService = mock(StorageService.class);
+    OrphanObjectReconcileJob job = new OrphanObjectReconcileJob(assetRepository, storageService);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deletesOldUnreferencedObjectsInBatchesOfAtMostThousand() {
+        // 3 trang x 1000 object cũ, cứ object chẵn là còn asset tham chiếu -> 1500 object rác
+        doAnswer(invocation -> {
+            Consumer<List<StoredObject>> consumer = invocation.getArgument(1);
+            for (int page = 0; page < 3; page++) {
+                int offset = page * 1000;
+                consumer.accept(IntStream.range(offset, offset + 1000)
+                        .mapToObj(i -> new StoredObject("key-" + i, OLD, 10))
+                        .toList());
+            }
+            return null;
+        }).when(storageService).forEachObjectPage(eq(StorageBucket.ASSETS), any());
+        when(assetRepository.findExistingStorageKeys(anyCollection())).thenAnswer(invocation ->
+                ((Collection<String>) invocation.getArgument(0)).stream()
+                        .filter(key -> Integer.parseInt(key.substring(4)) % 2 == 0)
+                        .collect(Collectors.toSet()));
+        when(storageService.deleteObjects(eq(StorageBucket.ASSETS), anyCollection())).thenAnswer(invocation -> {
+            assertThat((Collection<String>) invocation.getArgument(1)).hasSizeLessThanOrEqualTo(1000);
+            return CompletableFuture.completedFuture(Set.of());
+        });
+
+        var pass = job.reconcile(StorageBucket.ASSETS, CUTOFF);
+
+        assertThat(pass.scanned).isEqualTo(3000);
+        assertThat(pass.orphans).isEqualTo(1500);
+        assertThat(pass.deleted).isEqualTo(1500);
+        assertThat(pass.orphanBytes).isEqualTo(15000);
+        verify(assetRepository, times(3)).findExistingStorageKeys(anyCollection());
+        verify(storageService, times(2)).deleteObjects(eq(StorageBucket.ASSETS), anyCollection());
+    }
+
+    @Test
+    void keepsObjectsYoungerThanTheGracePeriodAndSkipsTheLookup() {
+        doAnswer(invocation -> {
+            Consumer<List<StoredObject>> consumer = invocation.getArgument(1);
+            consumer.accept(List.of(new StoredObject("pending-upload.jpg", CUTOFF.plusSeconds(60), 10)));
+            return null;
+        }).when(storageService).forEachObjectPage(eq(StorageBucket.THUMBNAILS), any());
+
+        var pass = job.reconcile(StorageBucket.THUMBNAILS, CUTOFF);
+
+        assertThat(pass.orphans).isZero();
+        verify(assetRepository, never()).findExistingThumbnailKeys(anyCollection());
+        verify(storageService, never()).deleteObjects(any(), anyCollection());
+    }
+
+    @Test
+    void dryRunCountsOrphansWithoutDeleting() {
+        ReflectionTestUtils.setField(job, "dryRun", true);
+        doAnswer(invocation -> {
+            Consumer<List<StoredObject>> consumer = invocation.getArgument(1);
+            consumer.accept(List.of(new StoredObject("orphan.jpg", OLD, 10)));
+            return null;
+        }).when(storageService).forEachObjectPage(eq(StorageBucket.THUMBNAILS), any());
+        when(assetRepository.findExistingThumbnailKeys(anyCollection())).thenReturn(Set.of());
+
+        var pass = job.reconcile(StorageBucket.THUMBNAILS, CUTOFF);
+
+        assertThat(pass.orphans).isEqualTo(1);
+        assertThat(pass.deleted).isZero();
+        verify(storageService, never()).deleteObjects(any(), anyCollection());
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.arkivebackend.repository;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.entity.Collection;
+import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.enums.AssetSortField;
+import com.example.arkivebackend.enums.TagMatchMode;
+import com.example.arkivebackend.repository.projection.AssetHashRef;
+import com.example.arkivebackend.repository.projection.AssetSummary;
+import com.example.arkivebackend.util.CursorUtil;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class AssetRepositoryTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    AssetRepository assetRepository;
+
+    String ownerId;
+    String collectionId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .username("owner")
+                .email("owner@example.com")
+                .password("secret")
+                .build());
+        ownerId = owner.getId();
+        Collection collection = entityManager.persist(Collection.builder()
+                .name("Photos")
+                .owner(owner)
+                .build());
+        collectionId = collection.getId();
+
+        for (int i = 0; i < 25; i++) {
+            entityManager.persist(Asset.builder()
+                    .filename("photo-" + i + ".jpg")
+                    .storageKey("key-" + i)
+                    .fileType("image/jpeg")
+                    .fileSize(1000L + i)
+                    .tags(Set.of("tag-" + (i % 3)))
+                    // Metadata có giá trị trùng nhau và null xen kẽ: keyset phải đi qua cả các dòng null
+                    .takenAt(i % 5 == 0 ? null : LocalDateTime.of(2024, 1, 1 + i % 3, 12, 0))
+                    .width(i % 3 == 0 ? null : 640 + i % 4)
+                    .height(i % 3 == 0 ? null : 480 + i % 2)
+                    // Chuỗi rỗng (EXIF rỗng) khác null: cursor không được nhầm hai nhóm
+                    .cameraModel(i % 4 == 0 ? null : i % 4 == 1 ? "" : "Model " + i % 2)
+                    .collection(collection)
+                    .isDeleted(false)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void searchAssets_usesOneSelectAndOneCountPerPage() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Page<AssetSummary> page = assetRepository.searchSummaries(
+                filter("photo"), PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        // Đọc mọi field như mapper sẽ làm: không được sinh thêm câu SQL nào
+        page.forEach(summary -> {
+            assertThat(summary.getCollectionId()).isEqualTo(collectionId);
+            assertThat(summary.getTags()).hasSize(1);
+        });
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(session().getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void searchAssets_treatsLikeWildcardsInTheKeywordLiterally() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "createdAt");
+
+        assertThat(assetRepository.searchSummaries(filter("%"), PageRequest.of(0, 10, sort)).getTotalElements()).isZero();
+        assertThat(assetRepository.searchSummaries(filter("photo_1"), PageRequest.of(0, 10, sort)).getTotalElements()).isZero();
+        assertThat(assetRepository.searchSummaries(filter("PHOTO-1"), PageRequest.of(0, 10, sort)).getTotalElements())
+                .isEqualTo(11); // photo-1, photo-10 .. photo-19
+    }
+
+    @Test
+    void findSummariesByCollectionId_doesNotHydrateEntities() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        var summaries = assetRepository.findSummariesByCollectionId(collectionId);
+
+        assertThat(summaries).hasSize(25);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(session().getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void findActiveSummariesByCollectionId_leavesOutTrashedAssets() {
+        Asset trashed = assetRepository.findAll().get(0);
+        trashed.setIsDeleted(true);
+        trashed.setDeletedAt(LocalDateTime.now());
+        entityManager.flush();
+        entityManager.clear();
+
+        var summaries = assetRepository.findActiveSummariesByCollectionId(collectionId);
+
+        assertThat(summaries).hasSize(24).extracting(AssetSummary::getId).doesNotContain(trashed.getId());
+    }
+
+    @Test
+    void streamPerceptualHashes_includesTrashedAssetsSoRestoringThemNeedsNoRebuild() {
+        List<Asset> assets = assetRepository.findAll();
+        assets.get(0).setPerceptualHash(1L);
+        assets.get(0).setPerceptualHashedAt(LocalDateTime.now());
+        assets.get(1).setPerceptualHash(2L);
+        assets.get(1).setPerceptualHashedAt(LocalDateTime.now());
+        assets.get(1).setIsDeleted(true);
+        entityManager.flush();
+        entityManager.clear();
+
+        try (var hashes = assetRepository.streamPerceptualHashes()) {
+            assertThat(hashes.map(AssetHashRef::getId))
+                    .containsExactlyInAnyOrder(assets.get(0).getId(), assets.get(1).getId());
+        }
+    }
+
+    @Test
+    void findDeletedSummariesByOwnerId_returnsOnlyTheOwnersTrashNewestDeletionFirst() {
+        List<Asset> trashed = assetRepository.findAll().stream().limit(3).toList();
+        for (int i = 0; i < trashed.size(); i++) {
+            trashed.get(i).setIsDeleted(true);
+            trashed.get(i).setDeletedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Page<AssetSummary> trash = assetRepository.findDeletedSummariesByOwnerId(
+                ownerId, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "deletedAt", "id")));
+        Page<AssetSummary> otherUsersTrash = assetRepository.findDeletedSummariesByOwnerId(
+                "someone-else", PageRequest.of(0, 2));
+
+        assertThat(trash.getTotalElements()).isEqualTo(3);
+        assertThat(trash.getContent()).extracting(AssetSummary::getId)
+                .containsExactly(trashed.get(2).getId(), trashed.get(1).getId());
+        assertThat(otherUsersTrash.getTotalElements()).isZero();
+        assertThat(session().getStatistics().getEntityCount()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(AssetSortField.class)
+    void findSummariesAfter_walksEveryRowOnceForEachSortField(AssetSortField sortField) {
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<String> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                CursorUtil.Position after = cursor == null ? null : CursorUtil.decode(cursor, sortField, direction);
+                List<AssetSummary> rows = assetRepository.findSummariesAfter(filter(""), sortField, direction,
+                        after == null ? null : after.value(), after == null ? null : after.id(), 7);
+                rows.forEach(row -> seen.add(row.getId()));
+                cursor = rows.size() == 7 ? CursorUtil.encode(sortField, direction, rows.get(6)) : null;
+            } while (cursor != null);
+
+            assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void findExistingStorageKeys_returnsOnlyReferencedKeys() {
+        assertThat(assetRepository.findExistingStorageKeys(List.of("key-1", "key-24", "orphan")))
+                .containsExactlyInAnyOrder("key-1", "key-24");
+    }
+
+    @Test
+    void backfillThumbnailKeys_extractsKeyFromLegacyThumbnailUrl() {
+        Asset legacy = assetRepository.findAll().get(0);
+        legacy.setThumbnailUrl("https://cdn.example.com/3f2a-photo.jpg");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(assetRepository.backfillThumbnailKeys()).isEqualTo(1);
+        assertThat(assetRepository.findExistingThumbnailKeys(List.of("3f2a-photo.jpg", "orphan.jpg")))
+                .containsExactly("3f2a-photo.jpg");
+    }
+
+    private AssetSearchRepository.Filter filter(String keyword) {
+        return new AssetSearchRepository.Filter(collectionId, keyword, null, TagMatchMode.ANY);
+    }
+
+    private Session session() {
+        return entityManager.getEntityManager().unwrap(Session.class);
+    }
+
+    private Statistics statistics() {
+        return session().getSessionFactory().getStatistics();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.arkivebackend.repository;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.entity.Collection;
+import com.example.arkivebackend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CollectionRepositoryTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    CollectionRepository collectionRepository;
+
+    String collectionId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .username("owner")
+                .email("owner@example.com")
+                .password("secret")
+                .build());
+        Collection collection = entityManager.persist(Collection.builder()
+                .name("Photos")
+                .owner(owner)
+                .build());
+        collectionId = collection.getId();
+
+        for (int i = 0; i < 4; i++) {
+            entityManager.persist(Asset.builder()
+                    .filename("photo-" + i + ".jpg")
+                    .storageKey("key-" + i)
+                    .fileType("image/jpeg")
+                    .fileSize(100L)
+                    .collection(collection)
+                    .isDeleted(i == 3) // 1 asset nằm trong thùng rác
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void incrementAndDecrement_adjustCountersInPlace() {
+        LocalDateTime uploadedAt = LocalDateTime.now();
+
+        collectionRepository.incrementAssetStats(collectionId, 2, 300L, uploadedAt);
+        collectionRepository.decrementAssetStats(collectionId, 1, 100L);
+        entityManager.clear();
+
+        Collection collection = entityManager.find(Collection.class, collectionId);
+        assertThat(collection.getAssetCount()).isEqualTo(1);
+        assertThat(collection.getTotalBytes()).isEqualTo(200L);
+        assertThat(collection.getLastAssetAt()).isNotNull(); // Tính lại từ các asset còn sống
+    }
+
+    @Test
+    void recomputeAssetStats_countsOnlyLiveAssets() {
+        List<String> ids = collectionRepository.findIdsAfter("", Limit.of(10));
+
+        int updated = collectionRepository.recomputeAssetStats(ids);
+        entityManager.clear();
+
+        Collection collection = entityManager.find(Collection.class, collectionId);
+        assertThat(updated).isEqualTo(1);
+        assertThat(collection.getAssetCount()).isEqualTo(3);
+        assertThat(collection.getTotalBytes()).isEqualTo(300L);
+        assertThat(collection.getLastAssetAt()).isNotNull();
+    }
+}
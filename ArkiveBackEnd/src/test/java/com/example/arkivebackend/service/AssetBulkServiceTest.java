@@ -0,0 +1,206 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.dto.request.BulkAssetRequest;
+import com.example.arkivebackend.dto.response.BulkAssetResponse;
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.entity.Collection;
+import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.enums.BulkItemStatus;
+import com.example.arkivebackend.entity.PendingObjectDeletion;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.service.impl.AssetBulkServiceImpl;
+import com.example.arkivebackend.service.impl.ObjectDeletionServiceImpl;
+import com.example.arkivebackend.service.impl.StoredBlobServiceImpl;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({AssetBulkServiceImpl.class, ObjectDeletionServiceImpl.class, StoredBlobServiceImpl.class})
+class AssetBulkServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    AssetBulkService assetBulkService;
+
+    @MockitoBean
+    StorageService storageService;
+
+    String sourceId;
+    String targetId;
+    String foreignAssetId;
+    List<String> assetIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User owner = persistUser("owner");
+        User stranger = persistUser("stranger");
+        Collection source = persistCollection("Source", owner, 5, 500L);
+        sourceId = source.getId();
+        targetId = persistCollection("Target", owner, 0, 0L).getId();
+        Collection foreign = persistCollection("Foreign", stranger, 1, 100L);
+
+        for (int i = 0; i < 5; i++) {
+            assetIds.add(persistAsset("key-" + i, source, false).getId());
+        }
+        assetIds.add(persistAsset("key-trash", source, true).getId());
+        foreignAssetId = persistAsset("key-foreign", foreign, false).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("owner")
+                .claim("userId", owner.getId())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void delete_reportsPerIdStatusWithSetBasedStatements() {
+        List<String> requested = new ArrayList<>(assetIds);
+        requested.add(assetIds.get(0)); // id trùng
+        requested.add(foreignAssetId);
+        requested.add("missing");
+        statistics().clear();
+
+        BulkAssetResponse response = assetBulkService.delete(BulkAssetRequest.builder().assetIds(requested).build());
+        entityManager.flush();
+
+        assertThat(response.getRequested()).isEqualTo(8);
+        assertThat(response.getSucceeded()).isEqualTo(5);
+        assertThat(response.getResults()).extracting(BulkAssetResponse.Item::getStatus).containsExactly(
+                BulkItemStatus.SUCCESS, BulkItemStatus.SUCCESS, BulkItemStatus.SUCCESS, BulkItemStatus.SUCCESS,
+                BulkItemStatus.SUCCESS, BulkItemStatus.SKIPPED, BulkItemStatus.NOT_FOUND, BulkItemStatus.NOT_FOUND);
+        // select quyền sở hữu + update asset + update thống kê collection
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(3);
+
+        entityManager.clear();
+        assertThat(entityManager.find(Asset.class, foreignAssetId).getIsDeleted()).isFalse();
+        assertThat(entityManager.find(Collection.class, sourceId).getAssetCount()).isZero();
+        assertThat(entityManager.find(Collection.class, sourceId).getTotalBytes()).isZero();
+    }
+
+    @Test
+    void move_updatesBothCollectionsCounters() {
+        assetBulkService.move(BulkAssetRequest.builder()
+                .assetIds(assetIds.subList(0, 2))
+                .targetCollectionId(targetId)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.find(Asset.class, assetIds.get(0)).getCollection().getId()).isEqualTo(targetId);
+        assertThat(entityManager.find(Collection.class, sourceId).getAssetCount()).isEqualTo(3);
+        Collection target = entityManager.find(Collection.class, targetId);
+        assertThat(target.getAssetCount()).isEqualTo(2);
+        assertThat(target.getTotalBytes()).isEqualTo(200L);
+        assertThat(target.getLastAssetAt()).isNotNull();
+    }
+
+    @Test
+    void tag_skipsAssetsWhoseTagsWouldNotChangeWithoutRunningTheUpdate() {
+        entityManager.find(Asset.class, assetIds.get(0)).setTags(Set.of("beach", "summer"));
+        entityManager.find(Asset.class, assetIds.get(1)).setTags(Set.of("beach"));
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+
+        // Thêm tag đã có (sau chuẩn hoá) và bỏ tag không có: không asset nào đổi
+        BulkAssetResponse response = assetBulkService.tag(BulkAssetRequest.builder()
+                .assetIds(assetIds.subList(0, 2))
+                .addTags(Set.of(" Beach "))
+                .removeTags(Set.of("winter"))
+                .build());
+
+        assertThat(response.getSucceeded()).isZero();
+        assertThat(response.getResults()).extracting(BulkAssetResponse.Item::getStatus)
+                .containsExactly(BulkItemStatus.SKIPPED, BulkItemStatus.SKIPPED);
+        // chỉ có câu select quyền sở hữu, không UPDATE
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void permanentDelete_queuesObjectsInsteadOfCallingStorage() {
+        BulkAssetResponse response = assetBulkService.delete(BulkAssetRequest.builder()
+                .assetIds(assetIds.subList(0, 2))
+                .permanent(true)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(response.getResults()).extracting(BulkAssetResponse.Item::getStatus)
+                .containsExactly(BulkItemStatus.SUCCESS, BulkItemStatus.SUCCESS);
+        assertThat(entityManager.find(Asset.class, assetIds.get(0))).isNull();
+        assertThat(entityManager.find(Asset.class, assetIds.get(1))).isNull();
+        assertThat(entityManager.find(Collection.class, sourceId).getAssetCount()).isEqualTo(3);
+        // Object trên storage nằm trong outbox, ObjectDeletionWorker xoá sau
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT d FROM PendingObjectDeletion d", PendingObjectDeletion.class)
+                .getResultList())
+                .extracting(PendingObjectDeletion::getBucket, PendingObjectDeletion::getStorageKey)
+                .containsExactlyInAnyOrder(
+                        tuple(StorageBucket.ASSETS, "key-0"),
+                        tuple(StorageBucket.ASSETS, "key-1"));
+        verifyNoInteractions(storageService);
+    }
+
+    private User persistUser(String username) {
+        return entityManager.persist(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .build());
+    }
+
+    private Collection persistCollection(String name, User owner, int assetCount, long totalBytes) {
+        return entityManager.persist(Collection.builder()
+                .name(name)
+                .owner(owner)
+                .assetCount(assetCount)
+                .totalBytes(totalBytes)
+                .build());
+    }
+
+    private Asset persistAsset(String storageKey, Collection collection, boolean deleted) {
+        return entityManager.persist(Asset.builder()
+                .filename(storageKey + ".jpg")
+                .storageKey(storageKey)
+                .fileType("image/jpeg")
+                .fileSize(100L)
+                .collection(collection)
+                .isDeleted(deleted)
+                .build());
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManager().unwrap(Session.class).getSessionFactory().getStatistics();
+    }
+}
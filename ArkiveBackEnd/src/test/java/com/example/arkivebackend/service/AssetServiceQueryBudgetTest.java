@@ -0,0 +1,288 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.dto.request.AssetUploadCompleteBatchRequest;
+import com.example.arkivebackend.dto.request.AssetUploadCompleteRequest;
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.entity.Collection;
+import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.mapper.AssetMapperImpl;
+import com.example.arkivebackend.mapper.AssetResponseAssembler;
+import com.example.arkivebackend.service.impl.AssetServiceImpl;
+import com.example.arkivebackend.service.impl.ObjectDeletionServiceImpl;
+import com.example.arkivebackend.service.impl.StoredBlobServiceImpl;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ngân sách số câu SQL cho các endpoint theo từng asset: mỗi endpoint đọc chỉ được phép 1 câu
+ * (asset + kiểm tra quyền sở hữu), không còn truy vấn users hay lazy-load collection/owner.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({AssetServiceImpl.class, AssetMapperImpl.class, AssetResponseAssembler.class, ObjectDeletionServiceImpl.class,
+        StoredBlobServiceImpl.class})
+class AssetServiceQueryBudgetTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    AssetService assetService;
+
+    @MockitoBean
+    StorageService storageService;
+
+    @MockitoBean
+    ThumbnailService thumbnailService;
+
+    String assetId;
+    String ownerId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .username("owner")
+                .email("owner@example.com")
+                .password("secret")
+                .build());
+        ownerId = owner.getId();
+        Collection collection = entityManager.persist(Collection.builder()
+                .name("Photos")
+                .owner(owner)
+                .build());
+        assetId = entityManager.persist(Asset.builder()
+                .filename("photo.jpg")
+                .storageKey("key")
+                .fileType("image/jpeg")
+                .fileSize(1000L)
+                .tags(Set.of("tag"))
+                .collection(collection)
+                .isDeleted(false)
+                .build()).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        authenticateAs(ownerId);
+        statistics().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getAssetById_usesOneStatement() {
+        assertThat(assetService.getAssetById(assetId).getId()).isEqualTo(assetId);
+        assertStatements(1);
+    }
+
+    @Test
+    void getDownloadUrl_usesOneStatement() {
+        assetService.getDownloadUrl(assetId);
+        assertStatements(1);
+    }
+
+    @Test
+    void getPreviewUrl_usesOneStatement() {
+        assetService.getPreviewUrl(assetId);
+        assertStatements(1);
+    }
+
+    @Test
+    void softDeleteAsset_usesOneReadAndTwoUpdates() {
+        assetService.softDeleteAsset(assetId);
+        entityManager.flush();
+        assertStatements(3); // select asset, update asset, update thống kê collection
+    }
+
+    @Test
+    void otherUsersAsset_isNotFoundAfterOneStatement() {
+        authenticateAs("someone-else");
+
+        assertThatThrownBy(() -> assetService.getDownloadUrl(assetId))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.ASSET_NOT_FOUND);
+        assertStatements(1);
+    }
+
+    @Test
+    void completeUploadBatch_insertsThousandAssetsInJdbcBatches() {
+        String collectionId = entityManager.find(Asset.class, assetId).getCollection().getId();
+        entityManager.clear();
+        statistics().clear();
+        var items = IntStream.range(0, 1000)
+                .mapToObj(i -> AssetUploadCompleteBatchRequest.Item.builder()
+                        .storageKey("batch-" + i)
+                        .fileName("batch-" + i + ".jpg")
+                        .contentType("image/jpeg")
+                        .fileSize(10L)
+                        .build())
+                .toList();
+        when(storageService.headObjects(anyCollection())).thenAnswer(invocation -> {
+            java.util.Collection<String> keys = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(keys.stream().collect(Collectors.toMap(Function.identity(),
+                    key -> new StorageService.ObjectMetadata(2048L, "\"etag-" + key + "\"", "image/jpeg", null))));
+        });
+
+        var assets = assetService.completeUploadBatch(AssetUploadCompleteBatchRequest.builder()
+                .collectionId(collectionId)
+                .items(items)
+                .build());
+
+        assertThat(assets).hasSize(1000);
+        // Kích thước lấy từ HeadObject, không phải giá trị client khai báo; cả lô chỉ một lời gọi headObjects
+        assertThat(assets).allSatisfy(asset -> assertThat(asset.getFileSize()).isEqualTo(2048L));
+        verify(storageService, times(1)).headObjects(anyCollection());
+        // exists(collection) + kiểm tra key (asset, blob, outbox xoá) + một PreparedStatement INSERT dùng lại
+        // cho mọi batch + update thống kê
+        assertThat(statistics().getEntityInsertCount()).isEqualTo(1000);
+        assertStatements(6);
+    }
+
+    @Test
+    void completeUploadBatch_rejectsObjectMissingFromStorage() {
+        String collectionId = entityManager.find(Asset.class, assetId).getCollection().getId();
+        entityManager.clear();
+        when(storageService.headObjects(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        assertThatThrownBy(() -> assetService.completeUploadBatch(AssetUploadCompleteBatchRequest.builder()
+                .collectionId(collectionId)
+                .items(List.of(AssetUploadCompleteBatchRequest.Item.builder()
+                        .storageKey("never-uploaded")
+                        .fileName("ghost.jpg")
+                        .contentType("image/jpeg")
+                        .fileSize(10L)
+                        .build()))
+                .build()))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.UPLOADED_OBJECT_NOT_FOUND);
+    }
+
+    @Test
+    void completeUpload_twiceWithTheSameKeyIsRejectedSoDeletingTheAssetFreesTheObjectOnce() {
+        String collectionId = entityManager.find(Asset.class, assetId).getCollection().getId();
+        entityManager.clear();
+        when(storageService.headObjects(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of("retried",
+                new StorageService.ObjectMetadata(2048L, "\"etag\"", "image/jpeg", null))));
+        AssetUploadCompleteRequest request = new AssetUploadCompleteRequest();
+        request.setStorageKey("retried");
+        request.setFileName("retried.jpg");
+        request.setContentType("image/jpeg");
+        request.setFileSize(2048L);
+        request.setCollectionId(collectionId);
+
+        String registered = assetService.completeUpload(request).getId();
+        entityManager.flush();
+        // Request lặp lại (client retry), hoặc cùng key hai lần trong một lô
+        assertThatThrownBy(() -> assetService.completeUpload(request))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.STORAGE_KEY_ALREADY_USED);
+        assertThatThrownBy(() -> assetService.completeUploadBatch(AssetUploadCompleteBatchRequest.builder()
+                .collectionId(collectionId)
+                .items(List.of(batchItem("twice"), batchItem("twice")))
+                .build()))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.STORAGE_KEY_ALREADY_USED);
+
+        assetService.hardDeleteAsset(registered);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT a.storageKey FROM Asset a", String.class)
+                .getResultList()).containsExactly("key");
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT d.storageKey FROM PendingObjectDeletion d", String.class)
+                .getResultList()).containsExactly("retried");
+    }
+
+    @Test
+    void getAssetsByCollectionId_signsEveryThumbnailInOneCall() {
+        Asset existing = entityManager.find(Asset.class, assetId);
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(Asset.builder()
+                    .filename("thumb-" + i + ".jpg")
+                    .storageKey("thumb-key-" + i)
+                    .thumbnailKey("thumb-" + i + ".jpg")
+                    .thumbnailUrl("https://public/thumb-" + i + ".jpg")
+                    .fileType("image/jpeg")
+                    .fileSize(10L)
+                    .collection(existing.getCollection())
+                    .isDeleted(false)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        when(storageService.generatePresignedThumbnailUrls(anyCollection())).thenAnswer(invocation -> {
+            java.util.Collection<String> keys = invocation.getArgument(0);
+            return keys.stream().collect(Collectors.toMap(Function.identity(), key -> "https://signed/" + key));
+        });
+
+        var assets = assetService.getAssetsByCollectionId(existing.getCollection().getId());
+
+        assertThat(assets).hasSize(4);
+        assertThat(assets).filteredOn(asset -> asset.getThumbnailUrl() != null)
+                .allSatisfy(asset -> assertThat(asset.getThumbnailUrl()).startsWith("https://signed/"));
+        verify(storageService, times(1)).generatePresignedThumbnailUrls(anyCollection());
+    }
+
+    private static AssetUploadCompleteBatchRequest.Item batchItem(String storageKey) {
+        return AssetUploadCompleteBatchRequest.Item.builder()
+                .storageKey(storageKey)
+                .fileName(storageKey + ".jpg")
+                .contentType("image/jpeg")
+                .fileSize(10L)
+                .build();
+    }
+
+    private void assertStatements(long expected) {
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(expected);
+    }
+
+    private void authenticateAs(String userId) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("owner")
+                .claim("userId", userId)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManager().unwrap(Session.class).getSessionFactory().getStatistics();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.entity.PendingObjectDeletion;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.repository.PendingObjectDeletionRepository;
+import com.example.arkivebackend.service.impl.ObjectDeletionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ObjectDeletionServiceImpl.class)
+class ObjectDeletionServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ObjectDeletionService objectDeletionService;
+
+    @Autowired
+    PendingObjectDeletionRepository pendingObjectDeletionRepository;
+
+    @MockitoBean
+    StorageService storageService;
+
+    @Test
+    void enqueueSkipsBlankAndDuplicateKeys() {
+        objectDeletionService.enqueue(StorageBucket.THUMBNAILS, Arrays.asList("a.jpg", null, "a.jpg", " "));
+
+        assertThat(pendingObjectDeletionRepository.findAll())
+                .extracting(PendingObjectDeletion::getStorageKey)
+                .containsExactly("a.jpg");
+    }
+
+    @Test
+    void deletedKeysLeaveTheQueueAndFailedKeysBackOff() {
+        objectDeletionService.enqueue(StorageBucket.ASSETS, List.of("ok", "denied"));
+        objectDeletionService.enqueue(StorageBucket.THUMBNAILS, List.of("thumb"));
+        when(storageService.deleteObjects(eq(StorageBucket.ASSETS), anyCollection())).thenReturn(CompletableFuture.completedFuture(Set.of("denied")));
+        when(storageService.deleteObjects(eq(StorageBucket.THUMBNAILS), anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(SdkClientException.create("connection timed out")));
+        flushAndClear();
+
+        assertThat(objectDeletionService.processDueBatch()).isEqualTo(3);
+        flushAndClear();
+
+        List<PendingObjectDeletion> remaining = pendingObjectDeletionRepository.findAll();
+        assertThat(remaining).extracting(PendingObjectDeletion::getStorageKey).containsExactlyInAnyOrder("denied", "thumb");
+        assertThat(remaining).allSatisfy(deletion -> {
+            assertThat(deletion.getAttempts()).isEqualTo(1);
+            assertThat(deletion.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(20));
+        });
+        assertThat(remaining).filteredOn(deletion -> deletion.getStorageKey().equals("thumb"))
+                .extracting(PendingObjectDeletion::getLastError)
+                .containsExactly("connection timed out");
+
+        // Chưa tới hạn thử lại: lô tiếp theo rỗng
+        assertThat(objectDeletionService.processDueBatch()).isZero();
+    }
+
+    @Test
+    void emptyQueueDoesNotCallStorage() {
+        assertThat(objectDeletionService.processDueBatch()).isZero();
+        verifyNoInteractions(storageService);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.mapper.AssetResponseAssembler;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.repository.projection.AssetHashRef;
+import com.example.arkivebackend.service.impl.SimilarAssetServiceImpl;
+import com.example.arkivebackend.util.HammingBkTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SimilarAssetServiceTest {
+
+    static final LocalDateTime HASHED_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+    static final String SMALL_ID = "00000000-0000-0000-0000-000000000001";
+    static final String LARGE_ID = "00000000-0000-0000-0000-000000000009";
+
+    AssetRepository assetRepository = mock(AssetRepository.class);
+    SimilarAssetServiceImpl similarAssetService = new SimilarAssetServiceImpl(assetRepository, mock(AssetResponseAssembler.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(similarAssetService, "refreshLookback", Duration.ofMinutes(5));
+        when(assetRepository.streamPerceptualHashes()).thenReturn(Stream.empty());
+        similarAssetService.rebuild();
+    }
+
+    @Test
+    void refreshLoadsRowsCommittedLateWithTheSameTimestampOnce() {
+        AssetHashRef small = hash(SMALL_ID);
+        AssetHashRef large = hash(LARGE_ID);
+        // Lượt 1 chỉ thấy LARGE_ID; SMALL_ID cùng mốc thời gian commit sau đó
+        when(assetRepository.findPerceptualHashesAfter(any(), any(), any(Limit.class))).thenReturn(List.of(large));
+        assertThat(similarAssetService.refresh()).isEqualTo(1);
+
+        when(assetRepository.findPerceptualHashesAfter(eq(HASHED_AT.minusMinutes(5)), eq(""), any(Limit.class)))
+                .thenReturn(List.of(small, large));
+        assertThat(similarAssetService.refresh()).isEqualTo(1);
+        assertThat(similarAssetService.refresh()).isZero();
+
+        assertThat(tree().search(0L, 0)).extracting(HammingBkTree.Match::id)
+                .containsExactlyInAnyOrder(UUID.fromString(SMALL_ID), UUID.fromString(LARGE_ID));
+    }
+
+    private HammingBkTree tree() {
+        @SuppressWarnings("unchecked")
+        Map<String, HammingBkTree> trees = (Map<String, HammingBkTree>) ReflectionTestUtils.getField(similarAssetService, "trees");
+        return trees.get("owner");
+    }
+
+    private static AssetHashRef hash(String id) {
+        AssetHashRef ref = mock(AssetHashRef.class);
+        when(ref.getId()).thenReturn(id);
+        when(ref.getOwnerId()).thenReturn("owner");
+        when(ref.getPerceptualHash()).thenReturn(0L);
+        when(ref.getPerceptualHashedAt()).thenReturn(HASHED_AT);
+        return ref;
+    }
+}
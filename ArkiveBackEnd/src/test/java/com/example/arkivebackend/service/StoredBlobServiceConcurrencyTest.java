@@ -0,0 +1,115 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.entity.StoredBlob;
+import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.repository.StoredBlobRepository;
+import com.example.arkivebackend.repository.UserRepository;
+import com.example.arkivebackend.service.impl.ObjectDeletionServiceImpl;
+import com.example.arkivebackend.service.impl.StoredBlobServiceImpl;
+import com.example.arkivebackend.util.ContentHashUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hai transaction thật chạy song song (không dùng transaction rollback của @DataJpaTest), dọn dữ liệu sau mỗi test.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({StoredBlobServiceImpl.class, ObjectDeletionServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StoredBlobServiceConcurrencyTest {
+
+    static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Autowired
+    StoredBlobService storedBlobService;
+
+    @Autowired
+    StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    StorageService storageService;
+
+    String ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userRepository.save(User.builder()
+                .username("owner")
+                .email("owner@example.com")
+                .password("secret")
+                .build()).getId();
+        when(storageService.headObjects(anyCollection())).thenAnswer(invocation -> {
+            String key = invocation.<java.util.Collection<String>>getArgument(0).iterator().next();
+            return CompletableFuture.completedFuture(Map.of(key,
+                    new StorageService.ObjectMetadata(42, "\"etag\"", "image/jpeg", ContentHashUtil.toS3Checksum(HASH))));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        storedBlobRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentUploadsOfTheSameNewFileShareOneBlob() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        // Transaction 1 tạo blob rồi giữ transaction mở; transaction 2 cũng chưa thấy blob nên đi nhánh tạo mới
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            storedBlobService.acquire(ownerId, List.of(new StoredBlobService.BlobUpload(HASH, "first")));
+            firstInserted.countDown();
+            await(releaseFirst);
+        }));
+        await(firstInserted);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status ->
+                storedBlobService.acquire(ownerId, List.of(new StoredBlobService.BlobUpload(HASH, "second")))));
+
+        Thread.sleep(300); // Để INSERT của transaction 2 chờ khoá trên hash
+        releaseFirst.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertThat(storedBlobRepository.findAll()).singleElement()
+                .extracting(StoredBlob::getStorageKey, StoredBlob::getRefCount)
+                .containsExactly("first", 2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
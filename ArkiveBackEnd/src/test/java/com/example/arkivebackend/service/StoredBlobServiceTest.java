@@ -0,0 +1,132 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.entity.PendingObjectDeletion;
+import com.example.arkivebackend.entity.StoredBlob;
+import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.PendingObjectDeletionRepository;
+import com.example.arkivebackend.repository.StoredBlobRepository;
+import com.example.arkivebackend.service.impl.ObjectDeletionServiceImpl;
+import com.example.arkivebackend.service.impl.StoredBlobServiceImpl;
+import com.example.arkivebackend.util.ContentHashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({StoredBlobServiceImpl.class, ObjectDeletionServiceImpl.class})
+class StoredBlobServiceTest {
+
+    static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    StoredBlobService storedBlobService;
+
+    @Autowired
+    StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    PendingObjectDeletionRepository pendingObjectDeletionRepository;
+
+    @MockitoBean
+    StorageService storageService;
+
+    String ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = entityManager.persist(User.builder()
+                .username("owner")
+                .email("owner@example.com")
+                .password("secret")
+                .build()).getId();
+    }
+
+    @Test
+    void duplicateUploadsShareOneVerifiedBlobUntilTheLastReferenceIsReleased() {
+        when(storageService.headObjects(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of("first",
+                new StorageService.ObjectMetadata(42, "\"etag\"", "image/jpeg", ContentHashUtil.toS3Checksum(HASH)))));
+
+        // Hai file cùng nội dung trong một lô, sau đó một lần instant upload
+        storedBlobService.acquire(ownerId, List.of(upload("first"), upload("second")));
+        assertThat(storedBlobService.findExistingKeys(ownerId, List.of(HASH))).containsEntry(HASH, "first");
+        StoredBlob blob = storedBlobService.acquire(ownerId, List.of(upload("first"))).get(HASH);
+        flushAndClear();
+
+        assertThat(blob.getStorageKey()).isEqualTo("first");
+        assertThat(blob.getFileSize()).isEqualTo(42);
+        assertThat(blob.getContentType()).isEqualTo("image/jpeg");
+        assertThat(storedBlobRepository.findAll()).singleElement().extracting(StoredBlob::getRefCount).isEqualTo(3);
+        verify(storageService, times(1)).headObjects(anyCollection()); // Blob đã có thì không HeadObject lại
+
+        storedBlobService.release(List.of("first", "first"));
+        flushAndClear();
+        assertThat(pendingObjectDeletionRepository.findAll()).isEmpty();
+
+        storedBlobService.release(List.of("first", "legacy-key"));
+        flushAndClear();
+        assertThat(storedBlobRepository.findAll()).isEmpty();
+        assertThat(pendingObjectDeletionRepository.findAll())
+                .extracting(PendingObjectDeletion::getStorageKey)
+                .containsExactlyInAnyOrder("first", "legacy-key");
+    }
+
+    @Test
+    void objectWhoseChecksumDoesNotMatchIsRejected() {
+        when(storageService.headObjects(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of("tampered",
+                new StorageService.ObjectMetadata(42, "\"etag\"", "image/jpeg", null))));
+
+        assertThatThrownBy(() -> storedBlobService.acquire(ownerId, List.of(upload("tampered"))))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.CONTENT_HASH_MISMATCH);
+        assertThat(storedBlobRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void keyAlreadyQueuedForDeletionCannotBecomeANewBlob() {
+        entityManager.persist(PendingObjectDeletion.builder()
+                .bucket(StorageBucket.ASSETS)
+                .storageKey("released")
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+        flushAndClear();
+
+        assertThatThrownBy(() -> storedBlobService.acquire(ownerId, List.of(upload("released"))))
+                .isInstanceOf(AppException.class);
+        verify(storageService, never()).headObjects(anyCollection());
+    }
+
+    private StoredBlobService.BlobUpload upload(String storageKey) {
+        return new StoredBlobService.BlobUpload(HASH, storageKey);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
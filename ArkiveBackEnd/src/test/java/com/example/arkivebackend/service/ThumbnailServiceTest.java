@@ -0,0 +1,147 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.enums.ThumbnailStatus;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.impl.ThumbnailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ThumbnailServiceTest {
+
+    AssetRepository assetRepository = mock(AssetRepository.class);
+    StorageService storageService = mock(StorageService.class);
+    ObjectDeletionService objectDeletionService = mock(ObjectDeletionService.class);
+    VideoThumbnailService videoThumbnailService = mock(VideoThumbnailService.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 1 thread, hàng đợi 1 chỗ
+    ThumbnailServiceImpl thumbnailService = new ThumbnailServiceImpl(assetRepository, storageService, objectDeletionService,
+            videoThumbnailService, meterRegistry, true, 1, 1, 320, 1280, 0.8f, 200_000_000L);
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(thumbnailService, "shutdown");
+    }
+
+    @Test
+    void rendersGridAndPreviewSizesAndMarksTheAssetReady() throws Exception {
+        pendingAsset("a1");
+        when(storageService.openObject("original-a1")).thenReturn(new ByteArrayInputStream(png(4000, 3000)));
+        when(assetRepository.completePendingThumbnail(anyString(), any(), any(), any())).thenReturn(1);
+
+        thumbnailService.submitAfterCommit(List.of("a1"));
+
+        verify(assetRepository, timeout(10_000))
+                .completePendingThumbnail("a1", "a1/thumbnail-320.jpg", "a1/preview-1280.jpg", ThumbnailStatus.READY);
+        ArgumentCaptor<byte[]> thumbnail = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> preview = ArgumentCaptor.forClass(byte[].class);
+        verify(storageService).putObject(eq(StorageBucket.THUMBNAILS), eq("a1/thumbnail-320.jpg"), thumbnail.capture(), eq("image/jpeg"));
+        verify(storageService).putObject(eq(StorageBucket.THUMBNAILS), eq("a1/preview-1280.jpg"), preview.capture(), eq("image/jpeg"));
+        assertDimensions(thumbnail.getValue(), 320, 240);
+        assertDimensions(preview.getValue(), 1280, 960);
+    }
+
+    @Test
+    void fullQueueDefersTheRestInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (String id : List.of("a1", "a2", "a3", "a4")) {
+            pendingAsset(id);
+        }
+        when(storageService.openObject(anyString())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS); // Giữ thread worker bận
+            return new ByteArrayInputStream(png(10, 10));
+        });
+
+        // a1 chạy, a2 nằm trong hàng đợi, a3 + a4 bị hoãn (vẫn PENDING trong DB)
+        thumbnailService.submitAfterCommit(List.of("a1", "a2", "a3", "a4"));
+        verify(storageService, timeout(5_000)).openObject("original-a1");
+
+        assertThat(meterRegistry.get("arkive.thumbnail.deferred").counter().count()).isEqualTo(2);
+        assertThat(thumbnailService.submitPending()).isZero(); // Không còn chỗ: không cả truy vấn DB
+        verify(assetRepository, never()).findPendingThumbnailIds(any());
+        release.countDown();
+    }
+
+    @Test
+    void undecodableFileIsMarkedFailedWithoutUploadingAnything() {
+        pendingAsset("a1");
+        when(storageService.openObject("original-a1")).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        thumbnailService.submitAfterCommit(List.of("a1"));
+
+        verify(assetRepository, timeout(10_000)).completePendingThumbnail("a1", null, null, ThumbnailStatus.FAILED);
+        verify(storageService, never()).putObject(any(), anyString(), any(), anyString());
+    }
+
+    @Test
+    void videoIsHandedToTheVideoPoolWithoutDecoding() {
+        pendingAsset("v1", "video/mp4");
+        when(videoThumbnailService.submit("v1")).thenReturn(true);
+
+        thumbnailService.submitAfterCommit(List.of("v1"));
+
+        verify(videoThumbnailService, timeout(10_000)).submit("v1");
+        verify(storageService, never()).openObject(anyString());
+        verify(assetRepository, never()).completePendingThumbnail(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void initialStatusDependsOnClientThumbnailAndFormat() {
+        assertThat(thumbnailService.initialStatus("image/jpeg", true)).isEqualTo(ThumbnailStatus.READY);
+        assertThat(thumbnailService.initialStatus("image/png", false)).isEqualTo(ThumbnailStatus.PENDING);
+        assertThat(thumbnailService.initialStatus("application/pdf", false)).isEqualTo(ThumbnailStatus.UNSUPPORTED);
+        assertThat(thumbnailService.initialStatus("video/mp4", false)).isEqualTo(ThumbnailStatus.UNSUPPORTED); // Không có ffmpeg
+        when(videoThumbnailService.supports("video/mp4")).thenReturn(true);
+        assertThat(thumbnailService.initialStatus("video/mp4", false)).isEqualTo(ThumbnailStatus.PENDING);
+    }
+
+    private void pendingAsset(String id) {
+        pendingAsset(id, "image/png");
+    }
+
+    private void pendingAsset(String id, String fileType) {
+        Asset asset = Asset.builder()
+                .storageKey("original-" + id)
+                .fileType(fileType)
+                .thumbnailStatus(ThumbnailStatus.PENDING)
+                .build();
+        asset.setId(id);
+        when(assetRepository.findById(id)).thenReturn(Optional.of(asset));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static void assertDimensions(byte[] jpeg, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(image.getWidth()).isEqualTo(width);
+        assertThat(image.getHeight()).isEqualTo(height);
+    }
+}
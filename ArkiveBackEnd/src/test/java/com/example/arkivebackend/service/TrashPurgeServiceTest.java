@@ -0,0 +1,101 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.entity.Collection;
+import com.example.arkivebackend.entity.PendingObjectDeletion;
+import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.repository.PendingObjectDeletionRepository;
+import com.example.arkivebackend.service.impl.ObjectDeletionServiceImpl;
+import com.example.arkivebackend.service.impl.StoredBlobServiceImpl;
+import com.example.arkivebackend.service.impl.TrashPurgeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TrashPurgeServiceImpl.class, ObjectDeletionServiceImpl.class, StoredBlobServiceImpl.class})
+class TrashPurgeServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    TrashPurgeService trashPurgeService;
+
+    @Autowired
+    AssetRepository assetRepository;
+
+    @Autowired
+    PendingObjectDeletionRepository pendingObjectDeletionRepository;
+
+    @MockitoBean
+    StorageService storageService;
+
+    Collection collection;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .username("owner")
+                .email("owner@example.com")
+                .password("secret")
+                .build());
+        collection = entityManager.persist(Collection.builder()
+                .name("Photos")
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void purgesOnlyAssetsTrashedBeforeTheCutoffInChunks() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        persistAsset("old-1", "thumb-old-1.jpg", true, cutoff.minusDays(2));
+        persistAsset("old-2", null, true, cutoff.minusDays(1));
+        persistAsset("recent", "thumb-recent.jpg", true, cutoff.plusDays(1));
+        persistAsset("live", "thumb-live.jpg", false, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(trashPurgeService.purgeExpiredChunk(cutoff, 1)).isEqualTo(1);
+        assertThat(trashPurgeService.purgeExpiredChunk(cutoff, 1)).isEqualTo(1);
+        assertThat(trashPurgeService.purgeExpiredChunk(cutoff, 1)).isZero();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(assetRepository.findAll()).extracting(Asset::getStorageKey).containsExactlyInAnyOrder("recent", "live");
+        assertThat(pendingObjectDeletionRepository.findAll())
+                .extracting(PendingObjectDeletion::getBucket, PendingObjectDeletion::getStorageKey)
+                .containsExactlyInAnyOrder(
+                        tuple(StorageBucket.ASSETS, "old-1"),
+                        tuple(StorageBucket.ASSETS, "old-2"),
+                        tuple(StorageBucket.THUMBNAILS, "thumb-old-1.jpg"));
+        verifyNoInteractions(storageService); // S3 chỉ bị gọi bởi ObjectDeletionWorker
+    }
+
+    private void persistAsset(String storageKey, String thumbnailKey, boolean deleted, LocalDateTime deletedAt) {
+        entityManager.persist(Asset.builder()
+                .filename(storageKey + ".jpg")
+                .storageKey(storageKey)
+                .thumbnailKey(thumbnailKey)
+                .fileType("image/jpeg")
+                .fileSize(10L)
+                .collection(collection)
+                .isDeleted(deleted)
+                .deletedAt(deletedAt)
+                .build());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.dto.request.MultipartUploadCompleteRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadCreateRequest;
+import com.example.arkivebackend.dto.request.MultipartUploadPartsRequest;
+import com.example.arkivebackend.dto.response.MultipartUploadResponse;
+import com.example.arkivebackend.dto.response.UploadedPartResponse;
+import com.example.arkivebackend.entity.User;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.repository.UploadSessionRepository;
+import com.example.arkivebackend.service.impl.UploadSessionServiceImpl;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UploadSessionServiceImpl.class)
+class UploadSessionServiceTest {
+
+    static final long PART_SIZE = 16L * 1024 * 1024;
+    static final long FILE_SIZE = 2 * PART_SIZE + 100; // 3 part, part cuối 100 bytes
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    UploadSessionService uploadSessionService;
+
+    @Autowired
+    UploadSessionRepository uploadSessionRepository;
+
+    @MockitoBean
+    StorageService storageService;
+
+    String sessionId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .username("owner")
+                .email("owner@example.com")
+                .password("secret")
+                .build());
+        authenticateAs(owner.getId());
+        when(storageService.createMultipartUpload(anyString(), anyString(), anyLong()))
+                .thenReturn(new MultipartUploadResponse("upload-1", "key-video.mp4", PART_SIZE, 3));
+
+        sessionId = uploadSessionService.createSession(MultipartUploadCreateRequest.builder()
+                .fileName("video.mp4")
+                .contentType("video/mp4")
+                .fileSize(FILE_SIZE)
+                .build()).getSessionId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resumeReportsOnlyPartsS3HasWithTheExpectedSize() {
+        when(storageService.listUploadedParts("key-video.mp4", "upload-1")).thenReturn(List.of(
+                part(1, PART_SIZE),
+                part(2, 1024), // Upload dở (tab bị đóng giữa chừng): phải upload lại
+                part(3, 100)));
+
+        var session = uploadSessionService.resumeSession(sessionId);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(session.getUploadedParts()).extracting(UploadedPartResponse::getPartNumber).containsExactly(1, 3);
+        assertThat(session.getMissingPartNumbers()).containsExactly(2);
+        assertThat(uploadSessionRepository.findById(sessionId).orElseThrow().getCompletedParts())
+                .containsOnlyKeys(1, 3)
+                .containsEntry(1, "etag-1");
+    }
+
+    @Test
+    void completeWithoutPartsUsesListPartsAndDeletesTheSession() {
+        when(storageService.listUploadedParts("key-video.mp4", "upload-1"))
+                .thenReturn(List.of(part(1, PART_SIZE), part(2, PART_SIZE), part(3, 100)));
+
+        uploadSessionService.completeSession(sessionId, null);
+        entityManager.flush();
+
+        verify(storageService).completeMultipartUpload(eq("key-video.mp4"), eq("upload-1"), anyList());
+        assertThat(uploadSessionRepository.findById(sessionId)).isEmpty();
+    }
+
+    @Test
+    void completeRejectsMissingPartsBeforeCallingS3() {
+        var request = MultipartUploadCompleteRequest.builder()
+                .parts(List.of(completedPart(1), completedPart(3)))
+                .build();
+
+        assertErrorCode(() -> uploadSessionService.completeSession(sessionId, request), ErrorCode.INVALID_MULTIPART_PARTS);
+        verify(storageService, never()).completeMultipartUpload(any(), any(), any());
+    }
+
+    @Test
+    void partUrlsAreLimitedToThePartCount() {
+        var request = MultipartUploadPartsRequest.builder().partNumbers(List.of(3, 4)).build();
+
+        assertErrorCode(() -> uploadSessionService.requestPartUploadUrls(sessionId, request), ErrorCode.INVALID_MULTIPART_PARTS);
+    }
+
+    @Test
+    void otherUsersCannotSeeOrAbortTheSession() {
+        authenticateAs("someone-else");
+
+        assertThat(uploadSessionService.getActiveSessions()).isEmpty();
+        assertErrorCode(() -> uploadSessionService.abortSession(sessionId), ErrorCode.MULTIPART_UPLOAD_NOT_FOUND);
+        verify(storageService, never()).abortMultipartUpload(any(), any());
+    }
+
+    private static UploadedPartResponse part(int partNumber, long size) {
+        return UploadedPartResponse.builder().partNumber(partNumber).etag("etag-" + partNumber).size(size).build();
+    }
+
+    private static MultipartUploadCompleteRequest.Part completedPart(int partNumber) {
+        return MultipartUploadCompleteRequest.Part.builder().partNumber(partNumber).etag("etag-" + partNumber).build();
+    }
+
+    private static void assertErrorCode(ThrowingCallable call, ErrorCode errorCode) {
+        assertThatThrownBy(call)
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(errorCode);
+    }
+
+    private void authenticateAs(String userId) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("owner")
+                .claim("userId", userId)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.arkivebackend.service;
+
+import com.example.arkivebackend.entity.Asset;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.enums.ThumbnailStatus;
+import com.example.arkivebackend.repository.AssetRepository;
+import com.example.arkivebackend.service.impl.VideoThumbnailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// ffmpeg giả bằng shell script: in thời lượng ra stderr và chép ảnh mẫu vào mọi output .png
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class VideoThumbnailServiceTest {
+
+    @TempDir
+    Path directory;
+    AssetRepository assetRepository = mock(AssetRepository.class);
+    StorageService storageService = mock(StorageService.class);
+    ObjectDeletionService objectDeletionService = mock(ObjectDeletionService.class);
+    VideoThumbnailServiceImpl videoThumbnailService;
+
+    @AfterEach
+    void tearDown() {
+        if (videoThumbnailService != null) {
+            ReflectionTestUtils.invokeMethod(videoThumbnailService, "shutdown");
+        }
+    }
+
+    @Test
+    void rendersPosterAndScrubStripFromSeekedFrames() throws Exception {
+        Path poster = image("poster.png", 1280, 720);
+        Path frame = image("frame.png", 160, 90);
+        videoThumbnailService = service(ffmpeg("""
+                echo "  Duration: 00:00:10.00, start: 0.000000, bitrate: 800 kb/s" >&2
+                for arg in "$@"; do
+                  case "$arg" in
+                    */scrub-*.png) cp %s "$arg" ;;
+                    *.png) cp %s "$arg" ;;
+                  esac
+                done
+                """.formatted(frame, poster)), Duration.ofSeconds(30));
+        pendingVideo("v1");
+        when(assetRepository.completePendingVideoThumbnail(anyString(), any(), any(), any(), any())).thenReturn(1);
+
+        assertThat(videoThumbnailService.submit("v1")).isTrue();
+
+        verify(assetRepository, timeout(10_000)).completePendingVideoThumbnail(
+                "v1", "v1/poster-320.jpg", "v1/scrub-10x90.jpg", 10, ThumbnailStatus.READY);
+        ArgumentCaptor<byte[]> posterJpeg = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> stripJpeg = ArgumentCaptor.forClass(byte[].class);
+        verify(storageService).putObject(eq(StorageBucket.THUMBNAILS), eq("v1/poster-320.jpg"), posterJpeg.capture(), eq("image/jpeg"));
+        verify(storageService).putObject(eq(StorageBucket.THUMBNAILS), eq("v1/scrub-10x90.jpg"), stripJpeg.capture(), eq("image/jpeg"));
+        assertDimensions(posterJpeg.getValue(), 320, 180);
+        assertDimensions(stripJpeg.getValue(), 1600, 90);
+
+        // Poster seek tới giây 1, dải scrub lấy giữa mỗi đoạn 1 giây trong một tiến trình, chỉ qua HTTP(S)
+        String calls = Files.readString(directory.resolve("calls.log"));
+        assertThat(calls).contains("-protocol_whitelist http,https,tcp,tls -ss 1.000 -i https://storage/v1");
+        assertThat(calls).contains("-ss 0.500 -i https://storage/v1").contains("-ss 9.500 -i https://storage/v1");
+    }
+
+    @Test
+    void encodeThatRunsPastTheTimeoutIsKilledAndMarkedFailed() throws Exception {
+        videoThumbnailService = service(ffmpeg("sleep 30"), Duration.ofMillis(500));
+        pendingVideo("v1");
+
+        videoThumbnailService.submit("v1");
+
+        verify(assetRepository, timeout(10_000)).completePendingVideoThumbnail("v1", null, null, null, ThumbnailStatus.FAILED);
+        verify(storageService, never()).putObject(any(), anyString(), any(), anyString());
+    }
+
+    @Test
+    void missingFfmpegLeavesVideosUnsupported() {
+        videoThumbnailService = service(directory.resolve("no-ffmpeg"), Duration.ofSeconds(30));
+
+        assertThat(videoThumbnailService.supports("video/mp4")).isFalse();
+        assertThat(videoThumbnailService.submit("v1")).isFalse();
+        assertThat(videoThumbnailService.submitPending()).isZero();
+    }
+
+    private VideoThumbnailServiceImpl service(Path ffmpeg, Duration timeout) {
+        return new VideoThumbnailServiceImpl(assetRepository, storageService, objectDeletionService,
+                new SimpleMeterRegistry(), true, ffmpeg.toString(), 1, 1, timeout, Duration.ofSeconds(1), 10, 90, 0.7f, 320);
+    }
+
+    // Script ghi lại tham số mỗi lần gọi; -version (kiểm tra lúc khởi tạo) luôn thành công
+    private Path ffmpeg(String body) throws IOException {
+        Path script = directory.resolve("ffmpeg");
+        Files.writeString(script, """
+                #!/bin/sh
+                echo "$@" >> %s
+                case "$*" in *-version*) exit 0 ;; esac
+                %s
+                """.formatted(directory.resolve("calls.log"), body));
+        assertThat(script.toFile().setExecutable(true)).isTrue();
+        return script;
+    }
+
+    private Path image(String name, int width, int height) throws IOException {
+        Path file = directory.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return file;
+    }
+
+    private void pendingVideo(String id) {
+        Asset asset = Asset.builder()
+                .storageKey("original-" + id)
+                .fileType("video/mp4")
+                .thumbnailStatus(ThumbnailStatus.PENDING)
+                .build();
+        asset.setId(id);
+        when(assetRepository.findById(id)).thenReturn(Optional.of(asset));
+        when(storageService.generatePresignedGetUrl("original-" + id)).thenReturn("https://storage/" + id);
+    }
+
+    private static void assertDimensions(byte[] jpeg, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(image.getWidth()).isEqualTo(width);
+        assertThat(image.getHeight()).isEqualTo(height);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.dto.request.MultipartUploadCompleteRequest;
+import com.example.arkivebackend.enums.ErrorCode;
+import com.example.arkivebackend.exception.AppException;
+import com.example.arkivebackend.util.PresignedUrlCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StorageServiceImplMultipartTest {
+
+    static final long MB = 1024 * 1024;
+
+    S3Client s3Client = mock(S3Client.class);
+    S3AsyncClient s3AsyncClient = mock(S3AsyncClient.class);
+    StorageServiceImpl storageService;
+
+    @BeforeEach
+    void setUp() {
+        storageService = new StorageServiceImpl(s3Client, s3AsyncClient, mock(S3Presigner.class), mock(PresignedUrlCache.class));
+        ReflectionTestUtils.setField(storageService, "bucketName", "assets");
+    }
+
+    @Test
+    void partSizeStaysAtMinimumUntilTenThousandPartsAreNeeded() {
+        assertThat(StorageServiceImpl.partSizeFor(1)).isEqualTo(16 * MB);
+        assertThat(StorageServiceImpl.partSizeFor(40L * 1024 * MB)).isEqualTo(16 * MB); // 40 GB -> 2560 part
+        long fiveTerabytes = 5L * 1024 * 1024 * MB;
+        long partSize = StorageServiceImpl.partSizeFor(fiveTerabytes);
+        assertThat(partSize % MB).isZero();
+        assertThat((fiveTerabytes + partSize - 1) / partSize).isLessThanOrEqualTo(10_000);
+    }
+
+    @Test
+    void completeRejectsDuplicatePartNumbersWithoutCallingS3() {
+        var parts = List.of(part(1, "a"), part(2, "b"), part(1, "c"));
+
+        assertThatThrownBy(() -> storageService.completeMultipartUpload("key", "upload", parts))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.INVALID_MULTIPART_PARTS);
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void abortsOnlyUploadsOlderThanCutoffAcrossPages() {
+        Instant cutoff = Instant.parse("2025-01-02T00:00:00Z");
+        when(s3Client.listMultipartUploads(any(ListMultipartUploadsRequest.class))).thenReturn(
+                ListMultipartUploadsResponse.builder()
+                        .uploads(upload("old-1", cutoff.minusSeconds(60)), upload("new-1", cutoff.plusSeconds(60)))
+                        .isTruncated(true)
+                        .nextKeyMarker("new-1")
+                        .nextUploadIdMarker("id-new-1")
+                        .build(),
+                ListMultipartUploadsResponse.builder()
+                        .uploads(upload("old-2", cutoff.minusSeconds(3600)), upload("resumed", cutoff.minusSeconds(3600)))
+                        .isTruncated(false)
+                        .build());
+        // Upload đã bị huỷ ở nơi khác vẫn tính là đã dọn
+        when(s3AsyncClient.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(NoSuchUploadException.builder().message("gone").build()));
+
+        // "resumed" còn UploadSession hợp lệ nên không bị huỷ dù khởi tạo từ lâu
+        int aborted = storageService.abortMultipartUploadsInitiatedBefore(cutoff, Set.of("id-resumed"));
+
+        assertThat(aborted).isEqualTo(2);
+        verify(s3Client, times(2)).listMultipartUploads(any(ListMultipartUploadsRequest.class));
+        verify(s3Client).listMultipartUploads(ListMultipartUploadsRequest.builder()
+                .bucket("assets").keyMarker("new-1").uploadIdMarker("id-new-1").build());
+        verify(s3AsyncClient, times(2)).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    private static MultipartUploadCompleteRequest.Part part(int partNumber, String etag) {
+        return MultipartUploadCompleteRequest.Part.builder().partNumber(partNumber).etag(etag).build();
+    }
+
+    private static MultipartUpload upload(String key, Instant initiated) {
+        return MultipartUpload.builder().key(key).uploadId("id-" + key).initiated(initiated).build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.arkivebackend.service.impl;
+
+import com.example.arkivebackend.config.S3Config;
+import com.example.arkivebackend.enums.StorageBucket;
+import com.example.arkivebackend.service.StorageService;
+import com.example.arkivebackend.util.ContentHashUtil;
+import com.example.arkivebackend.util.PresignedUrlCache;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chạy với S3-compatible cục bộ (MinIO, Adobe S3Mock, ...), ví dụ MinIO:
+ * docker run -p 9000:9000 minio/minio server /data
+ * S3_TEST_ENDPOINT=http://localhost:9000 S3_TEST_ACCESS_KEY=minioadmin S3_TEST_SECRET_KEY=minioadmin mvn test
+ */
+@EnabledIfEnvironmentVariable(named = "S3_TEST_ENDPOINT", matches = ".+")
+class StorageServiceImplS3CompatibleTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    S3Client s3Client;
+    S3AsyncClient s3AsyncClient;
+    S3Presigner s3Presigner;
+    StorageServiceImpl storageService;
+    String bucket = "arkive-test-" + UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        S3Config config = new S3Config();
+        ReflectionTestUtils.setField(config, "s3Endpoint", System.getenv("S3_TEST_ENDPOINT"));
+        ReflectionTestUtils.setField(config, "accessKey", System.getenv().getOrDefault("S3_TEST_ACCESS_KEY", "minioadmin"));
+        ReflectionTestUtils.setField(config, "secretKey", System.getenv().getOrDefault("S3_TEST_SECRET_KEY", "minioadmin"));
+        ReflectionTestUtils.setField(config, "region", "us-east-1");
+        ReflectionTestUtils.setField(config, "pathStyleAccess", true); // MinIO không có DNS theo bucket
+        ReflectionTestUtils.setField(config, "asyncMaxConcurrency", 16);
+        ReflectionTestUtils.setField(config, "asyncMaxPendingAcquires", 1000);
+        ReflectionTestUtils.setField(config, "asyncAcquireTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(config, "asyncConnectionTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "asyncReadTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "asyncConnectionMaxIdleTime", Duration.ofSeconds(60));
+        s3Client = config.s3Client(meterRegistry);
+        s3AsyncClient = config.s3AsyncClient(meterRegistry);
+        s3Presigner = config.s3Presigner();
+
+        storageService = new StorageServiceImpl(s3Client, s3AsyncClient, s3Presigner,
+                new PresignedUrlCache(meterRegistry, 100, Duration.ofMinutes(5)));
+        ReflectionTestUtils.setField(storageService, "bucketName", bucket);
+        ReflectionTestUtils.setField(storageService, "thumbnailBucketName", bucket);
+        ReflectionTestUtils.setField(storageService, "headConcurrency", 4);
+        s3Client.createBucket(request -> request.bucket(bucket));
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageService.forEachObjectPage(StorageBucket.ASSETS, page ->
+                storageService.deleteObjects(StorageBucket.ASSETS, page.stream().map(StorageService.StoredObject::key).toList()).join());
+        s3Client.deleteBucket(request -> request.bucket(bucket));
+        s3Client.close();
+        s3AsyncClient.close();
+        s3Presigner.close();
+    }
+
+    @Test
+    void headAndDeleteGoThroughTheAsyncClient() throws Exception {
+        byte[] content = "hello arkive".getBytes(StandardCharsets.UTF_8);
+        String contentHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        s3Client.putObject(request -> request.bucket(bucket).key("a.txt").checksumAlgorithm(ChecksumAlgorithm.SHA256),
+                RequestBody.fromBytes(content));
+
+        StorageService.ObjectMetadata metadata = storageService.headObject("a.txt").join();
+        assertThat(metadata.size()).isEqualTo(content.length);
+        assertThat(metadata.checksumSha256()).isEqualTo(ContentHashUtil.toS3Checksum(contentHash));
+        assertThat(metadata.eTag()).isNotBlank();
+        assertThat(storageService.headObject("missing.txt").join()).isNull();
+        // Pipeline theo lô: object thiếu không có trong map
+        assertThat(storageService.headObjects(List.of("a.txt", "missing.txt")).join())
+                .containsOnlyKeys("a.txt")
+                .extractingByKey("a.txt").extracting(StorageService.ObjectMetadata::size).isEqualTo((long) content.length);
+
+        assertThat(storageService.deleteObjects(StorageBucket.ASSETS, List.of("a.txt", "missing.txt")).join()).isEmpty();
+        assertThat(storageService.headObject("a.txt").join()).isNull();
+
+        // Metric latency theo operation và trạng thái pool của client bất đồng bộ
+        assertThat(meterRegistry.get("arkive.s3.api").tag("client", "async").tag("operation", "HeadObject").timers())
+                .extracting(Timer::count).containsExactlyInAnyOrder(3L, 2L); // 3 lần có object, 2 lần 404
+        assertThat(meterRegistry.get("arkive.s3.pool.max").tag("client", "async").gauge().value()).isEqualTo(16);
+    }
+
+    @Test
+    void readObjectHeadsFetchesOnlyTheRequestedPrefix() {
+        s3Client.putObject(request -> request.bucket(bucket).key("long.bin"), RequestBody.fromBytes(new byte[10_000]));
+        s3Client.putObject(request -> request.bucket(bucket).key("short.bin"), RequestBody.fromBytes(new byte[]{1, 2, 3}));
+
+        Map<String, byte[]> heads = storageService.readObjectHeads(StorageBucket.ASSETS,
+                List.of("long.bin", "short.bin", "missing.bin"), 4096).join();
+
+        assertThat(heads).containsOnlyKeys("long.bin", "short.bin");
+        assertThat(heads.get("long.bin")).hasSize(4096);
+        assertThat(heads.get("short.bin")).containsExactly(1, 2, 3); // Object ngắn hơn range: trả cả object
+
+        storageService.deleteObjects(StorageBucket.ASSETS, List.of("long.bin", "short.bin")).join();
+    }
+}
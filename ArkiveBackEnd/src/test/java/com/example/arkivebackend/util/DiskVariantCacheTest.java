@@ -0,0 +1,120 @@
+package com.example.arkivebackend.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskVariantCacheTest {
+
+    @TempDir
+    Path directory;
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AtomicInteger rendered = new AtomicInteger();
+
+    @Test
+    void concurrentMissesForTheSameKeyRenderOnce() throws Exception {
+        DiskVariantCache cache = new DiskVariantCache(meterRegistry, directory, DataSize.ofMegabytes(1));
+        CountDownLatch renderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> read(cache.open("k", target -> {
+                    renderStarted.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS); // Giữ lần render đầu để các request khác phải chờ
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    render(target, "variant");
+                }))));
+            }
+            assertThat(renderStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("variant");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(rendered).hasValue(1);
+        assertThat(meterRegistry.get("arkive.render.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hitReturnsTheCachedFileWithoutRendering() throws IOException {
+        DiskVariantCache cache = new DiskVariantCache(meterRegistry, directory, DataSize.ofMegabytes(1));
+
+        assertThat(read(cache.open("k", target -> render(target, "first")))).isEqualTo("first");
+        assertThat(read(cache.open("k", target -> render(target, "second")))).isEqualTo("first");
+
+        assertThat(rendered).hasValue(1);
+        assertThat(meterRegistry.get("arkive.render.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedVariantsAboveTheSizeCap() throws IOException {
+        DiskVariantCache cache = new DiskVariantCache(meterRegistry, directory, DataSize.ofBytes(25));
+        String tenBytes = "0123456789";
+        read(cache.open("a", target -> render(target, tenBytes)));
+        read(cache.open("b", target -> render(target, tenBytes)));
+        read(cache.open("a", target -> render(target, tenBytes))); // a mới dùng, b thành cũ nhất
+        read(cache.open("c", target -> render(target, tenBytes))); // 30 byte > 25: đẩy b ra
+
+        assertThat(cache.totalBytes()).isEqualTo(20);
+        assertThat(directory.resolve("a")).exists();
+        assertThat(directory.resolve("b")).doesNotExist();
+        assertThat(directory.resolve("c")).exists();
+        assertThat(rendered).hasValue(3);
+    }
+
+    @Test
+    void restartKeepsExistingVariantsAndDropsUnfinishedRenders() throws IOException {
+        write(directory.resolve("a"), "cached");
+        write(directory.resolve("b123.tmp"), "partial");
+
+        DiskVariantCache cache = new DiskVariantCache(meterRegistry, directory, DataSize.ofMegabytes(1));
+
+        assertThat(read(cache.open("a", target -> render(target, "new")))).isEqualTo("cached");
+        assertThat(directory.resolve("b123.tmp")).doesNotExist();
+        assertThat(rendered).hasValue(0);
+    }
+
+    private void render(Path target, String content) throws IOException {
+        rendered.incrementAndGet();
+        write(target, content);
+    }
+
+    private static void write(Path target, String content) throws IOException {
+        Files.writeString(target, content, StandardCharsets.UTF_8);
+    }
+
+    private static String read(FileChannel channel) throws IOException {
+        try (channel) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            channel.read(buffer, 0);
+            return new String(buffer.array(), StandardCharsets.UTF_8);
+        }
+    }
+}
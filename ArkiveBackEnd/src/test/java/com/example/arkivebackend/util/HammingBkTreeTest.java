@@ -0,0 +1,71 @@
+package com.example.arkivebackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HammingBkTreeTest {
+
+    @Test
+    void searchFindsExactlyTheHashesABruteForceScanFinds() {
+        Random random = new Random(42);
+        HammingBkTree tree = new HammingBkTree();
+        Map<UUID, Long> hashes = new HashMap<>();
+        long base = random.nextLong();
+        for (int i = 0; i < 2000; i++) {
+            // Một nửa là biến thể của base (lật vài bit) để có nhiều kết quả gần nhau
+            long hash = i % 2 == 0 ? random.nextLong() : base ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            hashes.put(id, hash);
+            tree.add(id, hash);
+        }
+
+        for (int maxDistance : new int[]{0, 2, 8, 20}) {
+            long query = base ^ 1L;
+            Map<UUID, Integer> expected = hashes.entrySet().stream()
+                    .filter(entry -> Long.bitCount(entry.getValue() ^ query) <= maxDistance)
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> Long.bitCount(entry.getValue() ^ query)));
+
+            Map<UUID, Integer> actual = tree.search(query, maxDistance).stream()
+                    .collect(Collectors.toMap(HammingBkTree.Match::id, HammingBkTree.Match::distance));
+
+            assertThat(actual).isEqualTo(expected);
+        }
+        assertThat(tree.size()).isEqualTo(2000);
+    }
+
+    @Test
+    void resizedCopyHasNearbyDifferenceHashAndOtherImageDoesNot() {
+        BufferedImage original = gradient(640, 480, Color.WHITE, Color.DARK_GRAY, false);
+        BufferedImage thumbnail = ImageUtil.fit(original, 160, 120);
+        BufferedImage other = gradient(640, 480, Color.WHITE, Color.DARK_GRAY, true);
+
+        long hash = ImageUtil.differenceHash(original);
+
+        assertThat(Long.bitCount(hash ^ ImageUtil.differenceHash(thumbnail))).isLessThanOrEqualTo(4);
+        assertThat(Long.bitCount(hash ^ ImageUtil.differenceHash(other))).isGreaterThan(16);
+    }
+
+    private static BufferedImage gradient(int width, int height, Color from, Color to, boolean reversed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(reversed
+                ? new GradientPaint(width, 0, from, 0, 0, to)
+                : new GradientPaint(0, 0, from, width, 0, to));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+        graphics.fillOval(width / 4, height / 4, width / 3, height / 3);
+        graphics.dispose();
+        return image;
+    }
+}
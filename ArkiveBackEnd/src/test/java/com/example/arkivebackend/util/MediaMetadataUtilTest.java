@@ -0,0 +1,152 @@
+package com.example.arkivebackend.util;
+
+import com.example.arkivebackend.util.MediaMetadataUtil.MediaMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MediaMetadataUtilTest {
+
+    @Test
+    void readsExifAndFrameSizeFromJpegHeader() {
+        byte[] jpeg = jpeg(exif(ByteOrder.LITTLE_ENDIAN, 6), 4000, 3000);
+
+        MediaMetadata metadata = MediaMetadataUtil.parse(jpeg);
+
+        assertThat(metadata.takenAt()).isEqualTo(LocalDateTime.of(2024, 5, 17, 8, 30, 15));
+        assertThat(metadata.cameraMake()).isEqualTo("Canon");
+        assertThat(metadata.cameraModel()).isEqualTo("EOS R6");
+        assertThat(metadata.orientation()).isEqualTo(6);
+        // Orientation 6 xoay 90 độ: kích thước hiển thị là 3000 x 4000
+        assertThat(metadata.width()).isEqualTo(3000);
+        assertThat(metadata.height()).isEqualTo(4000);
+    }
+
+    @Test
+    void keepsExifFieldsWhenHeaderIsCutBeforeTheFrame() {
+        byte[] jpeg = jpeg(exif(ByteOrder.BIG_ENDIAN, 1), 4000, 3000);
+        byte[] head = Arrays.copyOf(jpeg, jpeg.length - 8); // Cắt giữa segment SOF
+
+        MediaMetadata metadata = MediaMetadataUtil.parse(head);
+
+        assertThat(metadata.takenAt()).isEqualTo(LocalDateTime.of(2024, 5, 17, 8, 30, 15));
+        assertThat(metadata.cameraModel()).isEqualTo("EOS R6");
+        assertThat(metadata.width()).isEqualTo(6000); // PixelXDimension trong EXIF
+        assertThat(metadata.height()).isEqualTo(4000);
+    }
+
+    @Test
+    void readsPngSizeWithoutMetadata() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(123, 45, BufferedImage.TYPE_INT_RGB), "png", out);
+
+        MediaMetadata metadata = MediaMetadataUtil.parse(Arrays.copyOf(out.toByteArray(), 64));
+
+        assertThat(metadata).isEqualTo(new MediaMetadata(null, 123, 45, null, null, null));
+    }
+
+    @Test
+    void readsCreationTimeAndRotatedTrackFromMp4() {
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.putInt(4, (int) (1_700_000_000L + 2_082_844_800L)); // Giây từ 1904
+        ByteBuffer tkhd = ByteBuffer.allocate(84);
+        tkhd.putInt(40, 0).putInt(44, 0x10000); // Ma trận xoay 90 độ
+        tkhd.putInt(76, 1920 << 16).putInt(80, 1080 << 16);
+        byte[] mp4 = concat(box("ftyp", new byte[8]), box("moov", concat(box("mvhd", mvhd.array()),
+                box("trak", box("tkhd", tkhd.array())))), box("mdat", new byte[16]));
+
+        MediaMetadata metadata = MediaMetadataUtil.parse(mp4);
+
+        assertThat(metadata.takenAt()).isEqualTo(LocalDateTime.ofInstant(
+                java.time.Instant.ofEpochSecond(1_700_000_000L), java.time.ZoneId.systemDefault()));
+        assertThat(metadata.orientation()).isEqualTo(6);
+        assertThat(metadata.width()).isEqualTo(1080);
+        assertThat(metadata.height()).isEqualTo(1920);
+    }
+
+    @Test
+    void unknownOrCorruptDataYieldsEmptyMetadata() {
+        MediaMetadata empty = new MediaMetadata(null, null, null, null, null, null);
+        assertThat(MediaMetadataUtil.parse(new byte[0])).isEqualTo(empty);
+        assertThat(MediaMetadataUtil.parse("%PDF-1.7".getBytes(StandardCharsets.US_ASCII))).isEqualTo(empty);
+        assertThat(MediaMetadataUtil.parse(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1, 0x7F})).isEqualTo(empty);
+    }
+
+    @Test
+    @Timeout(5)
+    void webpChunkSizeAboveIntMaxDoesNotLoopForever() {
+        // Size 0xFFFFFFF8 đọc như int có dấu là -8: pos lùi về đúng chunk này
+        byte[] webp = concat("RIFF\0\0\0\0WEBPJUNK".getBytes(StandardCharsets.US_ASCII),
+                new byte[]{(byte) 0xF8, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, new byte[16]);
+
+        assertThat(MediaMetadataUtil.parse(webp)).isEqualTo(new MediaMetadata(null, null, null, null, null, null));
+    }
+
+    // Khối TIFF: IFD0 (Make, Model, Orientation, ExifIFD) -> Exif IFD (DateTimeOriginal, PixelX/YDimension)
+    private static byte[] exif(ByteOrder order, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(200).order(order);
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? new byte[]{'I', 'I'} : new byte[]{'M', 'M'});
+        tiff.putShort((short) 42).putInt(8);
+        int ifd0 = 8;
+        int exifIfd = ifd0 + 2 + 4 * 12 + 4;
+        int strings = exifIfd + 2 + 3 * 12 + 4;
+        tiff.position(ifd0);
+        tiff.putShort((short) 4);
+        entry(tiff, 0x010F, 2, 6, strings);
+        entry(tiff, 0x0110, 2, 7, strings + 6);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        entry(tiff, 0x8769, 4, 1, exifIfd);
+        tiff.putInt(0);
+        tiff.putShort((short) 3);
+        entry(tiff, 0x9003, 2, 20, strings + 13);
+        entry(tiff, 0xA002, 4, 1, 6000);
+        entry(tiff, 0xA003, 4, 1, 4000);
+        tiff.putInt(0);
+        tiff.put("Canon\0EOS R6\0".getBytes(StandardCharsets.US_ASCII));
+        tiff.put("2024:05:17 08:30:15\0".getBytes(StandardCharsets.US_ASCII));
+        return Arrays.copyOf(tiff.array(), tiff.position());
+    }
+
+    private static void entry(ByteBuffer tiff, int tag, int type, int count, int value) {
+        tiff.putShort((short) tag).putShort((short) type).putInt(count).putInt(value);
+    }
+
+    // SOI, APP1 "Exif", SOF0, SOS
+    private static byte[] jpeg(byte[] tiff, int width, int height) {
+        ByteBuffer jpeg = ByteBuffer.allocate(tiff.length + 40);
+        jpeg.put((byte) 0xFF).put((byte) 0xD8);
+        jpeg.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (2 + 6 + tiff.length));
+        jpeg.put("Exif\0\0".getBytes(StandardCharsets.US_ASCII)).put(tiff);
+        jpeg.put((byte) 0xFF).put((byte) 0xC0).putShort((short) 11);
+        jpeg.put((byte) 8).putShort((short) height).putShort((short) width).put((byte) 1).put(new byte[3]);
+        jpeg.put((byte) 0xFF).put((byte) 0xDA);
+        return Arrays.copyOf(jpeg.array(), jpeg.position());
+    }
+
+    private static byte[] box(String type, byte[] payload) {
+        return ByteBuffer.allocate(8 + payload.length)
+                .putInt(8 + payload.length)
+                .put(type.getBytes(StandardCharsets.US_ASCII))
+                .put(payload)
+                .array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
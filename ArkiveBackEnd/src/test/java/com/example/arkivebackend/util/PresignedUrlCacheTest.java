@@ -0,0 +1,90 @@
+package com.example.arkivebackend.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresignedUrlCacheTest {
+
+    MutableClock clock = new MutableClock();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AtomicInteger signed = new AtomicInteger();
+    PresignedUrlCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PresignedUrlCache(meterRegistry, 2, Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void returnsSameUrlUntilSafetyMarginBeforeExpiry() {
+        String first = get("a", "inline");
+        clock.advance(Duration.ofMinutes(24));
+        String second = get("a", "inline");
+        clock.advance(Duration.ofMinutes(1)); // Còn 5 phút là hết hạn: ký lại
+        String third = get("a", "inline");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(third).isNotEqualTo(first);
+        assertThat(signed).hasValue(2);
+        assertThat(meterRegistry.get("arkive.presign.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("arkive.presign.cache").tag("result", "miss").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void dispositionIsPartOfTheKey() {
+        assertThat(get("a", "inline")).isNotEqualTo(get("a", "attachment"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        get("a", null);
+        get("b", null);
+        get("a", null); // a vừa được dùng, b là entry cũ nhất
+        get("c", null);
+
+        int before = signed.get();
+        get("a", null);
+        assertThat(signed).hasValue(before);
+        get("b", null);
+        assertThat(signed).hasValue(before + 1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    private String get(String storageKey, String disposition) {
+        return cache.get("bucket", storageKey, disposition, Duration.ofMinutes(30),
+                () -> "https://signed/" + storageKey + "?n=" + signed.incrementAndGet());
+    }
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -4,17 +4,20 @@ import { Card, CardContent } from "@/components/ui/card";
 import { Button } from "@/components/ui/button";
 import { Trash2, RotateCcw, X } from "lucide-react";
 import { useEffect, useState } from "react";
-import { getDeletedAssets, hardDeleteAsset, restoreDeletedAsset } from "@/lib/api/assets";
+import { bulkAssetOperation, getDeletedAssets, hardDeleteAsset, restoreDeletedAsset } from "@/lib/api/assets";
 import { Asset } from "@/types/api";
 import Loading from "@/app/loading";
 import Image from "next/image";
 import { SimpleModal } from "@/components/ui/modal";
 
+const PAGE_SIZE = 100;
+
 export default function TrashPage() {
 
   const [deletedFiles, setDeletedFiles] = useState<Asset[]>([]);
   const [selectedFileId, setSelectedFileId] = useState<string | null>(null);
   const [loading, setLoading] = useState<boolean>(true);
+  const [totalElements, setTotalElements] = useState<number>(0);
   const [openModal, setOpenModal] = useState<boolean>(false);
   const [action, setAction] = useState<"restore" | "delete" | "deleteAll">("deleteAll");
 
@@ -55,21 +58,36 @@ export default function TrashPage() {
     }
   };
 
-  useEffect(() => {
-    const fetchDeletedFiles = async () => {
-      setLoading(true);
-      const response = await getDeletedAssets();
-      setDeletedFiles(response);
+  // Trang 0 thay thế danh sách, trang sau nối thêm (mới xóa gần nhất trước). "Tải thêm" tính trang từ số file
+  // đang hiển thị: sau khi khôi phục / xóa bớt thì trang mới có thể trùng vài file (bị lọc) nhưng không bỏ sót file nào
+  const loadPage = async (pageToLoad: number) => {
+    setLoading(true);
+    try {
+      const response = await getDeletedAssets(pageToLoad, PAGE_SIZE);
+      setDeletedFiles((prevFiles) => {
+        if (pageToLoad === 0) {
+          return response.content;
+        }
+        const loaded = new Set(prevFiles.map((file) => file.id));
+        return [...prevFiles, ...response.content.filter((file) => !loaded.has(file.id))];
+      });
+      setTotalElements(response.totalElements);
+    } catch (error) {
+      console.error("Failed to load trash:", error);
+    } finally {
       setLoading(false);
-    };
+    }
+  };
 
-    fetchDeletedFiles();
+  useEffect(() => {
+    loadPage(0);
   }, []);
 
   const restoreFile = async (fileId: string) => {
     try {
       await restoreDeletedAsset(fileId);
       setDeletedFiles((prevFiles) => prevFiles.filter((file) => file.id !== fileId));
+      setTotalElements((total) => total - 1);
     } catch (error) {
       console.error("Failed to restore file:", error);
     }
@@ -79,17 +97,34 @@ export default function TrashPage() {
     try {
       await hardDeleteAsset(fileId);
       setDeletedFiles((prevFiles) => prevFiles.filter((file) => file.id !== fileId));
+      setTotalElements((total) => total - 1);
     } catch (error) {
       console.error("Failed to delete file:", error);
     }
   };
 
+  // Xóa cả thùng rác, không chỉ các trang đã tải: lấy lại trang đầu và xóa theo lô tới khi trống
   const deleteAllFiles = async () => {
+    setLoading(true);
     try {
-      await Promise.all(deletedFiles.map((file) => hardDeleteAsset(file.id)));
-      setDeletedFiles([]);
+      for (;;) {
+        const { content } = await getDeletedAssets(0, PAGE_SIZE);
+        if (content.length === 0) {
+          break;
+        }
+        const result = await bulkAssetOperation("delete", {
+          assetIds: content.map((file) => file.id),
+          permanent: true,
+        });
+        // Không xóa được asset nào (vd: đã bị xóa ở nơi khác) thì dừng, tránh lặp mãi
+        if (result.succeeded === 0) {
+          break;
+        }
+      }
     } catch (error) {
       console.error("Failed to delete all files:", error);
+    } finally {
+      await loadPage(0);
     }
   };
 
@@ -187,6 +222,14 @@ export default function TrashPage() {
           ))}
         </div>
 
+        {deletedFiles.length < totalElements && (
+          <div className="flex justify-center">
+            <Button variant="outline" disabled={loading} onClick={() => loadPage(Math.floor(deletedFiles.length / PAGE_SIZE))}>
+              Tải thêm ({totalElements - deletedFiles.length} file)
+            </Button>
+          </div>
+        )}
+
         {deletedFiles.length === 0 && !loading && (
           <div className="flex flex-col items-center justify-center py-12">
             <Trash2 className="mb-4 h-12 w-12 text-muted-foreground" />
@@ -10,15 +10,38 @@ import {
   AssetUploadRequestPayload,
   PresignedUrlResponse,
   AssetUploadCompletePayload,
+  UploadSession,
+  PresignedPartUrlResponse,
+  CompletedUploadPart,
   GetAssetsParams,
 } from "@/types/api";
 
 const DEFAULT_CONTENT_TYPE = "application/octet-stream";
+// File lớn hơn ngưỡng này upload theo multipart (song song, vượt giới hạn 5 GB của một PUT)
+const MULTIPART_THRESHOLD = 100 * 1024 * 1024;
+const MULTIPART_CONCURRENCY = 4;
+const PART_URL_BATCH_SIZE = 100;
+
+/**
+ * SHA-256 của file: hex gửi cho backend để khử trùng lặp, base64 cho header x-amz-checksum-sha256
+ * (S3 từ chối nội dung không khớp). Trả về null khi không có Web Crypto (trang không chạy HTTPS).
+ */
+async function computeContentHash(file: File): Promise<{ hex: string; base64: string } | null> {
+  if (typeof crypto === "undefined" || !crypto.subtle) {
+    return null;
+  }
+  const digest = new Uint8Array(await crypto.subtle.digest("SHA-256", await file.arrayBuffer()));
+  return {
+    hex: Array.from(digest, (byte) => byte.toString(16).padStart(2, "0")).join(""),
+    base64: btoa(String.fromCharCode(...digest)),
+  };
+}
 
 async function uploadFileToPresignedUrl(
   url: string,
   file: File,
-  onProgress?: (progress: number) => void
+  onProgress?: (progress: number) => void,
+  checksumSha256?: string
 ): Promise<void> {
   if (typeof XMLHttpRequest === "undefined") {
     throw new Error("XMLHttpRequest is not available in this environment");
@@ -31,6 +54,10 @@ async function uploadFileToPresignedUrl(
       "Content-Type",
       file.type && file.type.length > 0 ? file.type : DEFAULT_CONTENT_TYPE
     );
+    if (checksumSha256) {
+      // Header đã được ký vào URL, thiếu hoặc sai thì S3 trả 403 / 400
+      xhr.setRequestHeader("x-amz-checksum-sha256", checksumSha256);
+    }
 
     if (xhr.upload && onProgress) {
       xhr.upload.onprogress = (event) => {
@@ -91,6 +118,166 @@ export async function requestThumbnailUploadUrl(
   }
 }
 
+/**
+ * Xin presigned URL (file gốc + thumbnail) cho nhiều file trong một request
+ */
+export async function requestAssetUploadUrls(
+  files: { fileName: string; contentType: string; size: number }[]
+): Promise<{ fileName: string; file: PresignedUrlResponse; thumbnail: PresignedUrlResponse }[]> {
+  try {
+    const response = await apiClient.post<{
+      success: boolean;
+      data: { fileName: string; file: PresignedUrlResponse; thumbnail: PresignedUrlResponse }[];
+    }>("/assets/upload-request/batch", { files });
+    return response.data.data;
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
+export async function createUploadSession(payload: {
+  fileName: string;
+  contentType: string;
+  fileSize: number;
+}): Promise<UploadSession> {
+  try {
+    const response = await apiClient.post<{
+      success: boolean;
+      data: UploadSession;
+    }>("/assets/multipart", payload);
+    return response.data.data;
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
+/**
+ * Các upload session còn dở của user (ví dụ tab trước bị đóng giữa chừng)
+ */
+export async function getActiveUploadSessions(): Promise<UploadSession[]> {
+  try {
+    const response = await apiClient.get<{ success: boolean; data: UploadSession[] }>("/assets/multipart");
+    return response.data.data;
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
+/**
+ * Lấy các part S3 đã nhận và các part còn thiếu của session
+ */
+export async function resumeUploadSession(sessionId: string): Promise<UploadSession> {
+  try {
+    const response = await apiClient.get<{ success: boolean; data: UploadSession }>(
+      `/assets/multipart/${sessionId}`
+    );
+    return response.data.data;
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
+export async function requestPartUploadUrls(
+  sessionId: string,
+  partNumbers: number[]
+): Promise<PresignedPartUrlResponse[]> {
+  try {
+    const response = await apiClient.post<{
+      success: boolean;
+      data: PresignedPartUrlResponse[];
+    }>(`/assets/multipart/${sessionId}/parts`, { partNumbers });
+    return response.data.data;
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
+export async function completeUploadSession(sessionId: string, parts?: CompletedUploadPart[]): Promise<void> {
+  try {
+    await apiClient.post(`/assets/multipart/${sessionId}/complete`, { parts });
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
+export async function abortUploadSession(sessionId: string): Promise<void> {
+  try {
+    await apiClient.delete(`/assets/multipart/${sessionId}`);
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
+/**
+ * PUT một part, trả về ETag (bucket cần CORS ExposeHeaders: ETag)
+ */
+function uploadPart(url: string, blob: Blob, onProgress: (loaded: number) => void): Promise<string> {
+  return new Promise<string>((resolve, reject) => {
+    const xhr = new XMLHttpRequest();
+    xhr.open("PUT", url);
+    xhr.upload.onprogress = (event) => onProgress(event.loaded);
+    xhr.onload = () => {
+      const etag = xhr.getResponseHeader("ETag");
+      if (xhr.status >= 200 && xhr.status < 300 && etag) {
+        onProgress(blob.size);
+        resolve(etag);
+      } else {
+        reject(new Error(`Part upload failed with status ${xhr.status}`));
+      }
+    };
+    xhr.onerror = () => reject(new Error("Không thể tải part lên presigned URL"));
+    xhr.send(blob);
+  });
+}
+
+/**
+ * Upload file lớn theo multipart: MULTIPART_CONCURRENCY part chạy song song.
+ * Nếu đã có session dở cho cùng file (tên + kích thước) thì resume, chỉ upload các part S3 chưa có.
+ * Lỗi mạng giữ nguyên session để lần sau resume; trả về storageKey để gọi upload-complete.
+ */
+async function uploadFileMultipart(
+  file: File,
+  contentType: string,
+  onProgress?: (progress: number) => void
+): Promise<string> {
+  const existing = (await getActiveUploadSessions()).find(
+    (session) => session.fileName === file.name && session.fileSize === file.size
+  );
+  const session = existing
+    ? await resumeUploadSession(existing.sessionId)
+    : await createUploadSession({ fileName: file.name, contentType, fileSize: file.size });
+
+  const missing = session.missingPartNumbers ??
+    Array.from({ length: session.partCount }, (_, i) => i + 1);
+  const loadedByPart = new Map<number, number>();
+  session.uploadedParts?.forEach((part) => loadedByPart.set(part.partNumber, part.size));
+  const reportProgress = () => {
+    let loaded = 0;
+    loadedByPart.forEach((value) => (loaded += value));
+    onProgress?.(Math.round((loaded / file.size) * 100));
+  };
+  reportProgress();
+
+  for (let from = 0; from < missing.length; from += PART_URL_BATCH_SIZE) {
+    const queue = await requestPartUploadUrls(session.sessionId, missing.slice(from, from + PART_URL_BATCH_SIZE));
+    const workers = Array.from({ length: Math.min(MULTIPART_CONCURRENCY, queue.length) }, async () => {
+      for (let next = queue.shift(); next; next = queue.shift()) {
+        const { partNumber, url } = next;
+        const start = (partNumber - 1) * session.partSize;
+        await uploadPart(url, file.slice(start, start + session.partSize), (loaded) => {
+          loadedByPart.set(partNumber, loaded);
+          reportProgress();
+        });
+      }
+    });
+    await Promise.all(workers);
+  }
+
+  // Không gửi parts: server lấy ETag của mọi part (kể cả part upload ở lần trước) từ S3
+  await completeUploadSession(session.sessionId);
+  return session.storageKey;
+}
+
 export async function completeAssetUpload(
   payload: AssetUploadCompletePayload
 ): Promise<Asset> {
@@ -105,6 +292,24 @@ export async function completeAssetUpload(
   }
 }
 
+/**
+ * Đăng ký nhiều file đã upload xong vào cùng collection trong một request
+ */
+export async function completeAssetUploadBatch(
+  collectionId: string,
+  items: Omit<AssetUploadCompletePayload, "collectionId">[]
+): Promise<Asset[]> {
+  try {
+    const response = await apiClient.post<{
+      success: boolean;
+      data: Asset[];
+    }>("/assets/upload-complete/batch", { collectionId, items });
+    return response.data.data;
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
 /**
  * Lấy danh sách assets
  */
@@ -203,20 +408,36 @@ export async function uploadAsset(
       fileName: file.name,
       contentType: file.type && file.type.length > 0 ? file.type : DEFAULT_CONTENT_TYPE
     };
-    const presigned = await requestAssetUploadUrl(requestPayload);
-    await uploadFileToPresignedUrl(presigned.url, file, (progress) => {
-      onProgress?.(Math.min(progress, 70));
-    });
+    let storageKey: string;
+    let contentHash: string | undefined;
+    if (file.size > MULTIPART_THRESHOLD) {
+      storageKey = await uploadFileMultipart(file, requestPayload.contentType, (progress) => {
+        onProgress?.(Math.min(progress, 70));
+      });
+    } else {
+      // File nhỏ: gửi kèm hash, nếu đã có file cùng nội dung thì không cần upload lại
+      const hash = await computeContentHash(file);
+      contentHash = hash?.hex;
+      const presigned = await requestAssetUploadUrl({ ...requestPayload, contentHash });
+      if (!presigned.alreadyUploaded) {
+        await uploadFileToPresignedUrl(presigned.url, file, (progress) => {
+          onProgress?.(Math.min(progress, 70));
+        }, hash?.base64);
+      }
+      storageKey = presigned.storageKey;
+    }
 
     // B4: Hoàn thành upload
     const asset = await completeAssetUpload({
       collectionId,
-      storageKey: presigned.storageKey,
+      storageKey,
       fileName: file.name,
       contentType: requestPayload.contentType,
       fileSize: file.size,
+      contentHash,
       tags,
       thumbnailUrl: `${process.env.NEXT_PUBLIC_R2_PUBLIC_URL}/${thumbnailPresigned.storageKey}`,
+      thumbnailStorageKey: thumbnailPresigned.storageKey,
     });
 
     onProgress?.(100);
@@ -250,14 +471,14 @@ export async function hardDeleteAsset(assetId: string): Promise<void> {
 }
 
 /**
- * Lấy asset đã xóa
+ * Lấy asset đã xóa (API trả về dạng phân trang)
  */
-export async function getDeletedAssets() {
+export async function getDeletedAssets(page = 0, size = 100) {
   try {
     const response = await apiClient.get<{
       success: boolean;
-      data: Asset[];
-    }>("/assets/deleted");
+      data: { content: Asset[]; totalElements: number; totalPages: number };
+    }>("/assets/deleted", { params: { page, size } });
     return response.data.data;
   } catch (error) {
     throw error as ApiError;
@@ -274,6 +495,40 @@ export async function restoreDeletedAsset(assetId: string): Promise<void> {
   }
 }
 
+export type BulkAssetOperation = "delete" | "restore" | "tag" | "move";
+
+export interface BulkAssetPayload {
+  assetIds: string[];
+  permanent?: boolean;
+  addTags?: string[];
+  removeTags?: string[];
+  targetCollectionId?: string;
+}
+
+export interface BulkAssetResult {
+  requested: number;
+  succeeded: number;
+  results: { assetId: string; status: "SUCCESS" | "SKIPPED" | "NOT_FOUND" }[];
+}
+
+/**
+ * Thao tác hàng loạt (một request cho cả danh sách assets)
+ */
+export async function bulkAssetOperation(
+  operation: BulkAssetOperation,
+  payload: BulkAssetPayload
+): Promise<BulkAssetResult> {
+  try {
+    const response = await apiClient.post<{
+      success: boolean;
+      data: BulkAssetResult;
+    }>(`/assets/bulk/${operation}`, payload);
+    return response.data.data;
+  } catch (error) {
+    throw error as ApiError;
+  }
+}
+
 // ------------------------------Collections------------------------------------------
 /**
  * Lấy danh sách collections
@@ -75,11 +75,42 @@ export interface GetAssetsParams {
 export interface PresignedUrlResponse {
     url: string;
     storageKey: string;
+    alreadyUploaded?: boolean; // true: đã có file cùng nội dung, bỏ qua bước upload (url rỗng)
+}
+
+export interface UploadedPart {
+    partNumber: number;
+    etag: string;
+    size: number;
+}
+
+export interface UploadSession {
+    sessionId: string;
+    storageKey: string;
+    fileName: string;
+    contentType: string;
+    fileSize: number;
+    partSize: number;
+    partCount: number;
+    expiresAt: string;
+    uploadedParts?: UploadedPart[];      // Chỉ có khi resume
+    missingPartNumbers?: number[];       // Chỉ có khi resume
+}
+
+export interface PresignedPartUrlResponse {
+    partNumber: number;
+    url: string;
+}
+
+export interface CompletedUploadPart {
+    partNumber: number;
+    etag: string;
 }
 
 export interface AssetUploadRequestPayload {
     fileName: string;
     contentType: string;
+    contentHash?: string; // SHA-256 (hex) của file, dùng để khử trùng lặp
 }
 
 export interface AssetUploadCompletePayload {
@@ -88,8 +119,10 @@ export interface AssetUploadCompletePayload {
     fileName: string;
     contentType: string;
     fileSize: number;
+    contentHash?: string; // Cùng hash đã gửi lúc xin URL upload
     tags?: string[];
     thumbnailUrl?: string;
+    thumbnailStorageKey?: string; // Backend ký URL thumbnail từ key này khi trả danh sách
 }
 
 export interface Collection {
@@ -97,6 +130,8 @@ export interface Collection {
     name: string;
     description?: string;
     assetCount?: number;
+    totalBytes?: number;
+    lastAssetAt?: string;
     createdAt?: string;
     updatedAt?: string;
 }